@@ -0,0 +1,263 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.util.Hashes;
+import com.tutoroo.util.MinHash;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * [기능: 유사 질문 답변 캐시 (MinHash + LSH)]
+ * 설명: 같은 목표를 공부하는 학생들이 반복해서 묻는 개념 질문("자바 변수가 뭐예요?")에
+ *       이전에 만든 답변을 바로 돌려주어 gpt-4o 호출을 줄입니다. (app.ai.answer-cache.enabled로 켜야 동작)
+ * 범위: (엔드포인트, 목표, 레벨, 페르소나, 공용 맥락)이 같은 질문끼리만 비교합니다.
+ *       대화 기록/요약처럼 한 학생에게만 해당하는 맥락으로 만든 답변은 저장하지 않아야 합니다. (호출하는 쪽 책임)
+ * 작동원리:
+ * 1. 질문을 정규화하여 MinHash 서명을 만들고, 서명을 band로 나눈 LSH 키로 Redis에서 후보를 찾습니다.
+ * 2. 후보 서명과의 유사도가 threshold 이상인 것 중 가장 비슷한 답변을 사용합니다.
+ * 3. 답변에 들어간 학생 이름은 저장 시 자리표시자로 바꾸고, 돌려줄 때 지금 학생 이름으로 채웁니다.
+ * 4. 적중의 일부(audit-sample-rate)는 백그라운드에서 "이 답이 이 질문에 맞는지" 가벼운 모델로 점검하고,
+ *    맞지 않으면 해당 답변을 지웁니다.
+ * 저장 구조: ai:answers:{범위}:e:{id} (Hash: q, sig, a) / ai:answers:{범위}:b:{band} (Set: id)
+ * 지표: ai.answercache.requests{endpoint, result=hit|miss} / ai.answercache.similarity / ai.answercache.audit{endpoint, result}
+ */
+@Slf4j
+@Component
+public class AiAnswerCache {
+
+    private static final String KEY_PREFIX = "ai:answers:";
+    private static final String NAME_PLACEHOLDER = "{{student}}";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AiStructuredOutput structuredOutput;
+    private final AsyncTaskExecutor taskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final AiAnswerCacheProperties properties;
+    private final MinHash minHash;
+
+    public AiAnswerCache(RedisTemplate<String, String> redisTemplate,
+                         AiStructuredOutput structuredOutput,
+                         AsyncTaskExecutor taskExecutor,
+                         MeterRegistry meterRegistry,
+                         AiAnswerCacheProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.structuredOutput = structuredOutput;
+        this.taskExecutor = taskExecutor;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.minHash = new MinHash(properties.numHashes(), properties.shingleSize());
+    }
+
+    /**
+     * [캐시 대상 여부] 꺼져 있거나 질문이 너무 짧거나(맥락 의존) 길면(개인 사정) false
+     */
+    public boolean accepts(String question) {
+        if (!properties.enabled()) return false;
+        int length = MinHash.normalize(question).length();
+        return length >= properties.minChars() && length <= properties.maxChars();
+    }
+
+    /**
+     * [유사 질문 조회] 없으면 null
+     */
+    public String find(Scope scope, String question, String studentName) {
+        if (!accepts(question)) return null;
+        try {
+            int[] signature = minHash.signature(MinHash.normalize(question));
+            Match best = bestMatch(scope, signature);
+            if (best == null) {
+                count(scope, "miss");
+                return null;
+            }
+            count(scope, "hit");
+            DistributionSummary.builder("ai.answercache.similarity")
+                    .tag("endpoint", scope.endpoint())
+                    .register(meterRegistry)
+                    .record(best.similarity());
+            log.info("♻️ 유사 질문 답변 재사용 ({}, 유사도 {}): '{}' ~ '{}'",
+                    scope.endpoint(), String.format("%.2f", best.similarity()), question, best.question());
+
+            if (ThreadLocalRandom.current().nextDouble() < properties.auditSampleRate()) {
+                taskExecutor.execute(() -> audit(scope, best, question));
+            }
+            return withName(best.answer(), studentName);
+        } catch (Exception e) {
+            log.warn("유사 질문 캐시 조회 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * [답변 저장] 정규화한 질문이 같으면 같은 항목을 덮어씁니다.
+     */
+    public void put(Scope scope, String question, String answer, String studentName) {
+        if (!accepts(question) || !StringUtils.hasText(answer)) return;
+        try {
+            String normalized = MinHash.normalize(question);
+            int[] signature = minHash.signature(normalized);
+            String id = Hashes.sha256Hex(normalized).substring(0, 16);
+            String entryKey = entryKey(scope, id);
+            String storedAnswer = hasName(studentName) ? answer.replace(studentName, NAME_PLACEHOLDER) : answer;
+
+            pipelined(redis -> {
+                redis.opsForHash().putAll(entryKey, Map.of("q", question, "sig", encode(signature), "a", storedAnswer));
+                redis.expire(entryKey, properties.ttl());
+                for (String band : MinHash.bandKeys(signature, properties.bands())) {
+                    String bandKey = bandKey(scope, band);
+                    redis.opsForSet().add(bandKey, id);
+                    redis.expire(bandKey, properties.ttl());
+                }
+            });
+        } catch (Exception e) {
+            log.warn("유사 질문 캐시 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    // =========================================================================
+    // [Private Helpers]
+    // =========================================================================
+
+    private Match bestMatch(Scope scope, int[] signature) {
+        String[] bands = MinHash.bandKeys(signature, properties.bands());
+        List<Object> members = pipelined(redis -> {
+            for (String band : bands) redis.opsForSet().members(bandKey(scope, band));
+        });
+
+        Set<String> candidates = new LinkedHashSet<>();
+        for (Object ids : members) {
+            if (!(ids instanceof Set<?> set)) continue;
+            for (Object id : set) {
+                if (candidates.size() >= properties.maxCandidates()) break;
+                candidates.add(id.toString());
+            }
+        }
+        if (candidates.isEmpty()) return null;
+
+        List<String> ids = List.copyOf(candidates);
+        List<Object> entries = pipelined(redis -> {
+            for (String id : ids) redis.opsForHash().multiGet(entryKey(scope, id), List.of("q", "sig", "a"));
+        });
+
+        Match best = null;
+        for (int i = 0; i < ids.size(); i++) {
+            // 만료/삭제된 항목은 band에 id만 남아 있을 수 있음
+            if (!(entries.get(i) instanceof List<?> fields) || fields.size() < 3 || fields.get(1) == null || fields.get(2) == null) continue;
+            double similarity = MinHash.similarity(signature, decode(fields.get(1).toString()));
+            if (similarity >= properties.threshold() && (best == null || similarity > best.similarity())) {
+                best = new Match(ids.get(i), String.valueOf(fields.get(0)), fields.get(2).toString(), similarity);
+            }
+        }
+        return best;
+    }
+
+    // 적중 품질 점검: 맞지 않는 답변이면 지워서 같은 오답이 계속 나가지 않게 함
+    private void audit(Scope scope, Match match, String question) {
+        String prompt = String.format("""
+                아래 [답변]이 [질문]에 대한 올바르고 적절한 답인지 판단해.
+                [답변]은 원래 [원래 질문]에 대해 작성된 것이다. 질문의 의도가 다르면 false.
+                [질문] %s
+                [원래 질문] %s
+                [답변] %s
+                JSON으로만 응답: {"answersQuestion": true 또는 false}
+                """, question, match.question(), match.answer());
+        String result;
+        try {
+            AuditVerdict verdict = structuredOutput.call(AiTask.ANSWER_CACHE_AUDIT, prompt, AuditVerdict.class);
+            if (Boolean.FALSE.equals(verdict.answersQuestion())) {
+                redisTemplate.delete(entryKey(scope, match.id()));
+                log.info("🧹 유사 질문 캐시 점검 불합격, 삭제: '{}' ~ '{}'", question, match.question());
+                result = "fail";
+            } else {
+                result = "pass";
+            }
+        } catch (Exception e) {
+            log.warn("유사 질문 캐시 점검 실패: {}", e.getMessage());
+            result = "error";
+        }
+        meterRegistry.counter("ai.answercache.audit", "endpoint", scope.endpoint(), "result", result).increment();
+    }
+
+    // 여러 명령을 왕복 1번으로 (결과는 명령 순서대로)
+    private List<Object> pipelined(Consumer<RedisOperations<String, String>> commands) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+    }
+
+    private void count(Scope scope, String result) {
+        meterRegistry.counter("ai.answercache.requests", "endpoint", scope.endpoint(), "result", result).increment();
+    }
+
+    private static String withName(String answer, String studentName) {
+        return answer.replace(NAME_PLACEHOLDER, hasName(studentName) ? studentName : "");
+    }
+
+    // 한 글자 이름은 일반 단어 속 글자까지 바뀌므로 치환하지 않음
+    private static boolean hasName(String studentName) {
+        return studentName != null && studentName.strip().length() >= 2;
+    }
+
+    private static String entryKey(Scope scope, String id) {
+        return KEY_PREFIX + scope.key() + ":e:" + id;
+    }
+
+    private static String bandKey(Scope scope, String band) {
+        return KEY_PREFIX + scope.key() + ":b:" + band;
+    }
+
+    private static String encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        for (int value : signature) buffer.putInt(value);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    private static int[] decode(String encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        int[] signature = new int[buffer.remaining() / Integer.BYTES];
+        for (int i = 0; i < signature.length; i++) signature[i] = buffer.getInt();
+        return signature;
+    }
+
+    /**
+     * [비교 범위] 엔드포인트(프롬프트 종류) + 목표 + 레벨 + 페르소나 + 공용 맥락
+     *
+     * @param context 그 밖에 프롬프트에 들어가 답변을 바꾸는 값 (현재 주제/Day, 연령, 목표 레벨 등, 없으면 null)
+     */
+    public record Scope(String endpoint, String goal, String level, String persona, String context) {
+
+        private String key() {
+            String raw = String.join("|", endpoint,
+                    goal == null ? "" : goal.trim().toLowerCase(Locale.ROOT),
+                    level == null ? "" : level.toUpperCase(Locale.ROOT),
+                    persona == null ? "" : persona.toUpperCase(Locale.ROOT),
+                    context == null ? "" : context.trim());
+            return endpoint + ":" + Hashes.sha256Hex(raw).substring(0, 16);
+        }
+    }
+
+    private record Match(String id, String question, String answer, double similarity) {}
+
+    private record AuditVerdict(Boolean answersQuestion) {}
+}
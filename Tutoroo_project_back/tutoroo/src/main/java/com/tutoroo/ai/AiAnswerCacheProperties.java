@@ -0,0 +1,40 @@
+package com.tutoroo.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * [기능: 유사 질문 답변 캐시 설정 (app.ai.answer-cache)]
+ *
+ * @param enabled         사용 여부 (기본 꺼짐, 명시적으로 켜야 동작)
+ * @param threshold       같은 질문으로 볼 최소 유사도 (MinHash 자카드 추정치, 0~1)
+ * @param numHashes       MinHash 서명 길이
+ * @param bands           LSH band 수 (numHashes의 약수, 많을수록 후보를 넓게 찾음)
+ * @param shingleSize     글자 k-gram 길이
+ * @param minChars        캐시할 질문의 최소 길이 (정규화 후, "그게 뭐야?" 같은 맥락 의존 질문 제외)
+ * @param maxChars        캐시할 질문의 최대 길이 (긴 질문은 개인 맥락이 많아 제외)
+ * @param maxCandidates   조회 1회에 비교할 최대 후보 수
+ * @param ttl             답변 보관 시간
+ * @param auditSampleRate 적중 중 품질 점검(AI 채점)을 할 비율
+ */
+@ConfigurationProperties(prefix = "app.ai.answer-cache")
+public record AiAnswerCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0.7") double threshold,
+        @DefaultValue("128") int numHashes,
+        @DefaultValue("32") int bands,
+        @DefaultValue("3") int shingleSize,
+        @DefaultValue("10") int minChars,
+        @DefaultValue("300") int maxChars,
+        @DefaultValue("50") int maxCandidates,
+        @DefaultValue("7d") Duration ttl,
+        @DefaultValue("0.05") double auditSampleRate
+) {
+    public AiAnswerCacheProperties {
+        if (bands <= 0 || numHashes % bands != 0) {
+            throw new IllegalArgumentException("app.ai.answer-cache.bands must divide num-hashes");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tutoroo.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * [기능: AI 응답 캐시 설정 (app.ai.cache)]
+ *
+ * @param enabled      캐시 사용 여부
+ * @param l1MaxEntries 서버 메모리(L1)에 보관할 최대 응답 수 (초과 시 가장 오래 안 쓴 것부터 제거)
+ * @param l1Ttl        L1 보관 시간 (L2 TTL보다 길면 L2 TTL 적용)
+ * @param ttls         엔드포인트별 Redis(L2) 보관 시간 (없으면 defaultTtl)
+ * @param defaultTtl   기본 보관 시간
+ */
+@ConfigurationProperties(prefix = "app.ai.cache")
+public record AiCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000") int l1MaxEntries,
+        @DefaultValue("10m") Duration l1Ttl,
+        Map<String, Duration> ttls,
+        @DefaultValue("6h") Duration defaultTtl
+) {
+    public AiCacheProperties {
+        ttls = (ttls == null) ? Map.of() : ttls;
+    }
+
+    public Duration ttl(String endpoint) {
+        return ttls.getOrDefault(endpoint, defaultTtl);
+    }
+}
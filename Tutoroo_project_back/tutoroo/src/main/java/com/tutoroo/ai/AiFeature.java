@@ -0,0 +1,16 @@
+package com.tutoroo.ai;
+
+/**
+ * [기능: AI 호출 기능 구분]
+ * 설명: AiGateway가 기능별로 동시 실행 수(벌크헤드)를 나누는 기준입니다.
+ * 효과: 새벽 일기/리포트 같은 배치 트래픽이 몰려도 수업 중인 학생의 요청 용량은 보장됩니다.
+ */
+public enum AiFeature {
+    TUTORING,   // 수업 오프닝/세션 멘트, 튜터 채팅, 상담, TTS/STT (실시간)
+    GRADING,    // 테스트/시험/실전 문제 출제 및 채점
+    ROADMAP,    // 수준 분석 및 로드맵 생성 (장시간)
+    DIARY,      // 펫 미드나잇 일기, 커스텀 펫 이미지
+    REPORT,     // 주간 학부모 리포트
+    SUMMARY,    // 튜터 채팅 대화 요약 (백그라운드)
+    PREGEN      // 다음 날 수업/퀴즈/TTS 야간 사전 생성 (배치)
+}
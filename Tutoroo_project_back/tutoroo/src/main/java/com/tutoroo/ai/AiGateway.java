@@ -0,0 +1,274 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.exception.ErrorCode;
+import com.tutoroo.exception.TutorooException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * [기능: AI 호출 단일 관문 (Gateway)]
+ * 설명: 모든 OpenAI 호출(Chat/Image/TTS/STT)은 이 컴포넌트를 거쳐 나갑니다.
+ * 작동원리:
+ * 1. 기능별 벌크헤드(Semaphore)로 동시 호출 수를 제한하고, 대기열이 가득 차면 즉시 거절(AI_BUSY, 429)합니다.
+ * 2. 실제 호출은 가상 스레드(taskExecutor)에서 실행하고, 호출 건별 타임아웃(AI_TIMEOUT)을 적용합니다.
+ * 3. 타임아웃이 나도 실제 호출이 끝날 때까지 자리를 반납하지 않아 OpenAI로 나가는 동시 요청 수가 정확히 유지됩니다.
+ * 4. Chat 호출은 프롬프트 토큰 수를 기록하고, 컨텍스트 한도를 넘으면 호출 전에 거절합니다. (PromptBudget)
+ * 5. Chat 호출은 작업/기능별 모델로 보내고, 응답 시간과 오류를 라우터에 기록합니다. (AiModelRouter)
+ * 6. 모든 호출의 시간/토큰/재시도/추정 비용을 기능·모델·회원 등급별로 기록합니다. (AiMetrics)
+ */
+@Slf4j
+@Component
+public class AiGateway {
+
+    private final OpenAiChatModel chatModel;
+    private final AsyncTaskExecutor taskExecutor;
+    private final AiTransactionGuard transactionGuard;
+    private final PromptBudget promptBudget;
+    private final AiModelRouter modelRouter;
+    private final AiMetrics metrics;
+    private final Map<AiFeature, Bulkhead> bulkheads = new EnumMap<>(AiFeature.class);
+
+    public AiGateway(OpenAiChatModel chatModel,
+                     AsyncTaskExecutor taskExecutor,
+                     AiTransactionGuard transactionGuard,
+                     PromptBudget promptBudget,
+                     AiModelRouter modelRouter,
+                     AiMetrics metrics,
+                     AiGatewayProperties properties) {
+        this.chatModel = chatModel;
+        this.taskExecutor = taskExecutor;
+        this.transactionGuard = transactionGuard;
+        this.promptBudget = promptBudget;
+        this.modelRouter = modelRouter;
+        this.metrics = metrics;
+        for (AiFeature feature : AiFeature.values()) {
+            bulkheads.put(feature, new Bulkhead(feature, properties.bulkhead(feature)));
+        }
+    }
+
+    // --- Chat 편의 메서드 ---
+
+    public ChatResponse call(AiFeature feature, Prompt prompt) {
+        return routedCall(null, feature, prompt);
+    }
+
+    public String call(AiFeature feature, String message) {
+        return routedCall(null, feature, new Prompt(message)).getResult().getOutput().getText();
+    }
+
+    // 작업 단위 라우팅 (벌크헤드는 작업이 속한 기능 기준)
+    public ChatResponse call(AiTask task, Prompt prompt) {
+        return routedCall(task.routeKey(), task.feature(), prompt);
+    }
+
+    public String call(AiTask task, String message) {
+        return call(task, new Prompt(message)).getResult().getOutput().getText();
+    }
+
+    /**
+     * 스트리밍 호출: 구독할 때 자리를 확보하고, 스트림이 끝나거나(완료/에러/취소) 할 때 반납합니다.
+     * 구독하지 않으면 자리를 잡지 않으며, 자리가 없으면 AI_BUSY 에러 신호로 끝납니다.
+     */
+    public Flux<ChatResponse> stream(AiFeature feature, Prompt prompt) {
+        transactionGuard.check("AiGateway.stream(" + feature + ")");
+        int promptTokens = promptBudget.count(prompt);
+        promptBudget.check(feature, promptTokens);
+        AiModelRouter.Decision route = modelRouter.select(null, feature);
+        Prompt routedPrompt = routed(prompt, route);
+        AiMetrics.Call call = metrics.call(feature, AiMetrics.Kind.CHAT_STREAM, modelOf(routedPrompt), 0);
+        Bulkhead bulkhead = bulkheads.get(feature);
+
+        return Flux.defer(() -> {
+            bulkhead.acquire();
+
+            // 라우팅 기록은 첫 토큰까지의 시간 (전체 스트림 길이는 답변 길이에 좌우됨)
+            // 스트림 응답에는 usage가 없어 응답 토큰은 조각 수로 추정
+            long start = System.nanoTime();
+            AtomicBoolean firstToken = new AtomicBoolean(false);
+            AtomicBoolean released = new AtomicBoolean(false);
+            AtomicInteger chunks = new AtomicInteger();
+            AtomicReference<ChatResponse> last = new AtomicReference<>();
+            Flux<ChatResponse> source;
+            try {
+                source = chatModel.stream(routedPrompt);
+            } catch (RuntimeException e) {
+                bulkhead.release();
+                modelRouter.record(route, System.nanoTime() - start, true);
+                metrics.record(call, System.nanoTime() - start, true);
+                return Flux.error(e);
+            }
+            return source
+                    .timeout(bulkhead.config.timeout())
+                    .doOnNext(response -> {
+                        if (firstToken.compareAndSet(false, true)) modelRouter.record(route, System.nanoTime() - start, false);
+                        chunks.incrementAndGet();
+                        last.set(response);
+                    })
+                    .doOnError(e -> {
+                        if (firstToken.compareAndSet(false, true)) modelRouter.record(route, System.nanoTime() - start, true);
+                    })
+                    .doFinally(signal -> {
+                        if (released.compareAndSet(false, true)) {
+                            bulkhead.release();
+                            metrics.record(call, System.nanoTime() - start, signal == SignalType.ON_ERROR);
+                            metrics.recordUsage(call, last.get(), promptTokens, chunks.get());
+                        }
+                    });
+        });
+    }
+
+    private ChatResponse routedCall(String routeKey, AiFeature feature, Prompt prompt) {
+        int promptTokens = promptBudget.count(prompt);
+        promptBudget.check(feature, promptTokens);
+        AiModelRouter.Decision route = modelRouter.select(routeKey, feature);
+        Prompt routedPrompt = routed(prompt, route);
+        AiMetrics.Call call = metrics.call(feature, AiMetrics.Kind.CHAT, modelOf(routedPrompt), 0);
+
+        // 벌크헤드 대기 시간은 제외하고 실제 모델 호출만 기록 (타임아웃 취소는 오류로 기록됨)
+        return execute(feature, call, () -> {
+            long start = System.nanoTime();
+            try {
+                ChatResponse response = chatModel.call(routedPrompt);
+                modelRouter.record(route, System.nanoTime() - start, false);
+                metrics.recordUsage(call, response, promptTokens, 0);
+                return response;
+            } catch (RuntimeException e) {
+                modelRouter.record(route, System.nanoTime() - start, true);
+                throw e;
+            }
+        });
+    }
+
+    // 계측용 모델 이름 (라우팅/호출부 지정 모델 -> 기본 모델)
+    private String modelOf(Prompt prompt) {
+        if (prompt.getOptions() != null && prompt.getOptions().getModel() != null) return prompt.getOptions().getModel();
+        return chatModel.getDefaultOptions().getModel();
+    }
+
+    // 선택된 모델/온도를 프롬프트 옵션에 반영 (호출부가 지정한 다른 옵션은 유지)
+    private Prompt routed(Prompt prompt, AiModelRouter.Decision route) {
+        if (route == null) return prompt;
+        OpenAiChatOptions options = (prompt.getOptions() instanceof OpenAiChatOptions existing)
+                ? existing.copy()
+                : new OpenAiChatOptions();
+        options.setModel(route.model());
+        if (route.temperature() != null) options.setTemperature(route.temperature());
+        return new Prompt(prompt.getInstructions(), options);
+    }
+
+    // --- 범용 실행 (Image, TTS, STT, ChatClient 등) ---
+
+    /**
+     * @param kind  호출 종류 (계측용)
+     * @param model 모델 이름 (계측/비용용)
+     * @param units 비용 단위 수 (TTS: 글자 수, Image: 장 수)
+     */
+    public <T> T execute(AiFeature feature, AiMetrics.Kind kind, String model, double units, Supplier<T> call) {
+        return execute(feature, metrics.call(feature, kind, model, units), call);
+    }
+
+    public <T> T execute(AiFeature feature, Supplier<T> call) {
+        return execute(feature, AiMetrics.Kind.OTHER, null, 0, call);
+    }
+
+    private <T> T execute(AiFeature feature, AiMetrics.Call metricsCall, Supplier<T> call) {
+        transactionGuard.check("AiGateway.execute(" + feature + ")");
+        Bulkhead bulkhead = bulkheads.get(feature);
+        bulkhead.acquire();
+
+        // 자리는 한 번만 반납 (시작 전에 취소된 작업은 본문의 finally가 돌지 않으므로 취소한 쪽에서 반납)
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) bulkhead.release();
+        };
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = taskExecutor.submit(() -> {
+                try {
+                    result.complete(metrics.measure(metricsCall, call));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    release.run();
+                }
+            });
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+
+        try {
+            return result.get(bulkhead.config.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (task.cancel(true)) release.run();
+            log.warn("⏱️ AI 호출 타임아웃 ({}): {}ms 초과", feature, bulkhead.config.timeout().toMillis());
+            throw new TutorooException(ErrorCode.AI_TIMEOUT);
+        } catch (InterruptedException e) {
+            if (task.cancel(true)) release.run();
+            Thread.currentThread().interrupt();
+            throw new TutorooException(ErrorCode.AI_PROCESSING_ERROR);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new TutorooException(cause.getMessage(), ErrorCode.AI_PROCESSING_ERROR);
+        }
+    }
+
+    // 기능별 벌크헤드 (동시 실행 자리 + 대기열 길이 제한)
+    private static final class Bulkhead {
+        private final AiFeature feature;
+        private final AiGatewayProperties.Bulkhead config;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        private Bulkhead(AiFeature feature, AiGatewayProperties.Bulkhead config) {
+            this.feature = feature;
+            this.config = config;
+            this.permits = new Semaphore(config.maxConcurrent(), true);
+        }
+
+        private void acquire() {
+            if (permits.tryAcquire()) return;
+
+            // 대기열이 가득 찼으면 기다리지 않고 바로 거절 (Fast Fail)
+            if (waiting.incrementAndGet() > config.maxQueue()) {
+                waiting.decrementAndGet();
+                log.warn("🚫 AI 대기열 초과로 거절 ({}): 동시 {}개, 대기 {}개", feature, config.maxConcurrent(), config.maxQueue());
+                throw new TutorooException(ErrorCode.AI_BUSY);
+            }
+            try {
+                if (!permits.tryAcquire(config.maxWait().toMillis(), TimeUnit.MILLISECONDS)) {
+                    log.warn("🚫 AI 대기 시간 초과로 거절 ({}): {}ms", feature, config.maxWait().toMillis());
+                    throw new TutorooException(ErrorCode.AI_BUSY);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TutorooException(ErrorCode.AI_BUSY);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        private void release() {
+            permits.release();
+        }
+    }
+}
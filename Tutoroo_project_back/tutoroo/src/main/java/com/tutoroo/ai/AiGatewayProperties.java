@@ -0,0 +1,36 @@
+package com.tutoroo.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * [기능: AI 게이트웨이 설정 (app.ai.gateway)]
+ * 설명: 기능(AiFeature)별 벌크헤드 설정입니다. 설정이 없는 기능은 Bulkhead 기본값을 사용합니다.
+ */
+@ConfigurationProperties(prefix = "app.ai.gateway")
+public record AiGatewayProperties(Map<AiFeature, Bulkhead> bulkheads) {
+
+    public AiGatewayProperties {
+        bulkheads = (bulkheads == null) ? Map.of() : bulkheads;
+    }
+
+    public Bulkhead bulkhead(AiFeature feature) {
+        return bulkheads.getOrDefault(feature, new Bulkhead(10, 50, Duration.ofSeconds(5), Duration.ofSeconds(60)));
+    }
+
+    /**
+     * @param maxConcurrent 동시에 OpenAI로 나갈 수 있는 호출 수
+     * @param maxQueue      자리를 기다릴 수 있는 최대 대기 수 (초과 시 즉시 거절)
+     * @param maxWait       자리를 기다리는 최대 시간 (초과 시 거절)
+     * @param timeout       호출 1건의 최대 응답 시간 (스트리밍은 토큰 간 최대 간격)
+     */
+    public record Bulkhead(
+            @DefaultValue("10") int maxConcurrent,
+            @DefaultValue("50") int maxQueue,
+            @DefaultValue("5s") Duration maxWait,
+            @DefaultValue("60s") Duration timeout
+    ) {}
+}
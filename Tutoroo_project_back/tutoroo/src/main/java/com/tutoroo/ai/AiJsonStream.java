@@ -0,0 +1,77 @@
+package com.tutoroo.ai;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.util.JsonArrayStreamParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * [기능: JSON 배열 스트리밍 호출]
+ * 설명: 문제 묶음처럼 JSON 배열로 받는 응답을 스트리밍으로 받아, 원소가 완성될 때마다 바로 넘겨줍니다.
+ * 효과:
+ * 1. 1번 문제의 후처리(중복 확인 등)가 5번 문제 생성 중에 시작됩니다.
+ * 2. 응답 끝이 잘리거나 원소 하나가 깨져도 온전한 원소는 살립니다. (전체 재시도 X)
+ * 호출 스레드에서 스트림이 끝날 때까지 기다리므로 가상 스레드/요청 스레드에서 호출합니다.
+ */
+@Slf4j
+@Component
+public class AiJsonStream {
+
+    private final AiGateway aiGateway;
+    private final ObjectMapper objectMapper;
+
+    public AiJsonStream(AiGateway aiGateway, ObjectMapper objectMapper) {
+        this.aiGateway = aiGateway;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * [원소 단위 수신] 완성된 원소를 type으로 변환해 onElement에 넘기고, 넘긴 원소 수와 배열이 닫혔는지를 반환합니다.
+     * 원소를 하나도 받지 못한 채 스트림이 실패하면 예외를 그대로 던집니다.
+     */
+    public <T> Result forEachElement(AiFeature feature, Prompt prompt, TypeReference<T> type, Consumer<T> onElement) {
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+        AtomicInteger received = new AtomicInteger();
+
+        try {
+            aiGateway.stream(feature, prompt)
+                    .takeWhile(response -> !parser.isComplete())
+                    .doOnNext(response -> {
+                        for (String json : parser.feed(textOf(response))) {
+                            try {
+                                onElement.accept(objectMapper.readValue(json, type));
+                                received.incrementAndGet();
+                            } catch (Exception e) {
+                                log.warn("JSON 원소 변환 실패 ({}), 건너뜀: {}", feature, e.getMessage());
+                            }
+                        }
+                    })
+                    .blockLast();
+        } catch (RuntimeException e) {
+            if (received.get() == 0) throw e;
+            log.warn("JSON 스트림 중단 ({}): 완성된 원소 {}개만 사용 - {}", feature, received.get(), e.getMessage());
+        }
+
+        if (!parser.isComplete() && received.get() > 0) {
+            log.warn("JSON 배열이 닫히지 않음 ({}): 완성된 원소 {}개만 사용", feature, received.get());
+        }
+        return new Result(received.get(), parser.isComplete());
+    }
+
+    private String textOf(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) return null;
+        return response.getResult().getOutput().getText();
+    }
+
+    /**
+     * @param received 넘긴 원소 수
+     * @param complete 배열이 끝까지 닫혔는지 (false면 중간에 끊긴 부분 결과)
+     */
+    public record Result(int received, boolean complete) {}
+}
@@ -0,0 +1,247 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.security.CustomUserDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * [기능: AI 호출 계측]
+ * 설명: AiGateway를 지나는 모든 Chat/TTS/STT/Image 호출의 시간, 토큰, 재시도, 추정 비용을 기록합니다.
+ * 작동원리:
+ * 1. 호출을 시작한 스레드에서 회원 등급(MembershipTier)을 읽어 둡니다. (실제 호출은 가상 스레드에서 실행되므로)
+ *    로그인 사용자가 없는 배치/스케줄러 호출은 SYSTEM으로 기록합니다.
+ * 2. Spring AI 공용 RetryTemplate에 리스너를 달아, 호출 안에서 일어난 재시도를 같은 태그로 셉니다.
+ * 3. Chat은 응답의 usage(없으면 추정치)로, 나머지는 글자 수/이미지 수/호출 수로 비용을 계산합니다. (app.ai.pricing)
+ * 4. HTTP 요청 안의 호출은 요청별 합계에 더해 RequestLoggingFilter 로그에 AI 시간이 함께 찍힙니다.
+ * 지표 (공통 태그: feature, kind, model, tier):
+ *   ai.calls (Timer, + outcome) / ai.tokens (+ type=prompt|completion) / ai.calls.retries / ai.cost (USD)
+ * 조회: /actuator/aiusage (AiUsageEndpoint)
+ */
+@Slf4j
+@Component
+public class AiMetrics {
+
+    public static final String CALLS = "ai.calls";
+    public static final String TOKENS = "ai.tokens";
+    public static final String RETRIES = "ai.calls.retries";
+    public static final String COST = "ai.cost";
+
+    // 요청별 AI 시간 합계 (RequestLoggingFilter가 읽음)
+    public static final String REQUEST_USAGE_ATTRIBUTE = AiMetrics.class.getName() + ".requestUsage";
+
+    private static final String SYSTEM_TIER = "SYSTEM";
+    private static final String UNKNOWN = "unknown";
+
+    // 재시도 리스너가 현재 호출을 알 수 있도록 실행 스레드에 묶어 둠
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final AiPricingProperties pricing;
+
+    public AiMetrics(MeterRegistry meterRegistry,
+                     AiPricingProperties pricing,
+                     ObjectProvider<RetryTemplate> retryTemplates) {
+        this.meterRegistry = meterRegistry;
+        this.pricing = pricing;
+        retryTemplates.ifUnique(template -> template.registerListener(new RetryCounter()));
+    }
+
+    /**
+     * [호출 준비] 호출을 시작하는 스레드(요청 스레드, 또는 AsyncConfig가 요청 컨텍스트를 넘겨준 taskExecutor 스레드)에서 만들어야 등급/요청 정보가 잡힙니다.
+     *
+     * @param units 비용 단위 수 (TTS: 글자 수, Image: 장 수, 그 외 0)
+     */
+    public Call call(AiFeature feature, Kind kind, String model, double units) {
+        return new Call(feature, kind, (model == null || model.isBlank()) ? UNKNOWN : model, currentTier(), units, requestUsage());
+    }
+
+    /**
+     * [실행 + 시간 기록] 실제 모델 호출을 감쌉니다. Chat이 아닌 호출은 성공 시 비용도 여기서 기록합니다.
+     */
+    public <T> T measure(Call call, Supplier<T> body) {
+        CURRENT.set(call);
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            T result = body.get();
+            error = false;
+            return result;
+        } finally {
+            CURRENT.remove();
+            record(call, System.nanoTime() - start, error);
+            if (!error && call.kind() != Kind.CHAT && call.kind() != Kind.CHAT_STREAM) recordCost(call, 0, 0);
+        }
+    }
+
+    public void record(Call call, long elapsedNanos, boolean error) {
+        Timer.builder(CALLS)
+                .tags("feature", call.featureTag(), "kind", call.kind().tag(), "model", call.model(), "tier", call.tier())
+                .tag("outcome", error ? "error" : "success")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (call.requestUsage() != null) call.requestUsage().add(call.kind().tag() + ":" + call.model(), elapsedNanos);
+    }
+
+    /**
+     * [Chat 토큰/비용] 응답에 usage가 없으면(스트리밍 등) 호출부의 추정치를 씁니다.
+     */
+    public void recordUsage(Call call, ChatResponse response, long estimatedPromptTokens, long estimatedCompletionTokens) {
+        Usage usage = (response != null && response.getMetadata() != null) ? response.getMetadata().getUsage() : null;
+        long promptTokens = estimatedPromptTokens;
+        long completionTokens = estimatedCompletionTokens;
+        if (usage != null && usage.getPromptTokens() != null && usage.getPromptTokens() > 0) {
+            promptTokens = usage.getPromptTokens();
+            completionTokens = (usage.getCompletionTokens() != null) ? usage.getCompletionTokens() : estimatedCompletionTokens;
+        }
+
+        if (call.requestUsage() != null) call.requestUsage().addTokens(promptTokens + completionTokens);
+        tokenCounter(call, "prompt").increment(promptTokens);
+        tokenCounter(call, "completion").increment(completionTokens);
+        recordCost(call, promptTokens, completionTokens);
+    }
+
+    private void recordCost(Call call, long promptTokens, long completionTokens) {
+        AiPricingProperties.Price price = pricing.price(call.model());
+        double cost = (price == null) ? 0 : price.cost(promptTokens, completionTokens, call.units());
+        Counter.builder(COST)
+                .baseUnit("usd")
+                .tags("feature", call.featureTag(), "kind", call.kind().tag(), "model", call.model(), "tier", call.tier())
+                .register(meterRegistry)
+                .increment(cost);
+    }
+
+    private Counter tokenCounter(Call call, String type) {
+        return Counter.builder(TOKENS)
+                .tags("feature", call.featureTag(), "kind", call.kind().tag(), "model", call.model(), "tier", call.tier())
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static String currentTier() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof CustomUserDetails user) return user.getTier();
+        return SYSTEM_TIER;
+    }
+
+    // HTTP 요청 안이면 요청별 합계를 만들어 둠 (배치 호출은 null)
+    // taskExecutor가 요청 속성을 넘겨주므로 같은 요청의 여러 가상 스레드가 동시에 들어올 수 있고,
+    // 응답이 끝난 뒤 도는 작업은 비활성 요청이라 IllegalStateException이 나므로 합계에서 뺌
+    private static RequestUsage requestUsage() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return null;
+        try {
+            synchronized (attributes) {
+                Object existing = attributes.getAttribute(REQUEST_USAGE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (existing instanceof RequestUsage usage) return usage;
+                RequestUsage usage = new RequestUsage();
+                attributes.setAttribute(REQUEST_USAGE_ATTRIBUTE, usage, RequestAttributes.SCOPE_REQUEST);
+                return usage;
+            }
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    public enum Kind {
+        CHAT, CHAT_STREAM, SPEECH, TRANSCRIPTION, IMAGE, OTHER;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * 호출 1건의 계측 태그
+     *
+     * @param feature      기능 (벌크헤드 단위)
+     * @param kind         호출 종류
+     * @param model        모델 이름 (모르면 unknown)
+     * @param tier         회원 등급 (배치는 SYSTEM)
+     * @param units        비용 단위 수
+     * @param requestUsage HTTP 요청별 합계 (요청 밖이면 null)
+     */
+    public record Call(AiFeature feature, Kind kind, String model, String tier, double units, RequestUsage requestUsage) {
+
+        private String featureTag() {
+            return (feature == null) ? UNKNOWN : feature.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * [요청별 AI 시간] 종류:모델별 호출 수와 누적 시간 (예: chat:gpt-4o 8200ms x2, speech:tts-1 1900ms x1)
+     */
+    public static final class RequestUsage {
+        private final Map<String, long[]> totals = new ConcurrentHashMap<>();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong totalTokens = new AtomicLong();
+
+        private void add(String key, long elapsedNanos) {
+            totalNanos.addAndGet(elapsedNanos);
+            totals.compute(key, (k, v) -> {
+                long[] sum = (v == null) ? new long[2] : v;
+                sum[0]++;
+                sum[1] += elapsedNanos;
+                return sum;
+            });
+        }
+
+        private void addTokens(long tokens) {
+            totalTokens.addAndGet(tokens);
+        }
+
+        // Chat 토큰 합계 (AiRateLimiter 토큰 한도 정산용)
+        public long totalTokens() {
+            return totalTokens.get();
+        }
+
+        public long totalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joiner = new StringJoiner(", ");
+            totals.forEach((key, sum) -> joiner.add(key + " " + TimeUnit.NANOSECONDS.toMillis(sum[1]) + "ms x" + sum[0]));
+            return joiner.toString();
+        }
+    }
+
+    // 호출이 끝날 때 재시도 횟수를 기록 (성공: 실패 횟수 전부 / 최종 실패: 마지막 실패 제외)
+    private final class RetryCounter implements RetryListener {
+        @Override
+        public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+            int retries = context.getRetryCount() - (throwable == null ? 0 : 1);
+            if (retries <= 0) return;
+
+            Call call = CURRENT.get();
+            if (call == null) call = new Call(null, Kind.OTHER, UNKNOWN, SYSTEM_TIER, 0, null);
+            Counter.builder(RETRIES)
+                    .tags("feature", call.featureTag(), "kind", call.kind().tag(), "model", call.model(), "tier", call.tier())
+                    .register(meterRegistry)
+                    .increment(retries);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.tutoroo.ai;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [기능: 작업별 AI 모델 라우팅]
+ * 설명: 작업/기능마다 주 모델과 대체 모델을 정하고, 주 모델이 느려지거나 오류가 늘면 대체 모델로 보냅니다.
+ * 작동원리:
+ * 1. AiGateway가 Chat 호출마다 모델별 응답 시간과 오류 여부를 기록합니다. (최근 window 구간만 유지)
+ * 2. 주 모델의 p95 응답 시간이 maxP95를, 또는 오류율이 maxErrorRate를 넘으면 대체 모델을 고릅니다.
+ * 3. 대체 중에는 주 모델 기록이 쌓이지 않으므로 window가 지나 표본이 minSamples 미만이 되면 주 모델로 복귀합니다.
+ * 지표: ai.routing.decisions{route, model, reason=primary|latency|errors}, ai.model.latency{route, model, outcome}
+ */
+@Slf4j
+@Component
+public class AiModelRouter {
+
+    // 구간당 보관하는 최대 표본 수 (p95 계산 비용 상한)
+    private static final int MAX_SAMPLES = 500;
+
+    private final AiRoutingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final Map<String, String> lastReasons = new ConcurrentHashMap<>();
+
+    public AiModelRouter(AiRoutingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * [모델 선택] 라우트가 없거나 라우팅이 꺼져 있으면 null (기본 모델 사용)
+     */
+    public Decision select(String routeKey, AiFeature feature) {
+        if (!properties.enabled()) return null;
+        String key = routeKey;
+        AiRoutingProperties.Route route = properties.route(key);
+        if (route == null && feature != null) {
+            key = feature.name().toLowerCase(Locale.ROOT);
+            route = properties.route(key);
+        }
+        if (route == null || route.primary() == null) return null;
+
+        String reason = "primary";
+        String model = route.primary();
+        if (route.fallback() != null && !route.fallback().equals(route.primary())) {
+            Health health = window(key, route.primary()).health();
+            if (health.samples() >= properties.minSamples()) {
+                if (health.errorRate() > route.maxErrorRate()) reason = "errors";
+                else if (health.p95Nanos() > route.maxP95().toNanos()) reason = "latency";
+            }
+            if (!"primary".equals(reason)) model = route.fallback();
+        }
+
+        String previous = lastReasons.put(key, reason);
+        if (previous != null && !previous.equals(reason)) {
+            log.warn("🔀 AI 모델 라우팅 변경 ({}): {} -> {} (사유: {})", key, previous, model, reason);
+        }
+        meterRegistry.counter("ai.routing.decisions", "route", key, "model", model, "reason", reason).increment();
+        return new Decision(key, model, route.temperature());
+    }
+
+    /**
+     * [결과 기록] 모델 호출 1건의 응답 시간(스트리밍은 첫 토큰까지)과 성공 여부
+     */
+    public void record(Decision decision, long elapsedNanos, boolean error) {
+        if (decision == null) return;
+        window(decision.routeKey(), decision.model()).add(elapsedNanos, error);
+        Timer.builder("ai.model.latency")
+                .tag("route", decision.routeKey())
+                .tag("model", decision.model())
+                .tag("outcome", error ? "error" : "success")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private LatencyWindow window(String routeKey, String model) {
+        return windows.computeIfAbsent(routeKey + "|" + model, k -> new LatencyWindow(properties.window()));
+    }
+
+    /**
+     * @param routeKey    라우트 키 (지표/기록용)
+     * @param model       호출할 모델
+     * @param temperature 모델 온도 (null이면 기본값)
+     */
+    public record Decision(String routeKey, String model, Double temperature) {}
+
+    private record Health(int samples, double errorRate, long p95Nanos) {}
+
+    // 최근 window 구간의 호출 기록 (시간순)
+    private static final class LatencyWindow {
+        private final long windowNanos;
+        private final ArrayDeque<long[]> samples = new ArrayDeque<>(); // {기록 시각, 응답 시간, 오류(1/0)}
+
+        private LatencyWindow(Duration window) {
+            this.windowNanos = window.toNanos();
+        }
+
+        private synchronized void add(long elapsedNanos, boolean error) {
+            long now = System.nanoTime();
+            samples.addLast(new long[]{now, elapsedNanos, error ? 1 : 0});
+            if (samples.size() > MAX_SAMPLES) samples.removeFirst();
+            prune(now);
+        }
+
+        private synchronized Health health() {
+            prune(System.nanoTime());
+            int n = samples.size();
+            if (n == 0) return new Health(0, 0, 0);
+
+            long[] latencies = new long[n];
+            int errors = 0;
+            int i = 0;
+            for (long[] sample : samples) {
+                latencies[i++] = sample[1];
+                errors += (int) sample[2];
+            }
+            Arrays.sort(latencies);
+            int p95Index = Math.min(n - 1, (int) Math.ceil(n * 0.95) - 1);
+            return new Health(n, (double) errors / n, latencies[p95Index]);
+        }
+
+        private void prune(long now) {
+            while (!samples.isEmpty() && now - samples.peekFirst()[0] > windowNanos) {
+                samples.removeFirst();
+            }
+        }
+    }
+}
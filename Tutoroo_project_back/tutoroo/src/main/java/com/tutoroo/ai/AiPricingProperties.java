@@ -0,0 +1,45 @@
+package com.tutoroo.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * [기능: AI 호출 비용 단가 설정 (app.ai.pricing)]
+ * 모델 이름(예: gpt-4o, tts-1, dall-e-3)별 USD 단가입니다. 정확한 이름이 없으면 가장 긴 접두사가 맞는 항목을 씁니다.
+ * 단가가 없는 모델은 비용을 0으로 기록합니다. (추정치이며 청구서와 다를 수 있음)
+ *
+ * @param models 모델별 단가
+ */
+@ConfigurationProperties(prefix = "app.ai.pricing")
+public record AiPricingProperties(Map<String, Price> models) {
+
+    public AiPricingProperties {
+        models = (models == null) ? Map.of() : models;
+    }
+
+    public Price price(String model) {
+        if (model == null) return null;
+        Price exact = models.get(model);
+        if (exact != null) return exact;
+
+        String best = null;
+        for (String key : models.keySet()) {
+            if (model.startsWith(key) && (best == null || key.length() > best.length())) best = key;
+        }
+        return (best == null) ? null : models.get(best);
+    }
+
+    /**
+     * @param inputPer1m  프롬프트 토큰 100만 개당 (Chat)
+     * @param outputPer1m 응답 토큰 100만 개당 (Chat)
+     * @param perUnit     단위당 (TTS: 글자 1개, Image: 이미지 1장)
+     * @param perCall     호출 1건당 (STT처럼 길이를 알 수 없는 호출의 평균 추정치)
+     */
+    public record Price(double inputPer1m, double outputPer1m, double perUnit, double perCall) {
+
+        public double cost(long promptTokens, long completionTokens, double units) {
+            return promptTokens * inputPer1m / 1_000_000 + completionTokens * outputPer1m / 1_000_000 + units * perUnit + perCall;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.tutoroo.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * [기능: 프롬프트 토큰 예산 설정 (app.ai.prompt-budget)]
+ *
+ * @param budgets       기능별 프롬프트 토큰 예산 (초과 시 오래된 대화부터 제거)
+ * @param defaultBudget 설정이 없는 기능의 예산
+ * @param maxContext    모델 컨텍스트 한도 (초과하는 프롬프트는 호출 전에 즉시 거절)
+ */
+@ConfigurationProperties(prefix = "app.ai.prompt-budget")
+public record AiPromptBudgetProperties(
+        Map<AiFeature, Integer> budgets,
+        @DefaultValue("8000") int defaultBudget,
+        @DefaultValue("120000") int maxContext
+) {
+    public AiPromptBudgetProperties {
+        budgets = (budgets == null) ? Map.of() : budgets;
+    }
+
+    public int budget(AiFeature feature) {
+        return budgets.getOrDefault(feature, defaultBudget);
+    }
+}
@@ -0,0 +1,61 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.entity.MembershipTier;
+import com.tutoroo.exception.RateLimitedException;
+import com.tutoroo.security.CustomUserDetails;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * [기능: AI 엔드포인트 요청 한도 적용]
+ * 설명: @AiRateLimited가 붙은 요청을 컨트롤러 실행 전에 AiRateLimiter로 확인합니다.
+ * 작동원리:
+ * 1. 허용되면 X-RateLimit-Remaining 헤더로 남은 요청 수를 알려 줍니다.
+ * 2. 거절되면 RateLimitedException(429 + Retry-After)으로 AI 호출 전에 끝냅니다.
+ * 3. 요청이 끝나면(SSE 등 비동기 응답은 완료 시점) AiMetrics가 모은 실제 사용 토큰을 정산합니다.
+ * 로그인하지 않은 요청은 여기서 막지 않습니다. (인증 처리는 Security/컨트롤러 담당)
+ */
+@Component
+@RequiredArgsConstructor
+public class AiRateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String LEASE_ATTRIBUTE = AiRateLimitInterceptor.class.getName() + ".lease";
+
+    private final AiRateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 비동기 응답의 재디스패치는 이미 확인한 요청
+        if (request.getDispatcherType() != DispatcherType.REQUEST) return true;
+        if (!(handler instanceof HandlerMethod method)) return true;
+        AiRateLimited limited = method.getMethodAnnotation(AiRateLimited.class);
+        if (limited == null) return true;
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof CustomUserDetails user)) return true;
+
+        AiRateLimiter.Decision decision = rateLimiter.tryAcquire(user.getId(), MembershipTier.valueOf(user.getTier()), limited.value());
+        if (!decision.allowed()) throw new RateLimitedException(decision.retryAfterSeconds());
+
+        if (decision.remaining() >= 0) response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        if (decision.lease() != null) request.setAttribute(LEASE_ATTRIBUTE, decision.lease());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(LEASE_ATTRIBUTE) instanceof AiRateLimiter.Lease lease)) return;
+        request.removeAttribute(LEASE_ATTRIBUTE);
+        if (request.getAttribute(AiMetrics.REQUEST_USAGE_ATTRIBUTE) instanceof AiMetrics.RequestUsage usage) {
+            rateLimiter.debitTokens(lease, usage.totalTokens());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.entity.MembershipTier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * [기능: AI 요청 한도 설정 (app.ai.rate-limit)]
+ * 설명: 회원 등급(MembershipTier) x 기능(AiFeature)별 요청 수/토큰 한도입니다.
+ *       설정이 없는 등급/기능 조합은 제한하지 않습니다.
+ */
+@ConfigurationProperties(prefix = "app.ai.rate-limit")
+public record AiRateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        Map<MembershipTier, Map<AiFeature, Quota>> tiers
+) {
+    public AiRateLimitProperties {
+        tiers = (tiers == null) ? Map.of() : tiers;
+    }
+
+    /**
+     * @return 적용할 한도, 없으면 null (제한 없음)
+     */
+    public Quota quota(MembershipTier tier, AiFeature feature) {
+        Map<AiFeature, Quota> quotas = tiers.get(tier);
+        return (quotas == null) ? null : quotas.get(feature);
+    }
+
+    /**
+     * @param requestsPerMinute 분당 허용 요청 수 (버킷 충전 속도)
+     * @param burst             한 번에 몰아 쓸 수 있는 요청 수 (버킷 크기, 0이면 requestsPerMinute)
+     * @param tokensPerHour     시간당 AI 토큰 한도 (0이면 토큰 제한 없음)
+     */
+    public record Quota(
+            @DefaultValue("10") int requestsPerMinute,
+            @DefaultValue("0") int burst,
+            @DefaultValue("0") long tokensPerHour
+    ) {
+        public int capacity() {
+            return (burst > 0) ? burst : requestsPerMinute;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.tutoroo.ai;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * [기능: AI 요청 한도 대상 표시]
+ * 설명: AI를 호출하는 컨트롤러 메서드에 붙이면 AiRateLimitInterceptor가 (유저, 등급, 기능)별 한도를 적용합니다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AiRateLimited {
+
+    AiFeature value();
+}
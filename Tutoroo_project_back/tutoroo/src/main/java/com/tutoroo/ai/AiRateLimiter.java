@@ -0,0 +1,152 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.entity.MembershipTier;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * [기능: 등급별 AI 요청 한도 (분산 토큰 버킷)]
+ * 설명: 한 사용자가 AI 엔드포인트를 반복 호출해 공용 OpenAI 처리량을 독차지하지 못하도록 (유저, 등급, 기능)별로 제한합니다.
+ * 작동원리:
+ * 1. 요청 버킷: burst만큼 채워져 있고 분당 requestsPerMinute 속도로 다시 찹니다. 요청마다 1개를 씁니다.
+ * 2. 토큰 버킷: 시간당 tokensPerHour 속도로 찹니다. 요청이 끝난 뒤 실제 사용 토큰만큼 빼며(음수 가능),
+ *    0 이하이면 다음 요청을 거절합니다. (토큰 수는 응답 전에는 알 수 없으므로 후불 정산)
+ * 3. 충전 계산과 차감은 Lua 스크립트 하나로 Redis 안에서 원자적으로 처리하고, 시각도 Redis TIME을 써서 노드 간 시계 차이가 없습니다.
+ * 4. Redis 장애 시에는 요청을 막지 않습니다. (벌크헤드가 최종 보호)
+ * 지표: ai.ratelimit.rejected{feature, tier, reason=requests|tokens}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AiRateLimiter {
+
+    private static final String KEY_PREFIX = "ratelimit:ai:";
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    // 공통: 마지막 기록 이후 경과 시간만큼 충전한 현재 잔량 / 저장 (완전히 찰 때까지 보관)
+    private static final String BUCKET_FUNCTIONS = """
+            local clock = redis.call('TIME')
+            local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+            local function level(key, capacity, rate)
+              local state = redis.call('HMGET', key, 'tokens', 'ts')
+              local tokens = tonumber(state[1])
+              if tokens == nil then return capacity end
+              return math.min(capacity, tokens + math.max(0, now - tonumber(state[2])) * rate)
+            end
+            local function save(key, tokens, capacity, rate)
+              redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', string.format('%d', now))
+              redis.call('PEXPIRE', key, math.ceil(2 * capacity / rate) + 1000)
+            end
+            """;
+
+    // KEYS: 요청 버킷, 토큰 버킷 / ARGV: 요청 용량, 요청 충전(ms당), 토큰 용량(0=미사용), 토큰 충전(ms당)
+    // 반환: {허용(1/0), 대기 ms, 남은 요청 수, 거절 사유(0 없음 / 1 요청 / 2 토큰)}
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(BUCKET_FUNCTIONS + """
+            local requestCapacity, requestRate = tonumber(ARGV[1]), tonumber(ARGV[2])
+            local tokenCapacity, tokenRate = tonumber(ARGV[3]), tonumber(ARGV[4])
+            local requests = level(KEYS[1], requestCapacity, requestRate)
+            if tokenCapacity > 0 then
+              local tokens = level(KEYS[2], tokenCapacity, tokenRate)
+              if tokens < 1 then
+                return {0, math.ceil((1 - tokens) / tokenRate), math.floor(requests), 2}
+              end
+            end
+            if requests < 1 then
+              return {0, math.ceil((1 - requests) / requestRate), 0, 1}
+            end
+            save(KEYS[1], requests - 1, requestCapacity, requestRate)
+            return {1, 0, math.floor(requests - 1), 0}
+            """, List.class);
+
+    // KEYS: 토큰 버킷 / ARGV: 용량, 충전(ms당), 사용량 / 빚은 용량 1개분까지만 (폭주 응답 1건으로 장시간 잠기지 않도록)
+    private static final DefaultRedisScript<Long> DEBIT_SCRIPT = new DefaultRedisScript<>(BUCKET_FUNCTIONS + """
+            local capacity, rate = tonumber(ARGV[1]), tonumber(ARGV[2])
+            local tokens = math.max(-capacity, level(KEYS[1], capacity, rate) - tonumber(ARGV[3]))
+            save(KEYS[1], tokens, capacity, rate)
+            return math.floor(tokens)
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AiRateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * [요청 1건 차감] 한도가 없거나 Redis 장애면 항상 허용합니다.
+     */
+    public Decision tryAcquire(Long userId, MembershipTier tier, AiFeature feature) {
+        AiRateLimitProperties.Quota quota = properties.enabled() ? properties.quota(tier, feature) : null;
+        if (quota == null || quota.requestsPerMinute() <= 0) return Decision.unlimited();
+
+        Lease lease = new Lease(keyPrefix(userId, tier, feature) + ":tokens", quota);
+        List<?> result;
+        try {
+            result = redisTemplate.execute(ACQUIRE_SCRIPT,
+                    List.of(keyPrefix(userId, tier, feature) + ":requests", lease.tokenKey()),
+                    String.valueOf(quota.capacity()),
+                    String.valueOf((double) quota.requestsPerMinute() / MILLIS_PER_MINUTE),
+                    String.valueOf(quota.tokensPerHour()),
+                    String.valueOf((double) quota.tokensPerHour() / MILLIS_PER_HOUR));
+        } catch (Exception e) {
+            log.warn("AI 요청 한도 확인 실패, 통과 처리: {}", e.getMessage());
+            return Decision.unlimited();
+        }
+        if (result == null || result.size() < 4) return Decision.unlimited();
+
+        long remaining = ((Number) result.get(2)).longValue();
+        if (((Number) result.get(0)).longValue() == 1) return new Decision(true, 0, remaining, lease);
+
+        String reason = ((Number) result.get(3)).longValue() == 2 ? "tokens" : "requests";
+        meterRegistry.counter("ai.ratelimit.rejected",
+                "feature", feature.name().toLowerCase(Locale.ROOT), "tier", tier.name(), "reason", reason).increment();
+        log.info("⛔ AI 요청 한도 초과: user={}, tier={}, feature={}, reason={}", userId, tier, feature, reason);
+        return new Decision(false, ((Number) result.get(1)).longValue(), remaining, null);
+    }
+
+    /**
+     * [사용 토큰 정산] 요청이 끝난 뒤 실제 사용량을 토큰 버킷에서 뺍니다.
+     */
+    public void debitTokens(Lease lease, long tokens) {
+        if (lease == null || lease.quota().tokensPerHour() <= 0 || tokens <= 0) return;
+        try {
+            redisTemplate.execute(DEBIT_SCRIPT, List.of(lease.tokenKey()),
+                    String.valueOf(lease.quota().tokensPerHour()),
+                    String.valueOf((double) lease.quota().tokensPerHour() / MILLIS_PER_HOUR),
+                    String.valueOf(tokens));
+        } catch (Exception e) {
+            log.warn("AI 토큰 사용량 정산 실패: {}", e.getMessage());
+        }
+    }
+
+    // {userId} 해시 태그: 클러스터에서도 한 사용자의 버킷은 같은 슬롯 (스크립트 다중 키 조건)
+    private static String keyPrefix(Long userId, MembershipTier tier, AiFeature feature) {
+        return KEY_PREFIX + "{" + userId + "}:" + tier.name() + ":" + feature.name();
+    }
+
+    /**
+     * @param allowed          허용 여부
+     * @param retryAfterMillis 거절 시 다시 시도할 수 있을 때까지 남은 시간
+     * @param remaining        남은 요청 수 (제한 없음이면 -1)
+     * @param lease            토큰 정산용 (제한 없음/거절이면 null)
+     */
+    public record Decision(boolean allowed, long retryAfterMillis, long remaining, Lease lease) {
+
+        private static Decision unlimited() {
+            return new Decision(true, 0, -1, null);
+        }
+
+        public long retryAfterSeconds() {
+            return Math.max(1, (retryAfterMillis + 999) / 1000);
+        }
+    }
+
+    public record Lease(String tokenKey, AiRateLimitProperties.Quota quota) {}
+}
@@ -0,0 +1,192 @@
+package com.tutoroo.ai;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.util.Hashes;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * [기능: AI 응답 캐시 (L1 메모리 + L2 Redis)]
+ * 설명: 입력이 같으면 결과도 같아도 되는 생성 요청(데일리 퀴즈, 레벨 테스트, 시험 출제)의 응답을 재사용합니다.
+ * 키: 엔드포인트 + 모델 옵션 + 플랜 버전 + 정규화된 프롬프트의 SHA-256 해시
+ * 무효화: 플랜의 로드맵/레벨이 제자리에서 바뀌면 invalidatePlan()으로 플랜 버전을 올려 이전 응답을 모두 무시합니다.
+ *       (로드맵 재생성은 새 플랜으로 저장되고, 페르소나/커스텀 옵션은 프롬프트에 들어가 키가 달라지므로 호출 불필요)
+ * 지표: ai.cache.requests{endpoint, result=l1|l2|miss} -> /actuator/metrics 에서 엔드포인트별 적중률 확인
+ */
+@Slf4j
+@Component
+public class AiResponseCache {
+
+    private static final String CACHE_PREFIX = "ai:cache:";
+    private static final String PLAN_VERSION_PREFIX = "ai:cache:ver:plan:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AiCacheProperties properties;
+    private final String modelSignature;
+    private final Map<String, L1Entry> l1;
+
+    public AiResponseCache(RedisTemplate<String, String> redisTemplate,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           AiCacheProperties properties,
+                           OpenAiChatModel chatModel) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+
+        // 모델/온도가 바뀌면 이전 응답은 재사용하지 않음
+        ChatOptions options = chatModel.getDefaultOptions();
+        this.modelSignature = options.getModel() + ":" + options.getTemperature();
+
+        int maxEntries = properties.l1MaxEntries();
+        this.l1 = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, L1Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public <T> T getOrLoad(String endpoint, Long planId, String prompt, Class<T> type, Supplier<T> loader) {
+        return getOrLoad(endpoint, planId, prompt, objectMapper.constructType(type), loader, value -> true);
+    }
+
+    /**
+     * @param cacheable loader 결과를 저장할지 판단 (예: 스트림이 중간에 끊긴 부분 결과는 저장하지 않음)
+     */
+    public <T> T getOrLoad(String endpoint, Long planId, String prompt, Class<T> type, Supplier<T> loader, Predicate<T> cacheable) {
+        return getOrLoad(endpoint, planId, prompt, objectMapper.constructType(type), loader, cacheable);
+    }
+
+    public <T> T getOrLoad(String endpoint, Long planId, String prompt, TypeReference<T> type, Supplier<T> loader) {
+        return getOrLoad(endpoint, planId, prompt, objectMapper.getTypeFactory().constructType(type), loader, value -> true);
+    }
+
+    /**
+     * 캐시 조회 후 없으면 loader를 실행하여 저장합니다.
+     * loader가 예외를 던지거나 null을 반환하면 저장하지 않습니다. (잘못된 AI 응답이 캐시되는 것 방지)
+     */
+    private <T> T getOrLoad(String endpoint, Long planId, String prompt, JavaType type, Supplier<T> loader, Predicate<T> cacheable) {
+        if (!properties.enabled()) return loader.get();
+
+        String key = buildKey(endpoint, planId, prompt);
+
+        // 1. L1 (서버 메모리)
+        L1Entry local = l1.get(key);
+        if (local != null && !local.isExpired()) {
+            T value = deserialize(local.json(), type);
+            if (value != null) {
+                record(endpoint, "l1");
+                return value;
+            }
+        }
+
+        // 2. L2 (Redis - 서버 간 공유)
+        String shared = redisGet(key);
+        if (shared != null) {
+            T value = deserialize(shared, type);
+            if (value != null) {
+                putL1(key, shared, endpoint);
+                record(endpoint, "l2");
+                return value;
+            }
+        }
+
+        // 3. Miss -> 실제 AI 호출
+        record(endpoint, "miss");
+        T value = loader.get();
+        if (value != null && cacheable.test(value)) store(key, endpoint, value);
+        return value;
+    }
+
+    /**
+     * [무효화] 플랜의 로드맵/레벨을 제자리에서 바꾸거나 플랜을 삭제할 때 호출 -> 해당 플랜의 캐시 키가 모두 바뀜
+     */
+    public void invalidatePlan(Long planId) {
+        if (planId == null) return;
+        try {
+            redisTemplate.opsForValue().increment(PLAN_VERSION_PREFIX + planId);
+        } catch (Exception e) {
+            log.warn("AI 캐시 무효화 실패 (planId: {}): {}", planId, e.getMessage());
+        }
+    }
+
+    // --- Private Helpers ---
+
+    private String buildKey(String endpoint, Long planId, String prompt) {
+        String scope = (planId == null) ? "global" : "plan:" + planId;
+        String version = (planId == null) ? "0" : planVersion(planId);
+        String hash = Hashes.sha256Hex(endpoint + "|" + modelSignature + "|" + version + "|" + normalize(prompt));
+        return CACHE_PREFIX + endpoint + ":" + scope + ":" + hash;
+    }
+
+    private String planVersion(Long planId) {
+        String version = redisGet(PLAN_VERSION_PREFIX + planId);
+        return (version != null) ? version : "0";
+    }
+
+    // 공백/줄바꿈 차이로 캐시가 갈라지지 않도록 정규화
+    private String normalize(String prompt) {
+        return prompt == null ? "" : prompt.strip().replaceAll("\\s+", " ");
+    }
+
+    private <T> void store(String key, String endpoint, T value) {
+        try {
+            String json = objectMapper.writeValueAsString(value);
+            Duration ttl = properties.ttl(endpoint);
+            redisTemplate.opsForValue().set(key, json, ttl.toSeconds(), TimeUnit.SECONDS);
+            putL1(key, json, endpoint);
+        } catch (Exception e) {
+            log.warn("AI 캐시 저장 실패 ({}): {}", endpoint, e.getMessage());
+        }
+    }
+
+    private void putL1(String key, String json, String endpoint) {
+        Duration ttl = properties.l1Ttl().compareTo(properties.ttl(endpoint)) < 0 ? properties.l1Ttl() : properties.ttl(endpoint);
+        l1.put(key, new L1Entry(json, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    private String redisGet(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            log.warn("AI 캐시 조회 실패 (Redis): {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T deserialize(String json, JavaType type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void record(String endpoint, String result) {
+        meterRegistry.counter("ai.cache.requests", "endpoint", endpoint, "result", result).increment();
+    }
+
+    private record L1Entry(String json, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
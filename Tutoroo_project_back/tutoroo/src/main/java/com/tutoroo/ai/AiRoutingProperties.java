@@ -0,0 +1,48 @@
+package com.tutoroo.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * [기능: AI 모델 라우팅 설정 (app.ai.routing)]
+ * 라우트 키는 작업(AiTask, 예: session-message)이 먼저, 없으면 기능(AiFeature, 예: tutoring)입니다.
+ * 라우트가 없으면 spring.ai.openai.chat.options의 기본 모델을 그대로 사용합니다.
+ *
+ * @param enabled    라우팅 사용 여부
+ * @param window     지연/오류율을 계산할 최근 구간
+ * @param minSamples 구간 안의 호출이 이보다 적으면 판단하지 않고 주 모델 사용
+ * @param routes     라우트 키별 모델 정책
+ */
+@ConfigurationProperties(prefix = "app.ai.routing")
+public record AiRoutingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5m") Duration window,
+        @DefaultValue("20") int minSamples,
+        Map<String, Route> routes
+) {
+    public AiRoutingProperties {
+        routes = (routes == null) ? Map.of() : routes;
+    }
+
+    public Route route(String key) {
+        return routes.get(key);
+    }
+
+    /**
+     * @param primary      주 모델
+     * @param fallback     주 모델이 느리거나 불안정할 때 쓸 모델 (없으면 전환하지 않음)
+     * @param temperature  모델 온도 (없으면 기본값)
+     * @param maxP95       주 모델 p95 응답 시간 한도 (스트리밍은 첫 토큰까지)
+     * @param maxErrorRate 주 모델 오류율 한도 (0~1)
+     */
+    public record Route(
+            String primary,
+            String fallback,
+            Double temperature,
+            @DefaultValue("30s") Duration maxP95,
+            @DefaultValue("0.2") double maxErrorRate
+    ) {}
+}
@@ -0,0 +1,226 @@
+package com.tutoroo.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.exception.ErrorCode;
+import com.tutoroo.exception.TutorooException;
+import com.tutoroo.util.Hashes;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * [기능: 동일 요청 합치기 (Single-Flight)]
+ * 설명: 더블클릭/클라이언트 재시도로 같은 (유저, 엔드포인트, 요청 내용)이 동시에 들어오면
+ *      AI 작업은 한 번만 실행하고 나머지 요청은 그 결과를 함께 받습니다.
+ * 작동원리:
+ * 1. 노드 내: 진행 중인 작업의 Future를 공유합니다.
+ * 2. 노드 간: Redis 임대(SETNX + TTL)를 잡은 노드만 실행하고, 다른 노드는 결과 키가 올라올 때까지 기다립니다.
+ * 3. 실행하는 동안 감시 스레드가 임대를 lease-ttl/3마다 연장합니다. (작업이 lease-ttl보다 길어도 다른 노드가 중복 실행하지 않음)
+ *    노드가 죽으면 연장이 멈춰 lease-ttl 안에 임대가 풀리고, 기다리던 노드가 이어서 실행합니다.
+ * 4. 결과는 짧게(result-ttl) 보관하여 응답 직후 들어온 재시도도 같은 결과를 받습니다.
+ * 5. Redis 장애 시에는 노드 간 보장을 포기하고 노드 내 합치기만 적용합니다. (요청을 막지 않는 대신 노드별 중복 실행 가능)
+ * 대기: 합류한 요청은 임대가 살아 있는 동안 최대 max-wait까지 결과를 기다립니다.
+ */
+@Slf4j
+@Component
+public class AiSingleFlight {
+
+    private static final String LEASE_PREFIX = "ai:flight:lease:";
+    private static final String RESULT_PREFIX = "ai:flight:result:";
+    private static final long POLL_INTERVAL_MS = 200;
+
+    // 내가 잡은 임대일 때만 삭제 (만료 후 다른 노드가 잡은 임대를 지우지 않도록)
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class
+    );
+
+    // 내가 잡은 임대일 때만 연장
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class
+    );
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration leaseTtl;
+    private final Duration resultTtl;
+    private final Duration maxWait;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public AiSingleFlight(RedisTemplate<String, String> redisTemplate,
+                          ObjectMapper objectMapper,
+                          @Value("${app.ai.single-flight.lease-ttl:150s}") Duration leaseTtl,
+                          @Value("${app.ai.single-flight.result-ttl:10s}") Duration resultTtl,
+                          @Value("${app.ai.single-flight.max-wait:5m}") Duration maxWait) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.leaseTtl = leaseTtl;
+        this.resultTtl = resultTtl;
+        this.maxWait = maxWait;
+    }
+
+    public <T> T execute(String endpoint, Long userId, Object payload, Class<T> type, Supplier<T> work) {
+        String key = endpoint + ":" + userId + ":" + payloadHash(payload);
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.info("🔁 진행 중인 동일 요청에 합류 (노드 내): {}", key);
+            return type.cast(await(running));
+        }
+
+        try {
+            T result = executeAcrossNodes(key, type, work);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // --- Private Helpers ---
+
+    private <T> T executeAcrossNodes(String key, Class<T> type, Supplier<T> work) {
+        String leaseKey = LEASE_PREFIX + key;
+        String resultKey = RESULT_PREFIX + key;
+
+        // 1. 방금 끝난 동일 요청이 있으면 그 결과 사용 (응답 직후 재시도)
+        T recent = readResult(resultKey, type);
+        if (recent != null) return recent;
+
+        long deadline = System.currentTimeMillis() + maxWait.toMillis();
+        while (true) {
+            String token = UUID.randomUUID().toString();
+            if (tryLease(leaseKey, token)) {
+                Thread watchdog = startWatchdog(leaseKey, token);
+                try {
+                    T result = work.get();
+                    writeResult(resultKey, result);
+                    return result;
+                } finally {
+                    watchdog.interrupt();
+                    releaseLease(leaseKey, token);
+                }
+            }
+
+            // 2. 다른 노드가 실행 중 -> 결과 대기
+            log.info("🔁 진행 중인 동일 요청에 합류 (노드 간): {}", key);
+            T shared = waitForResult(leaseKey, resultKey, type, deadline);
+            if (shared != null) return shared;
+
+            // 3. 결과 없이 임대가 사라짐 (상대 실패) -> 직접 실행 재시도
+            if (System.currentTimeMillis() > deadline) throw new TutorooException(ErrorCode.AI_TIMEOUT);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new TutorooException(ErrorCode.AI_PROCESSING_ERROR);
+        } catch (TimeoutException e) {
+            throw new TutorooException(ErrorCode.AI_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TutorooException(ErrorCode.AI_PROCESSING_ERROR);
+        }
+    }
+
+    private <T> T waitForResult(String leaseKey, String resultKey, Class<T> type, long deadline) {
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(POLL_INTERVAL_MS);
+                T result = readResult(resultKey, type);
+                if (result != null) return result;
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(leaseKey))) return readResult(resultKey, type);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TutorooException(ErrorCode.AI_PROCESSING_ERROR);
+        }
+        return null;
+    }
+
+    private boolean tryLease(String leaseKey, String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTtl));
+        } catch (Exception e) {
+            // Redis 장애 시에는 노드 내 합치기만 적용하고 그대로 실행
+            log.warn("Single-Flight 임대 실패 (Redis): {}", e.getMessage());
+            return true;
+        }
+    }
+
+    // 작업이 끝날 때까지 임대 연장 (내 임대가 아니게 되면 중단)
+    private Thread startWatchdog(String leaseKey, String token) {
+        long interval = Math.max(1_000, leaseTtl.toMillis() / 3);
+        return Thread.ofVirtual().name("single-flight-watchdog").start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(interval);
+                    if (!renewLease(leaseKey, token)) return;
+                }
+            } catch (InterruptedException e) {
+                // 작업 종료
+            }
+        });
+    }
+
+    private boolean renewLease(String leaseKey, String token) {
+        try {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(leaseKey), token, String.valueOf(leaseTtl.toMillis()));
+            return renewed != null && renewed == 1;
+        } catch (Exception e) {
+            // 일시 장애면 다음 주기에 다시 시도
+            log.warn("Single-Flight 임대 연장 실패: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), token);
+        } catch (Exception e) {
+            log.warn("Single-Flight 임대 해제 실패: {}", e.getMessage());
+        }
+    }
+
+    private <T> T readResult(String resultKey, Class<T> type) {
+        try {
+            String json = redisTemplate.opsForValue().get(resultKey);
+            return (json != null) ? objectMapper.readValue(json, type) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void writeResult(String resultKey, Object result) {
+        if (result == null) return;
+        try {
+            redisTemplate.opsForValue().set(resultKey, objectMapper.writeValueAsString(result), resultTtl);
+        } catch (Exception e) {
+            log.warn("Single-Flight 결과 공유 실패: {}", e.getMessage());
+        }
+    }
+
+    private String payloadHash(Object payload) {
+        try {
+            return Hashes.sha256Hex(objectMapper.writeValueAsBytes(payload));
+        } catch (Exception e) {
+            return String.valueOf(String.valueOf(payload).hashCode());
+        }
+    }
+}
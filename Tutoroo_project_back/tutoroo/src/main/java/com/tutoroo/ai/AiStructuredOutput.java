@@ -0,0 +1,216 @@
+package com.tutoroo.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.util.JsonRepair;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.ResponseFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * [기능: 구조화 출력 (JSON Schema 응답 + 로컬 복구 파싱)]
+ * 설명: 응답 DTO 클래스로 JSON Schema를 만들어 OpenAI response_format(json_schema)으로 보내고,
+ *       받은 응답은 JsonRepair로 고친 뒤 DTO로 변환합니다. 파싱 실패 때문에 같은 요청을 다시 보내지 않는 것이 목표입니다.
+ * 작동원리:
+ * 1. 스키마는 클래스당 한 번만 만들어 재사용합니다. (BeanOutputConverter)
+ * 2. 모든 필드를 required로, 원래 선택 필드는 null 허용으로 바꿔 strict 모드로 보냅니다.
+ *    자유 형식 Map 필드가 있는 DTO는 strict를 쓸 수 없어 스키마를 안내용(strict=false)으로만 보냅니다.
+ * 3. 응답 루트는 객체여야 하므로, 배열 응답은 {"items": [...]}로 감싼 스키마를 씁니다. (arrayPrompt, AiJsonStream과 함께 사용)
+ * 4. 코드 블록/뒤 쉼표/잘린 응답은 JsonRepair가 로컬에서 고칩니다.
+ * 지표: ai.structured.parse{type, result=ok|repaired|failed}
+ */
+@Slf4j
+@Component
+public class AiStructuredOutput {
+
+    private static final String ARRAY_WRAPPER_FIELD = "items";
+
+    private final AiGateway aiGateway;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean schemaEnabled;
+    private final Map<Class<?>, ResponseFormat> objectFormats = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ResponseFormat> arrayFormats = new ConcurrentHashMap<>();
+
+    public AiStructuredOutput(AiGateway aiGateway,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.ai.structured-output.json-schema:true}") boolean schemaEnabled) {
+        this.aiGateway = aiGateway;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.schemaEnabled = schemaEnabled;
+    }
+
+    // --- 호출 + 변환 ---
+
+    public <T> T call(AiFeature feature, String prompt, Class<T> type) {
+        return call(feature, new Prompt(prompt), type);
+    }
+
+    public <T> T call(AiFeature feature, Prompt prompt, Class<T> type) {
+        return parse(text(aiGateway.call(feature, withFormat(prompt, objectFormat(type)))), type);
+    }
+
+    public <T> T call(AiTask task, String prompt, Class<T> type) {
+        return parse(text(aiGateway.call(task, withFormat(new Prompt(prompt), objectFormat(type)))), type);
+    }
+
+    /**
+     * [배열 응답용 프롬프트] 원소 스키마를 {"items": [...]}로 감싸 요청합니다.
+     * AiJsonStream은 첫 배열의 원소를 꺼내므로 감싼 객체를 그대로 처리합니다.
+     */
+    public Prompt arrayPrompt(String prompt, Class<?> elementType) {
+        return withFormat(new Prompt(prompt), arrayFormat(elementType));
+    }
+
+    // --- 파싱 ---
+
+    /**
+     * [복구 파싱] 복구해도 실패하면 UncheckedIOException (응답 형식 오류: 캐시에 저장되지 않고, 호출부가 기본값으로 대체)
+     */
+    public <T> T parse(String text, Class<T> type) {
+        return parse(text, objectMapper.constructType(type));
+    }
+
+    public <T> T parse(String text, TypeReference<T> type) {
+        return parse(text, objectMapper.constructType(type));
+    }
+
+    private <T> T parse(String text, JavaType type) {
+        String typeName = type.getRawClass().getSimpleName();
+        try {
+            T value = objectMapper.readValue(text, type);
+            meterRegistry.counter("ai.structured.parse", "type", typeName, "result", "ok").increment();
+            return value;
+        } catch (JsonProcessingException first) {
+            try {
+                T value = objectMapper.readValue(JsonRepair.repair(text), type);
+                meterRegistry.counter("ai.structured.parse", "type", typeName, "result", "repaired").increment();
+                return value;
+            } catch (JsonProcessingException e) {
+                meterRegistry.counter("ai.structured.parse", "type", typeName, "result", "failed").increment();
+                log.warn("AI 응답 JSON 파싱 실패 ({}): {}", typeName, e.getOriginalMessage());
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // --- 스키마 ---
+
+    private ResponseFormat objectFormat(Class<?> type) {
+        if (!schemaEnabled) return null;
+        return objectFormats.computeIfAbsent(type, t -> format(t.getSimpleName(), schemaOf(t)));
+    }
+
+    private ResponseFormat arrayFormat(Class<?> elementType) {
+        if (!schemaEnabled) return null;
+        return arrayFormats.computeIfAbsent(elementType, t -> {
+            Map<String, Object> element = schemaOf(t);
+            Object defs = element.remove("$defs");
+
+            Map<String, Object> array = new LinkedHashMap<>();
+            array.put("type", "array");
+            array.put("items", element);
+            Map<String, Object> wrapper = new LinkedHashMap<>();
+            wrapper.put("type", "object");
+            wrapper.put("properties", new LinkedHashMap<>(Map.of(ARRAY_WRAPPER_FIELD, array)));
+            wrapper.put("required", List.of(ARRAY_WRAPPER_FIELD));
+            if (defs != null) wrapper.put("$defs", defs);
+            return format(t.getSimpleName() + "List", wrapper);
+        });
+    }
+
+    private Map<String, Object> schemaOf(Class<?> type) {
+        Map<String, Object> schema = new LinkedHashMap<>(new BeanOutputConverter<>(type).getJsonSchemaMap());
+        schema.remove("$schema");
+        return schema;
+    }
+
+    private ResponseFormat format(String name, Map<String, Object> schema) {
+        boolean strict = strictify(schema);
+        if (!strict) log.info("구조화 출력 스키마 ({}): 자유 형식 필드가 있어 strict 없이 사용", name);
+        return ResponseFormat.builder()
+                .type(ResponseFormat.Type.JSON_SCHEMA)
+                .jsonSchema(ResponseFormat.JsonSchema.builder().name(name).schema(schema).strict(strict).build())
+                .build();
+    }
+
+    /**
+     * OpenAI strict 모드 규칙에 맞게 스키마를 고칩니다. (모든 필드 required, 추가 필드 금지, 선택 필드는 null 허용)
+     * 자유 형식 객체(Map)가 있으면 false를 반환합니다.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean strictify(Map<String, Object> node) {
+        boolean strict = true;
+        if (node.get("properties") instanceof Map<?, ?> properties) {
+            Set<Object> required = (node.get("required") instanceof List<?> list) ? Set.copyOf(list) : Set.of();
+            for (Map.Entry<?, ?> property : properties.entrySet()) {
+                Map<String, Object> child = (Map<String, Object>) property.getValue();
+                strict &= strictify(child);
+                if (!required.contains(property.getKey())) makeNullable(child);
+            }
+            node.put("required", new ArrayList<>(properties.keySet()));
+            node.put("additionalProperties", false);
+        } else if ("object".equals(node.get("type"))) {
+            // 자유 형식 Map: 추가 필드 금지를 풀어야 내용이 채워짐
+            node.remove("additionalProperties");
+            strict = false;
+        }
+        if (node.get("items") instanceof Map<?, ?> items) strict &= strictify((Map<String, Object>) items);
+        if (node.get("$defs") instanceof Map<?, ?> defs) {
+            for (Object def : defs.values()) strict &= strictify((Map<String, Object>) def);
+        }
+        return strict;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void makeNullable(Map<String, Object> node) {
+        Object type = node.get("type");
+        if (type instanceof String single) {
+            node.put("type", List.of(single, "null"));
+        } else if (type instanceof List<?> types && !types.contains("null")) {
+            List<Object> nullable = new ArrayList<>(types);
+            nullable.add("null");
+            node.put("type", nullable);
+        } else if (type == null && node.containsKey("$ref")) {
+            Object ref = node.remove("$ref");
+            node.put("anyOf", List.of(Map.of("$ref", ref), Map.of("type", "null")));
+        }
+        if (node.get("enum") instanceof List<?> values && !values.contains(null)) {
+            List<Object> nullable = new ArrayList<>(values);
+            nullable.add(null);
+            node.put("enum", nullable);
+        }
+    }
+
+    // 호출부 옵션은 유지하고 response_format만 추가
+    private Prompt withFormat(Prompt prompt, ResponseFormat format) {
+        if (format == null) return prompt;
+        OpenAiChatOptions options = (prompt.getOptions() instanceof OpenAiChatOptions existing)
+                ? existing.copy()
+                : new OpenAiChatOptions();
+        options.setResponseFormat(format);
+        return new Prompt(prompt.getInstructions(), options);
+    }
+
+    private String text(ChatResponse response) {
+        return response.getResult().getOutput().getText();
+    }
+}
@@ -0,0 +1,31 @@
+package com.tutoroo.ai;
+
+import java.util.Locale;
+
+/**
+ * [기능: 모델 라우팅용 세부 작업 구분]
+ * 설명: 같은 기능(AiFeature) 안에서도 가벼운 작업은 더 싸고 빠른 모델로 보내기 위한 구분입니다.
+ * 벌크헤드는 소속 기능(feature)을 그대로 사용하며, 여기 없는 호출은 기능 단위로 라우팅됩니다.
+ */
+public enum AiTask {
+    SESSION_MESSAGE(AiFeature.TUTORING),  // 세션 전환 한두 줄 멘트 (휴식/테스트/채점 중 등)
+    SESSION_PHRASE_POOL(AiFeature.PREGEN), // 세션 전환 멘트 풀 미리 채우기 (배치)
+    EXAM_EVALUATION(AiFeature.GRADING),   // 시험 답안 일괄 채점 (JSON)
+    PET_DIARY(AiFeature.DIARY),           // 펫 미드나잇 일기
+    ANSWER_CACHE_AUDIT(AiFeature.SUMMARY); // 유사 질문 캐시 적중 품질 점검 (백그라운드)
+
+    private final AiFeature feature;
+
+    AiTask(AiFeature feature) {
+        this.feature = feature;
+    }
+
+    public AiFeature feature() {
+        return feature;
+    }
+
+    // 설정 키 (app.ai.routing.routes.session-message)
+    public String routeKey() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,68 @@
+package com.tutoroo.ai;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * [기능: AI 호출 트랜잭션 가드]
+ * 설명: OpenAI 호출(Chat/Image/TTS/STT)이 DB 커넥션을 잡은 채로 실행되는지 감시합니다.
+ * 이유: AI 응답은 수 초~수십 초가 걸리므로, 트랜잭션 안에서 호출하면 Hikari 풀(10개)이 금방 고갈됩니다.
+ * 모드: app.ai.transaction-guard.mode = WARN(기본, 로그) / FAIL(예외 - 테스트용) / OFF
+ */
+@Slf4j
+@Aspect
+@Component
+public class AiTransactionGuard {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    private final Mode mode;
+
+    public AiTransactionGuard(@Value("${app.ai.transaction-guard.mode:WARN}") Mode mode) {
+        this.mode = mode;
+    }
+
+    @Around("execution(* org.springframework.ai.model.Model+.call(..))" +
+            " || execution(* org.springframework.ai.chat.model.StreamingChatModel+.stream(..))")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        check(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        return joinPoint.proceed();
+    }
+
+    /**
+     * 호출 스레드 기준 검사 (AiGateway처럼 다른 스레드에서 모델을 호출하는 경우 직접 호출)
+     */
+    public void check(String target) {
+        if (mode == Mode.OFF || !isConnectionBound()) return;
+
+        String caller = findCaller();
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException("트랜잭션(DB 커넥션) 안에서 AI 호출이 감지되었습니다: " + target + " <- " + caller);
+        }
+        log.warn("⚠️ 트랜잭션 안에서 AI 호출 감지 (커넥션 점유): {} <- {}", target, caller);
+    }
+
+    // 현재 스레드에 JDBC 커넥션이 바인딩되어 있는지 확인 (트랜잭션 또는 커넥션 홀더)
+    private boolean isConnectionBound() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return true;
+        return TransactionSynchronizationManager.getResourceMap().values().stream()
+                .anyMatch(ConnectionHolder.class::isInstance);
+    }
+
+    // 호출한 우리 코드 위치 (프록시/가드 프레임 제외)
+    private String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("com.tutoroo")
+                        && !f.getClassName().contains("$$")
+                        && !f.getClassName().equals(AiTransactionGuard.class.getName()))
+                .findFirst()
+                .map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("unknown"));
+    }
+}
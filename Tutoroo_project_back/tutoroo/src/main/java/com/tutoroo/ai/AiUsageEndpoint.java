@@ -0,0 +1,121 @@
+package com.tutoroo.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [기능: AI 사용량 조회 (/actuator/aiusage, ADMIN 전용)]
+ * 설명: AiMetrics 지표를 기능 x 호출 종류 x 모델 x 회원 등급 단위로 묶어, 비싼 경로/느린 경로 순으로 보여줍니다.
+ * 서버 기동 이후 누적값이며, 서버(노드)별 값입니다. (여러 노드 합산은 지표 수집기 사용)
+ * 정렬: ?sort=cost (기본, 추정 비용) | time (누적 호출 시간) | p95
+ */
+@Component
+@Endpoint(id = "aiusage")
+public class AiUsageEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    public AiUsageEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Report usage(@Nullable String sort) {
+        Map<String, Row> rows = new TreeMap<>();
+
+        for (Timer timer : meterRegistry.find(AiMetrics.CALLS).timers()) {
+            Row row = row(rows, timer);
+            row.calls += timer.count();
+            row.totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+            row.maxMillis = Math.max(row.maxMillis, timer.max(TimeUnit.MILLISECONDS));
+            if ("error".equals(timer.getId().getTag("outcome"))) {
+                row.errors += timer.count();
+            } else {
+                for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                    if (percentile.percentile() == 0.95) row.p95Millis = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        for (Counter counter : meterRegistry.find(AiMetrics.TOKENS).counters()) {
+            Row row = row(rows, counter);
+            if ("prompt".equals(counter.getId().getTag("type"))) row.promptTokens += (long) counter.count();
+            else row.completionTokens += (long) counter.count();
+        }
+        for (Counter counter : meterRegistry.find(AiMetrics.RETRIES).counters()) {
+            row(rows, counter).retries += (long) counter.count();
+        }
+        for (Counter counter : meterRegistry.find(AiMetrics.COST).counters()) {
+            row(rows, counter).costUsd += counter.count();
+        }
+
+        Comparator<Usage> order = switch (sort == null ? "cost" : sort) {
+            case "time" -> Comparator.comparingDouble(Usage::totalMillis);
+            case "p95" -> Comparator.comparingDouble(Usage::p95Millis);
+            default -> Comparator.comparingDouble(Usage::estimatedCostUsd);
+        };
+        List<Usage> usages = rows.values().stream().map(Row::toUsage).sorted(order.reversed()).toList();
+        return new Report(
+                usages.stream().mapToLong(Usage::calls).sum(),
+                usages.stream().mapToDouble(Usage::estimatedCostUsd).sum(),
+                usages);
+    }
+
+    private Row row(Map<String, Row> rows, Meter meter) {
+        Meter.Id id = meter.getId();
+        String feature = id.getTag("feature");
+        String kind = id.getTag("kind");
+        String model = id.getTag("model");
+        String tier = id.getTag("tier");
+        return rows.computeIfAbsent(feature + "|" + kind + "|" + model + "|" + tier, k -> new Row(feature, kind, model, tier));
+    }
+
+    // 집계 중간값
+    private static final class Row {
+        private final String feature, kind, model, tier;
+        private long calls, errors, retries, promptTokens, completionTokens;
+        private double totalMillis, maxMillis, p95Millis, costUsd;
+
+        private Row(String feature, String kind, String model, String tier) {
+            this.feature = feature;
+            this.kind = kind;
+            this.model = model;
+            this.tier = tier;
+        }
+
+        private Usage toUsage() {
+            return new Usage(feature, kind, model, tier, calls, errors, retries,
+                    Math.round(totalMillis), calls == 0 ? 0 : Math.round(totalMillis / calls), Math.round(p95Millis), Math.round(maxMillis),
+                    promptTokens, completionTokens, Math.round(costUsd * 10_000) / 10_000.0);
+        }
+    }
+
+    /**
+     * @param totalCalls        전체 호출 수
+     * @param totalCostUsd      전체 추정 비용 (USD)
+     * @param usages            기능/종류/모델/등급별 사용량 (정렬 기준 내림차순)
+     */
+    public record Report(long totalCalls, double totalCostUsd, List<Usage> usages) {}
+
+    /**
+     * p95는 성공 호출 기준, max는 최근 구간(지표 수집 주기) 기준입니다.
+     */
+    public record Usage(
+            String feature, String kind, String model, String tier,
+            long calls, long errors, long retries,
+            long totalMillis, long meanMillis, long p95Millis, long maxMillis,
+            long promptTokens, long completionTokens, double estimatedCostUsd
+    ) {}
+}
@@ -0,0 +1,102 @@
+package com.tutoroo.ai;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.tutoroo.exception.ErrorCode;
+import com.tutoroo.exception.TutorooException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * [기능: 프롬프트 토큰 예산 관리]
+ * 설명: 프롬프트 토큰 수를 로컬에서 계산(네트워크 호출 없음)하여 기능별 예산을 지킵니다.
+ * 작동원리:
+ * 1. 고정 영역(시스템 프롬프트, 현재 질문)을 먼저 계산하고, 남은 예산 안에서 최신 대화부터 채웁니다.
+ * 2. 예산을 넘는 오래된 대화는 잘라내고 ai.prompt.trimmed{feature} 로 기록합니다.
+ * 3. AiGateway가 모든 호출의 프롬프트 토큰 수를 ai.prompt.tokens{feature} 로 기록합니다.
+ * 인코딩: gpt-4o 계열 토크나이저(o200k_base)
+ */
+@Slf4j
+@Component
+public class PromptBudget {
+
+    // 메시지마다 붙는 role/구분자 토큰 (OpenAI 채팅 포맷 기준 근사치)
+    private static final int MESSAGE_OVERHEAD = 4;
+
+    private final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.O200K_BASE);
+    private final MeterRegistry meterRegistry;
+    private final AiPromptBudgetProperties properties;
+
+    public PromptBudget(MeterRegistry meterRegistry, AiPromptBudgetProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    public int count(String text) {
+        return (text == null || text.isEmpty()) ? 0 : encoding.countTokens(text);
+    }
+
+    public int count(List<Message> messages) {
+        int total = 0;
+        for (Message message : messages) {
+            total += count(message.getText()) + MESSAGE_OVERHEAD;
+        }
+        return total;
+    }
+
+    public int count(Prompt prompt) {
+        return count(prompt.getInstructions());
+    }
+
+    /**
+     * [대화 기록 자르기] 고정 영역(reservedTokens)을 뺀 예산 안에 들어오는 최신 대화만 남깁니다.
+     * history는 오래된 순서여야 하며, 반환값도 같은 순서입니다.
+     * 고정 영역만으로 예산을 넘으면 PROMPT_TOO_LONG 예외를 던집니다.
+     */
+    public <T> List<T> fitHistory(AiFeature feature, int reservedTokens, List<T> history, Function<T, String> textOf) {
+        int remaining = properties.budget(feature) - reservedTokens;
+        if (remaining < 0) {
+            log.warn("프롬프트 예산 초과 ({}): 고정 영역 {} 토큰 / 예산 {} 토큰", feature, reservedTokens, properties.budget(feature));
+            throw new TutorooException(ErrorCode.PROMPT_TOO_LONG);
+        }
+        if (history == null || history.isEmpty()) return List.of();
+
+        int start = history.size();
+        while (start > 0) {
+            int tokens = count(textOf.apply(history.get(start - 1))) + MESSAGE_OVERHEAD;
+            if (tokens > remaining) break;
+            remaining -= tokens;
+            start--;
+        }
+
+        if (start > 0) {
+            meterRegistry.counter("ai.prompt.trimmed", "feature", feature.name()).increment(start);
+            log.debug("프롬프트 예산 적용 ({}): 오래된 대화 {}개 제외", feature, start);
+        }
+        return history.subList(start, history.size());
+    }
+
+    /**
+     * [호출 직전 점검] 토큰 수를 기록하고, 모델 컨텍스트 한도를 넘는 프롬프트는 호출 전에 거절합니다.
+     */
+    public void check(AiFeature feature, int tokens) {
+        DistributionSummary.builder("ai.prompt.tokens")
+                .baseUnit("tokens")
+                .tag("feature", feature.name())
+                .register(meterRegistry)
+                .record(tokens);
+
+        if (tokens > properties.maxContext()) {
+            log.warn("모델 컨텍스트 한도 초과 ({}): {} 토큰", feature, tokens);
+            throw new TutorooException(ErrorCode.PROMPT_TOO_LONG);
+        }
+    }
+}
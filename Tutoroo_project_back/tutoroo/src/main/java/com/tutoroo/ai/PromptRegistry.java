@@ -0,0 +1,127 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.entity.PromptEntity;
+import com.tutoroo.mapper.CommonMapper;
+import com.tutoroo.util.PromptTemplate;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [기능: 프롬프트 템플릿 레지스트리]
+ * 설명: prompts 테이블 전체를 서버 메모리에 올려 두고, 요청마다 DB를 조회하지 않고 바로 읽습니다.
+ * 작동원리:
+ * 1. 기동 시 전체를 읽어 미리 분석한 템플릿(PromptTemplate)의 불변 Map으로 만듭니다.
+ * 2. 조회는 volatile 참조 하나를 읽는 것이라 잠금이 없습니다. 갱신은 새 Map을 만들어 참조만 바꿉니다.
+ * 3. 프롬프트를 바꾼 노드가 Redis 채널(prompts:changed)로 알리면 모든 노드가 다시 읽습니다.
+ * 4. pub/sub 메시지는 유실될 수 있어 TutorooScheduler가 주기적으로 한 번 더 맞춰 줍니다.
+ */
+@Slf4j
+@Component
+public class PromptRegistry implements MessageListener {
+
+    public static final String CHANGE_CHANNEL = "prompts:changed";
+
+    private final CommonMapper commonMapper;
+    private final RedisTemplate<String, String> redisTemplate;
+    private volatile Map<String, Entry> entries = Map.of();
+
+    public PromptRegistry(CommonMapper commonMapper,
+                          RedisTemplate<String, String> redisTemplate,
+                          RedisMessageListenerContainer listenerContainer) {
+        this.commonMapper = commonMapper;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // DB가 아직 준비되지 않았으면 기본 문구로 동작하다가 주기 동기화 때 채움
+            log.error("프롬프트 초기 로드 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * [원문 조회] 없으면 null (호출부 기본 문구 사용)
+     */
+    public String content(String key) {
+        Entry entry = entries.get(key);
+        return (entry == null) ? null : entry.template().source();
+    }
+
+    /**
+     * [템플릿 조회] 인자가 있는 프롬프트(예: TEST_FEEDBACK)용, 없으면 null
+     */
+    public PromptTemplate template(String key) {
+        Entry entry = entries.get(key);
+        return (entry == null) ? null : entry.template();
+    }
+
+    public List<String> keysWithPrefix(String prefix) {
+        return entries.keySet().stream().filter(key -> key.startsWith(prefix)).sorted().toList();
+    }
+
+    public List<PromptEntity> all() {
+        return entries.values().stream()
+                .map(e -> new PromptEntity(e.key(), e.template().source(), e.description()))
+                .sorted((a, b) -> a.getPromptKey().compareTo(b.getPromptKey()))
+                .toList();
+    }
+
+    /**
+     * [전체 다시 읽기] 새 Map을 다 만든 뒤 한 번에 교체합니다.
+     */
+    public void reload() {
+        Map<String, Entry> loaded = new HashMap<>();
+        for (PromptEntity prompt : commonMapper.findAllPrompts()) {
+            loaded.put(prompt.getPromptKey(),
+                    new Entry(prompt.getPromptKey(), PromptTemplate.compile(prompt.getContent()), prompt.getDescription()));
+        }
+        entries = Map.copyOf(loaded);
+        log.info("📝 프롬프트 {}개 로드", loaded.size());
+    }
+
+    /**
+     * [수정 + 전파] DB에 저장하고 모든 노드에 다시 읽도록 알립니다. (이 노드도 메시지로 갱신됨)
+     */
+    public void save(String key, String content, String description) {
+        commonMapper.upsertPrompt(PromptEntity.builder().promptKey(key).content(content).description(description).build());
+        publishChange(key);
+    }
+
+    /**
+     * [전파만] DB를 직접 수정한 뒤 모든 노드에 반영할 때
+     */
+    public void publishChange(String key) {
+        try {
+            redisTemplate.convertAndSend(CHANGE_CHANNEL, key);
+        } catch (Exception e) {
+            // Redis 장애 시 최소한 이 노드는 반영
+            log.warn("프롬프트 변경 알림 실패, 이 노드만 반영: {}", e.getMessage());
+            reload();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("프롬프트 다시 읽기 실패 ({}): {}", new String(message.getBody()), e.getMessage());
+        }
+    }
+
+    private record Entry(String key, PromptTemplate template, String description) {}
+}
@@ -0,0 +1,22 @@
+package com.tutoroo.config;
+
+import com.tutoroo.ai.AiAnswerCacheProperties;
+import com.tutoroo.ai.AiCacheProperties;
+import com.tutoroo.ai.AiGatewayProperties;
+import com.tutoroo.ai.AiPricingProperties;
+import com.tutoroo.ai.AiPromptBudgetProperties;
+import com.tutoroo.ai.AiRateLimitProperties;
+import com.tutoroo.ai.AiRoutingProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * [기능: AI 호출 인프라 설정]
+ * 설명: AiGateway 벌크헤드(app.ai.gateway), 응답 캐시(app.ai.cache), 프롬프트 토큰 예산(app.ai.prompt-budget),
+ *       모델 라우팅(app.ai.routing), 호출 비용 단가(app.ai.pricing), 등급별 요청 한도(app.ai.rate-limit),
+ *       유사 질문 답변 캐시(app.ai.answer-cache) 설정을 바인딩합니다.
+ */
+@Configuration
+@EnableConfigurationProperties({AiGatewayProperties.class, AiCacheProperties.class, AiPromptBudgetProperties.class, AiRoutingProperties.class, AiPricingProperties.class, AiRateLimitProperties.class, AiAnswerCacheProperties.class})
+public class AiConfig {
+}
@@ -3,8 +3,13 @@ package com.tutoroo.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.concurrent.Executors;
 
@@ -21,6 +26,34 @@ public class AsyncConfig {
     @Bean(name = "taskExecutor")
     public AsyncTaskExecutor taskExecutor() {
         // Java 21의 가상 스레드 실행기를 Spring의 AsyncTaskExecutor로 래핑
-        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+        TaskExecutorAdapter executor = new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+        executor.setTaskDecorator(contextPropagatingDecorator());
+        return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * [기능: 요청 컨텍스트 전파]
+     * 설명: 작업을 넘기는 스레드의 RequestAttributes와 SecurityContext를 가상 스레드에 그대로 넘깁니다.
+     * 효과: supplyAsync(..., taskExecutor)로 나눈 AI 호출도 회원 등급으로 계측되고,
+     *      토큰 사용량이 요청별 합계에 더해져 AiRateLimiter 토큰 한도에서 차감됩니다.
+     * 요청이 끝난 뒤에도 도는 작업(로드맵 작업 등)은 등급만 이어받고, 요청 속성은 비활성이라 합계에 더하지 않습니다.
+     */
+    private static TaskDecorator contextPropagatingDecorator() {
+        return task -> {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            return () -> {
+                RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+                SecurityContext previousContext = SecurityContextHolder.getContext();
+                RequestContextHolder.setRequestAttributes(attributes);
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    task.run();
+                } finally {
+                    RequestContextHolder.setRequestAttributes(previousAttributes);
+                    SecurityContextHolder.setContext(previousContext);
+                }
+            };
+        };
+    }
+}
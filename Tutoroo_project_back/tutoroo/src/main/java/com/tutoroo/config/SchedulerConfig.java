@@ -1,5 +1,7 @@
 package com.tutoroo.config;
 
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiGateway;
 import com.tutoroo.entity.StudyLogEntity;
 import com.tutoroo.entity.StudyPlanEntity;
 import com.tutoroo.entity.UserEntity;
@@ -7,7 +9,6 @@ import com.tutoroo.mapper.StudyMapper;
 import com.tutoroo.mapper.UserMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -23,7 +24,7 @@ public class SchedulerConfig {
 
     private final UserMapper userMapper;
     private final StudyMapper studyMapper;
-    private final OpenAiChatModel chatModel;
+    private final AiGateway aiGateway;
 
     /**
      * [주간 리포트 발송 스케줄러]
@@ -80,7 +81,7 @@ public class SchedulerConfig {
                 student.getName(), weeklyScoreAvg, feedbackSummary
         );
 
-        String message = chatModel.call(prompt);
+        String message = aiGateway.call(AiFeature.REPORT, prompt);
         sendKakaoTalk(student.getParentPhone(), message);
     }
 
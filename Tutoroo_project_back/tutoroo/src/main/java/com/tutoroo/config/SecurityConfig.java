@@ -4,6 +4,7 @@ import com.tutoroo.filter.JwtAuthenticationFilter;
 import com.tutoroo.jwt.JwtTokenProvider;
 import com.tutoroo.security.OAuth2SuccessHandler;
 import com.tutoroo.service.CustomOAuth2UserService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -47,6 +48,9 @@ public class SecurityConfig {
 
                 // 4. URL별 접근 권한 관리 [핵심 수정]
                 .authorizeHttpRequests(auth -> auth
+                        // [Async] SSE 스트리밍 완료 시 재디스패치 (최초 요청에서 이미 인가됨)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // [Everyone] 누구나 접근 가능
                         .requestMatchers(
                                 "/", "/error", "/index.html",
@@ -54,9 +58,13 @@ public class SecurityConfig {
                                 "/api/public/**",        // 공지사항 등
                                 "/api/payment/webhook",  // 결제 웹훅 (인증 없이 호출됨)
                                 "/swagger-ui/**", "/v3/api-docs/**", // API 문서
-                                "/uploads/**"            // 업로드된 파일 접근 허용
+                                "/uploads/**",           // 업로드된 파일 접근 허용
+                                "/actuator/health"       // 헬스 체크 (로드밸런서)
                         ).permitAll()
 
+                        // [Admin Only] 운영 지표 (AI 캐시 적중률 등), 운영 관리 API (프롬프트 등)
+                        .requestMatchers("/actuator/**", "/api/admin/**").hasRole("ADMIN")
+
                         // [Static Resources] 정적 파일 접근 허용 (이미지, 오디오)
                         .requestMatchers(
                                 "/static/**",
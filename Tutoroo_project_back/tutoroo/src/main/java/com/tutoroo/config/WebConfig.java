@@ -1,5 +1,6 @@
 package com.tutoroo.config;
 
+import com.tutoroo.ai.AiRateLimitInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -9,6 +10,7 @@ import org.springframework.format.FormatterRegistry;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -22,11 +24,14 @@ import java.util.List;
  * - 정적 파일 경로 매핑 (이미지, 오디오) -> 절대 경로로 개선됨
  * - JSON 메시지 컨버터 설정 (UTF-8, Octet-Stream 지원)
  * - Enum 대소문자 무시 설정 (Custom Converter 적용)
+ * - AI 엔드포인트 요청 한도 인터셉터 등록
  */
 @Configuration
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final AiRateLimitInterceptor aiRateLimitInterceptor;
+
     @Value("${file.upload-root:./uploads/}")
     private String uploadRoot;
 
@@ -54,6 +59,14 @@ public class WebConfig implements WebMvcConfigurer {
                 .addResourceLocations(rootPath + "images/");
     }
 
+    /**
+     * [인터셉터 등록] @AiRateLimited가 붙은 메서드만 실제로 검사합니다.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(aiRateLimitInterceptor).addPathPatterns("/api/**");
+    }
+
     /**
      * [메시지 컨버터 확장]
      * 1. 파일 업로드 시 JSON 파트의 Content-Type이 application/octet-stream일 경우 처리 지원
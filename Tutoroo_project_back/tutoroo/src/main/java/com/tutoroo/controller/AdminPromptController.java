@@ -0,0 +1,50 @@
+package com.tutoroo.controller;
+
+import com.tutoroo.ai.PromptRegistry;
+import com.tutoroo.dto.PromptDTO;
+import com.tutoroo.exception.ErrorCode;
+import com.tutoroo.exception.TutorooException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/prompts")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Prompt", description = "AI 프롬프트 관리 (관리자 전용)")
+public class AdminPromptController {
+
+    private final PromptRegistry promptRegistry;
+
+    // 1. 현재 서버에 올라간 프롬프트 목록
+    @GetMapping
+    @Operation(summary = "프롬프트 목록", description = "이 서버 메모리에 로드된 프롬프트 전체를 반환합니다.")
+    public ResponseEntity<List<PromptDTO.PromptResponse>> getPrompts() {
+        return ResponseEntity.ok(promptRegistry.all().stream()
+                .map(p -> new PromptDTO.PromptResponse(p.getPromptKey(), p.getContent(), p.getDescription()))
+                .toList());
+    }
+
+    // 2. 프롬프트 추가/수정 (모든 서버에 즉시 반영)
+    @PutMapping("/{promptKey}")
+    @Operation(summary = "프롬프트 수정", description = "DB에 저장한 뒤 Redis 알림으로 모든 서버가 다시 읽습니다. (재시작 불필요)")
+    public ResponseEntity<Void> updatePrompt(@PathVariable String promptKey,
+                                             @RequestBody PromptDTO.UpdateRequest request) {
+        if (!StringUtils.hasText(request.content())) throw new TutorooException(ErrorCode.INVALID_INPUT_VALUE);
+        promptRegistry.save(promptKey, request.content(), request.description());
+        return ResponseEntity.ok().build();
+    }
+
+    // 3. DB를 직접 수정한 경우 전체 서버 다시 읽기
+    @PostMapping("/reload")
+    @Operation(summary = "프롬프트 다시 읽기", description = "prompts 테이블을 직접 수정했을 때 모든 서버에 반영합니다.")
+    public ResponseEntity<Void> reload() {
+        promptRegistry.publishChange("*");
+        return ResponseEntity.ok().build();
+    }
+}
@@ -1,10 +1,13 @@
 package com.tutoroo.controller;
 
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiRateLimited;
 import com.tutoroo.dto.AssessmentDTO;
 import com.tutoroo.exception.ErrorCode;
 import com.tutoroo.exception.TutorooException;
 import com.tutoroo.security.CustomUserDetails;
 import com.tutoroo.service.AssessmentService;
+import com.tutoroo.service.RoadmapJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -19,37 +22,57 @@ import org.springframework.web.bind.annotation.*;
 public class AssessmentController {
 
     private final AssessmentService assessmentService;
+    private final RoadmapJobService roadmapJobService;
 
     /**
      * [Step 2] 수준 파악 심층 상담 진행
      * - AI가 10턴 이상의 대화를 유도하거나, 유저 의도에 따라 조기 종료합니다.
      * - 프론트엔드는 응답의 isFinished=true가 될 때까지 이 API를 반복 호출해야 합니다.
+     * - 대화는 서버 세션에 보관되므로, 두 번째 요청부터는 sessionId와 lastUserMessage만 보내면 됩니다.
      */
+    @AiRateLimited(AiFeature.TUTORING)
     @PostMapping("/consult")
     @Operation(summary = "심층 상담 진행", description = "AI와 대화를 주고받으며 수준을 파악합니다. isFinished=true가 될 때까지 반복 호출하세요.")
     public ResponseEntity<AssessmentDTO.ConsultResponse> consult(
+            @AuthenticationPrincipal CustomUserDetails user,
             @RequestBody AssessmentDTO.ConsultRequest request
     ) {
-        return ResponseEntity.ok(assessmentService.proceedConsultation(request));
+        return ResponseEntity.ok(assessmentService.proceedConsultation(user != null ? user.getId() : null, request));
     }
 
     /**
-     * [Step 3] 상담 종료 후 최종 로드맵 생성
+     * [Step 3] 상담 종료 후 최종 로드맵 생성 (백그라운드 작업)
      * - 상담 내역(History)을 바탕으로 AI가 상세 커리큘럼(목차+상세)을 생성하고 DB에 저장합니다.
+     * - 생성에 수십 초가 걸리므로 작업 ID만 즉시 반환(202)하고, 완료는 SSE(roadmap-job 이벤트)로 알립니다.
      * - 엔드포인트 명 변경: /generate -> /submit (제출 및 생성의 의미 강화)
      */
+    @AiRateLimited(AiFeature.ROADMAP)
     @PostMapping("/submit")
-    @Operation(summary = "상담 결과 제출 및 로드맵 생성", description = "상담이 종료되면 호출하여 최종 학습 로드맵을 생성합니다.")
-    public ResponseEntity<AssessmentDTO.AssessmentResultResponse> submitAssessment(
+    @Operation(summary = "상담 결과 제출 및 로드맵 생성", description = "상담이 종료되면 호출합니다. 작업 ID를 반환하며, 결과는 SSE 또는 /jobs/{jobId} 조회로 받습니다.")
+    public ResponseEntity<AssessmentDTO.RoadmapJobResponse> submitAssessment(
             @AuthenticationPrincipal CustomUserDetails user,
             @RequestBody AssessmentDTO.AssessmentSubmitRequest request
     ) {
         if (user == null) throw new TutorooException(ErrorCode.UNAUTHORIZED_ACCESS);
-        return ResponseEntity.ok(assessmentService.analyzeAndCreateRoadmap(user.getId(), request));
+        return ResponseEntity.accepted().body(roadmapJobService.submit(user.getId(), request));
+    }
+
+    /**
+     * [Step 3-1] 로드맵 생성 작업 상태 조회 (SSE를 받을 수 없는 클라이언트용 폴링)
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "로드맵 생성 작업 조회", description = "PENDING/RUNNING/COMPLETED/FAILED 상태와 완료 시 결과를 반환합니다.")
+    public ResponseEntity<AssessmentDTO.RoadmapJobResponse> getRoadmapJob(
+            @AuthenticationPrincipal CustomUserDetails user,
+            @PathVariable String jobId
+    ) {
+        if (user == null) throw new TutorooException(ErrorCode.UNAUTHORIZED_ACCESS);
+        return ResponseEntity.ok(roadmapJobService.getJob(user.getId(), jobId));
     }
 
     // --- 기타 기능 (레벨 테스트 및 로드맵 재생성) ---
 
+    @AiRateLimited(AiFeature.GRADING)
     @PostMapping("/test/start")
     @Operation(summary = "간편 레벨 테스트 시작", description = "5지선다형 테스트 문제를 생성합니다.")
     public ResponseEntity<AssessmentDTO.LevelTestResponse> startLevelTest(
@@ -58,6 +81,7 @@ public class AssessmentController {
         return ResponseEntity.ok(assessmentService.generateLevelTest(request));
     }
 
+    @AiRateLimited(AiFeature.ROADMAP)
     @PostMapping("/test/submit")
     @Operation(summary = "레벨 테스트 제출", description = "테스트 답안을 채점하고 결과를 반환합니다.")
     public ResponseEntity<AssessmentDTO.AssessmentResult> submitLevelTest(
@@ -68,6 +92,7 @@ public class AssessmentController {
         return ResponseEntity.ok(assessmentService.evaluateLevelTest(user.getId(), request));
     }
 
+    @AiRateLimited(AiFeature.ROADMAP)
     @PostMapping("/roadmap/regenerate")
     @Operation(summary = "로드맵 재생성", description = "기존 플랜이 마음에 들지 않을 경우 상담 내용을 바탕으로 다시 생성합니다.")
     public ResponseEntity<AssessmentDTO.AssessmentResultResponse> regenerateRoadmap(
@@ -1,5 +1,7 @@
 package com.tutoroo.controller;
 
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiRateLimited;
 import com.tutoroo.dto.PetDTO;
 import com.tutoroo.security.CustomUserDetails;
 import com.tutoroo.service.PetService;
@@ -63,6 +65,7 @@ public class PetController {
 
     // 7. [New] 커스텀 펫 생성 (Step 20)
     // 졸업 조건을 만족해야 호출 가능합니다.
+    @AiRateLimited(AiFeature.DIARY)
     @PostMapping("/create-custom")
     public ResponseEntity<String> createCustomPet(
             @AuthenticationPrincipal CustomUserDetails user,
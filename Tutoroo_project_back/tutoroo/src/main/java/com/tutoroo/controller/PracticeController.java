@@ -1,5 +1,7 @@
 package com.tutoroo.controller;
 
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiRateLimited;
 import com.tutoroo.dto.PracticeDTO;
 import com.tutoroo.security.CustomUserDetails;
 import com.tutoroo.service.PracticeService;
@@ -16,6 +18,7 @@ public class PracticeController {
     private final PracticeService practiceService;
 
     // 1. 무한 실전 테스트 생성 (일반 모드 / 약점 모드)
+    @AiRateLimited(AiFeature.GRADING)
     @PostMapping("/generate")
     public ResponseEntity<PracticeDTO.TestResponse> generateTest(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -25,6 +28,7 @@ public class PracticeController {
     }
 
     // 2. 테스트 제출 및 AI 채점
+    @AiRateLimited(AiFeature.GRADING)
     @PostMapping("/submit")
     public ResponseEntity<PracticeDTO.GradingResponse> submitTest(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -1,5 +1,7 @@
 package com.tutoroo.controller;
 
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiRateLimited;
 import com.tutoroo.dto.StudyDTO;
 import com.tutoroo.exception.ErrorCode;
 import com.tutoroo.exception.TutorooException;
@@ -126,6 +128,7 @@ public class StudyController {
     // 3. AI 및 채팅 API
     // =================================================================================
 
+    @AiRateLimited(AiFeature.TUTORING)
     @PostMapping("/chat/simple")
     @Operation(summary = "학습 관련 AI 채팅", description = "로드맵 컨텍스트가 주입된 AI 선생님과 실시간으로 대화합니다.")
     public ResponseEntity<StudyDTO.ChatResponse> sendChatMessage(
@@ -140,6 +143,7 @@ public class StudyController {
         ));
     }
 
+    @AiRateLimited(AiFeature.TUTORING)
     @PostMapping("/plans/{planId}/ai-feedback")
     @Operation(summary = "AI 상세 피드백 생성", description = "최신 학습 로그를 바탕으로 AI 선생님의 상세한 피드백을 생성합니다.")
     public ResponseEntity<String> generateAiFeedback(
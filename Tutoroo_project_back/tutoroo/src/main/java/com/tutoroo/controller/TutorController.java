@@ -1,5 +1,7 @@
 package com.tutoroo.controller;
 
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiRateLimited;
 import com.tutoroo.dto.TutorDTO;
 import com.tutoroo.security.CustomUserDetails;
 import com.tutoroo.service.TutorService;
@@ -10,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/tutor")
@@ -20,6 +23,7 @@ public class TutorController {
     private final UserService userService;
 
     // 1. 수업 시작 (오프닝 + 스케줄 생성)
+    @AiRateLimited(AiFeature.TUTORING)
     @PostMapping("/class/start")
     public ResponseEntity<TutorDTO.ClassStartResponse> startClass(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -29,6 +33,7 @@ public class TutorController {
     }
 
     // 2. [New] 세션(모드) 변경 시 AI 멘트 요청 (BREAK, TEST 등)
+    @AiRateLimited(AiFeature.TUTORING)
     @PostMapping("/session/start")
     public ResponseEntity<TutorDTO.SessionStartResponse> startSession(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -38,6 +43,7 @@ public class TutorController {
     }
 
     // 3. 데일리 테스트 문제 생성
+    @AiRateLimited(AiFeature.GRADING)
     @GetMapping("/test/generate")
     public ResponseEntity<TutorDTO.DailyTestResponse> generateTest(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -48,6 +54,7 @@ public class TutorController {
     }
 
     // 4. 테스트 제출 및 채점
+    @AiRateLimited(AiFeature.GRADING)
     @PostMapping(value = "/test/submit", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<TutorDTO.TestFeedbackResponse> submitTest(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -57,12 +64,14 @@ public class TutorController {
         return ResponseEntity.ok(tutorService.submitTest(
                 user.getId(),
                 request.planId(),
+                request.quizId(),
                 request.textAnswer(),
                 image
         ));
     }
 
     // 5. AI와 채팅 (커리큘럼 조정 및 질의응답) - 이미지 지원 추가
+    @AiRateLimited(AiFeature.TUTORING)
     @PostMapping(value = "/feedback/chat", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<TutorDTO.FeedbackChatResponse> chatWithTutor(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -78,6 +87,16 @@ public class TutorController {
         ));
     }
 
+    // 5-1. AI와 채팅 - 토큰 스트리밍 (SSE: start -> token... -> done)
+    @AiRateLimited(AiFeature.TUTORING)
+    @PostMapping(value = "/feedback/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChatWithTutor(
+            @AuthenticationPrincipal CustomUserDetails user,
+            @RequestBody TutorDTO.FeedbackChatRequest request
+    ) {
+        return tutorService.streamCurriculumChat(user.getId(), request.planId(), request.message());
+    }
+
     // 6. 튜터 평가 (학생 -> AI)
     @PostMapping("/review")
     public ResponseEntity<String> reviewTutor(@RequestBody TutorDTO.TutorReviewRequest request) {
@@ -86,6 +105,7 @@ public class TutorController {
     }
 
     // 7. 주간/월간 시험 생성
+    @AiRateLimited(AiFeature.GRADING)
     @GetMapping("/exam/generate")
     public ResponseEntity<TutorDTO.ExamGenerateResponse> generateExam(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -97,6 +117,7 @@ public class TutorController {
     }
 
     // 8. 시험 제출
+    @AiRateLimited(AiFeature.GRADING)
     @PostMapping("/exam/submit")
     public ResponseEntity<TutorDTO.ExamResultResponse> submitExam(
             @AuthenticationPrincipal CustomUserDetails user,
@@ -106,6 +127,7 @@ public class TutorController {
     }
 
     // 9. STT (음성 -> 텍스트 변환)
+    @AiRateLimited(AiFeature.TUTORING)
     @PostMapping(value = "/stt", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> convertSpeechToText(@RequestPart("audio") MultipartFile audio) {
         return ResponseEntity.ok(tutorService.convertSpeechToText(audio));
@@ -23,12 +23,14 @@ public class AssessmentDTO {
     @Builder
     public record ConsultRequest(
             StudyStartRequest studyInfo,
-            List<Message> history,   // 이전 대화 내역
-            String lastUserMessage   // 사용자의 최신 답변
+            List<Message> history,   // 이전 대화 내역 (세션 ID가 없을 때만 사용, 새 세션의 시작 대화로 이어받음)
+            String lastUserMessage,  // 사용자의 최신 답변
+            String sessionId         // 상담 세션 ID (첫 요청은 null, 이후 응답의 sessionId를 그대로 전송)
     ) {}
 
     @Builder
     public record ConsultResponse(
+            String sessionId,      // 상담 세션 ID (다음 턴/로드맵 제출 시 전송)
             String aiMessage,      // AI의 질문 또는 답변
             String audioUrl,       // TTS 오디오 URL (없으면 null)
             boolean isFinished     // 상담 종료 여부 (true면 로드맵 생성 요청 보내야 함)
@@ -39,7 +41,8 @@ public class AssessmentDTO {
     @Builder
     public record AssessmentSubmitRequest(
             StudyStartRequest studyInfo,
-            List<Message> history // 상담 완료 후 전체 대화 내역 전송
+            List<Message> history, // 상담 완료 후 전체 대화 내역 전송 (sessionId를 보내면 생략 가능)
+            String sessionId       // 상담 세션 ID (서버에 보관된 대화 내역 사용)
     ) {}
 
     // [대시보드/상담결과 공용] 최종 결과 응답
@@ -52,6 +55,16 @@ public class AssessmentDTO {
             String message
     ) {}
 
+    // [로드맵 생성 작업] 접수 응답 및 상태 조회 응답 (SSE roadmap-job 이벤트와 동일 구조)
+    @Builder
+    public record RoadmapJobResponse(
+            String jobId,
+            String status,                    // PENDING, RUNNING, COMPLETED, FAILED
+            AssessmentResultResponse result,  // COMPLETED 일 때만
+            String errorCode,                 // FAILED 일 때만 (예: L003)
+            String message
+    ) {}
+
     // --- [3] AI JSON 매핑용 데이터 구조 (DB 저장용) ---
     // AssessmentService에서 ObjectMapper로 파싱할 때 사용됩니다.
 
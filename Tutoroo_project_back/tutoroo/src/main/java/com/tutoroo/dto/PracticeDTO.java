@@ -71,4 +71,10 @@ public class PracticeDTO {
                 double errorRate
         ) {}
     }
-}
\ No newline at end of file
+
+    // 6. 문제 이미지 완성 이벤트 (SSE practice-image, imageUrl이 null이면 이미지 생성 실패)
+    public record QuestionImageEvent(
+            Long questionId,
+            String imageUrl
+    ) {}
+}
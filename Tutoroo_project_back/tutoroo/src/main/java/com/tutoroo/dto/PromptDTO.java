@@ -0,0 +1,19 @@
+package com.tutoroo.dto;
+
+/**
+ * [기능: 프롬프트 관리 (관리자) 전송 객체]
+ */
+public class PromptDTO {
+
+    // 프롬프트 수정 요청 (description이 없으면 기존 설명 유지)
+    public record UpdateRequest(
+            String content,
+            String description
+    ) {}
+
+    public record PromptResponse(
+            String promptKey,
+            String content,
+            String description
+    ) {}
+}
@@ -39,13 +39,15 @@ public class TutorDTO {
             String question,        // 문제 내용
             String imageUrl,        // 이미지 (없으면 null)
             List<String> options,   // [New] 4지선다 보기 리스트 (기존 voiceUrl 대체)
-            int answerIndex         // [New] 정답 인덱스 (기존 timeLimitSeconds 대체)
+            int answerIndex,        // [New] 정답 인덱스 (기존 timeLimitSeconds 대체)
+            String quizId           // 출제 ID (제출 시 그대로 보내면 이 문제 기준으로 즉시 채점)
     ) {}
 
     // 4. 테스트 제출 요청 (데일리 테스트용)
     public record TestSubmitRequest(
             Long planId,
-            String textAnswer
+            String textAnswer,
+            String quizId           // 풀고 있는 데일리 퀴즈의 출제 ID (없으면 AI 채점)
     ) {}
 
     // 5. 테스트 피드백 응답 (데일리 테스트용)
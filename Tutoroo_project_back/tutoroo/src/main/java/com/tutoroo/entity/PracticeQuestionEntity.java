@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 public class PracticeQuestionEntity {
     private Long id;
     private Long planId;
+    private String goalKey;     // 문제은행 풀 키 (학습 목표 해시, 같은 목표의 플랜끼리 공유)
 
     private String contentHash; // 중복 방지 해시
 
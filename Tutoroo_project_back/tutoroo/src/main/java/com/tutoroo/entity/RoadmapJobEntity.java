@@ -0,0 +1,27 @@
+package com.tutoroo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoadmapJobEntity {
+    private String id;              // 작업 ID (UUID)
+    private Long userId;
+    private String status;          // PENDING, RUNNING, COMPLETED, FAILED
+    private String requestHash;     // 같은 상담 결과 재제출 감지용
+    private String requestJson;     // AssessmentSubmitRequest 원본
+    private String resultJson;      // 완료 시 AssessmentResultResponse
+    private Long planId;            // 완료 시 생성된 플랜 ID
+    private String errorCode;       // 실패 시 ErrorCode 코드값 (예: L003)
+    private String errorMessage;
+    private int attempts;           // 실행 시도 횟수 (서버 재시작 복구 포함)
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
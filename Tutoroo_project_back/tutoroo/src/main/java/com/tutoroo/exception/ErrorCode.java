@@ -33,6 +33,12 @@ public enum ErrorCode {
     MULTIPLE_PLANS_REQUIRED_PAYMENT(HttpStatus.PAYMENT_REQUIRED, "L003", "추가 목표 설정은 유료 멤버십 기능입니다."),
     INSUFFICIENT_POINTS(HttpStatus.BAD_REQUEST, "L004", "보유 포인트가 부족합니다."),
     STT_PROCESSING_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "L005", "음성 인식(STT) 처리 중 오류가 발생했습니다."),
+    AI_BUSY(HttpStatus.TOO_MANY_REQUESTS, "L006", "현재 AI 요청이 많습니다. 잠시 후 다시 시도해주세요."),
+    AI_TIMEOUT(HttpStatus.GATEWAY_TIMEOUT, "L007", "AI 응답 시간이 초과되었습니다. 다시 시도해주세요."),
+    PROMPT_TOO_LONG(HttpStatus.BAD_REQUEST, "L008", "입력 내용이 너무 깁니다. 나눠서 질문해주세요."),
+    ROADMAP_JOB_NOT_FOUND(HttpStatus.NOT_FOUND, "L009", "로드맵 생성 작업을 찾을 수 없습니다."),
+    AI_RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "L010", "AI 요청 한도를 초과했습니다. 잠시 후 다시 시도해주세요."),
+    CONSULT_SESSION_NOT_FOUND(HttpStatus.NOT_FOUND, "L011", "상담 세션이 만료되었습니다. 상담을 다시 시작해주세요."),
 
     // --- [Pet: 펫/다마고치 (P)] ---
     PET_NOT_FOUND(HttpStatus.NOT_FOUND, "P001", "육성 중인 펫 정보를 찾을 수 없습니다."),
@@ -1,6 +1,7 @@
 package com.tutoroo.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -18,6 +19,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ErrorResponse.of(errorCode), errorCode.getStatus());
     }
 
+    // AI 요청 한도 초과: 언제 다시 시도하면 되는지 함께 응답
+    @ExceptionHandler(RateLimitedException.class)
+    protected ResponseEntity<ErrorResponse> handleRateLimitedException(RateLimitedException e) {
+        ErrorCode errorCode = e.getErrorCode();
+        return ResponseEntity.status(errorCode.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ErrorResponse.of(errorCode));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     protected ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
         log.warn("Validation Error: {}", e.getMessage());
@@ -0,0 +1,18 @@
+package com.tutoroo.exception;
+
+import lombok.Getter;
+
+/**
+ * [기능: AI 요청 한도 초과 예외]
+ * 설명: GlobalExceptionHandler가 429 응답에 Retry-After(초) 헤더를 붙입니다.
+ */
+@Getter
+public class RateLimitedException extends TutorooException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(long retryAfterSeconds) {
+        super(ErrorCode.AI_RATE_LIMITED);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package com.tutoroo.filter;
 
+import com.tutoroo.ai.AiMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +15,7 @@ import java.io.IOException;
  * [기능: 요청 로깅 및 성능 모니터링 필터]
  * 설명: 모든 API 요청의 URL, 처리 시간, 응답 상태 코드를 로깅하여 시스템 모니터링을 지원합니다.
  * 작동원리: 요청 시작 시각과 종료 시각을 계산하여 응답과 함께 로그를 기록합니다.
+ *          요청 안에서 AI를 호출했다면 종류:모델별 AI 시간도 함께 기록합니다. (AiMetrics)
  */
 @Slf4j
 @Component
@@ -34,7 +36,11 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             int status = response.getStatus();
 
             // 상업적 운영 시 중요한 데이터: 성능 이슈가 있는 API를 즉각 파악 가능
-            log.info("API Log - [{} {}] status: {} duration: {}ms", method, path, status, duration);
+            if (request.getAttribute(AiMetrics.REQUEST_USAGE_ATTRIBUTE) instanceof AiMetrics.RequestUsage ai) {
+                log.info("API Log - [{} {}] status: {} duration: {}ms ai: {}ms ({})", method, path, status, duration, ai.totalMillis(), ai);
+            } else {
+                log.info("API Log - [{} {}] status: {} duration: {}ms", method, path, status, duration);
+            }
         }
     }
 }
\ No newline at end of file
@@ -12,6 +12,21 @@ public interface ChatMapper {
     // 최근 대화 불러오기 (limit 개수만큼)
     List<ChatMessage> findRecentMessages(@Param("planId") Long planId, @Param("limit") int limit);
 
+    // 요약 이후(afterId 초과) 대화 중 최근 limit개 (시간순)
+    List<ChatMessage> findRecentMessagesAfter(@Param("planId") Long planId, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    // 요약 이후 쌓인 대화 수
+    int countMessagesAfter(@Param("planId") Long planId, @Param("afterId") long afterId);
+
+    // 요약 대상 대화 (afterId 이후 오래된 순으로 limit개)
+    List<ChatTurn> findOldestMessagesAfter(@Param("planId") Long planId, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    // 대화 요약 조회/저장
+    ChatSummary findSummary(@Param("planId") Long planId);
+    void upsertSummary(@Param("planId") Long planId, @Param("summary") String summary, @Param("lastMessageId") long lastMessageId);
+
     // 내부 DTO
     record ChatMessage(String sender, String message) {}
+    record ChatTurn(Long id, String sender, String message) {}
+    record ChatSummary(Long planId, String summary, Long lastMessageId) {}
 }
\ No newline at end of file
@@ -5,10 +5,13 @@ import com.tutoroo.entity.TtsCacheEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 @Mapper
 public interface CommonMapper {
-    // 1. 프롬프트 조회
-    String findPromptContentByKey(String key);
+    // 1. 프롬프트 전체 조회 / 저장 (PromptRegistry 전용)
+    List<PromptEntity> findAllPrompts();
+    void upsertPrompt(PromptEntity prompt);
 
     // 2. TTS 캐시 조회
     TtsCacheEntity findTtsCacheByHash(String textHash);
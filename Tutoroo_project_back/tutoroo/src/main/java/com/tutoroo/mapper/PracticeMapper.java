@@ -4,27 +4,47 @@ import com.tutoroo.entity.PracticeLogEntity;
 import com.tutoroo.entity.PracticeQuestionEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
 @Mapper
 public interface PracticeMapper {
 
-    // 1. 문제 중복 확인
-    int countByContentHash(String contentHash);
+    // 1. 문제 중복 확인 (배치 단위 IN 조회 / 블룸 필터 예열용 전체 스캔)
+    List<String> findExistingContentHashes(@Param("hashes") List<String> hashes);
+    void scanContentHashes(ResultHandler<String> handler);
 
-    // 2. 문제 저장
+    // 2. 문제 저장 (content_hash 유니크 - 이미 있는 문제는 건너뜀)
     void saveQuestion(PracticeQuestionEntity question);
+    void saveQuestionsIgnoringDuplicates(@Param("questions") List<PracticeQuestionEntity> questions);
 
     // 3. 문제 조회
     PracticeQuestionEntity findQuestionById(Long id);
+    List<PracticeQuestionEntity> findQuestionsByIds(@Param("ids") List<Long> ids);
+    List<PracticeQuestionEntity> findQuestionsByContentHashes(@Param("hashes") List<String> hashes);
+
+    // 문제 이미지 기록 (생성 대기 중(null)인 문제만)
+    void updateImageUrl(@Param("id") Long id, @Param("imageUrl") String imageUrl);
 
     // 4. 로그 저장
     void saveLog(PracticeLogEntity log);
+    void saveLogs(@Param("logs") List<PracticeLogEntity> logs);
 
-    // 5. 약점 분석 (가장 많이 틀린 토픽 TOP 5)
-    List<String> findTopWeakTopics(@Param("userId") Long userId, @Param("planId") Long planId);
+    // 5. 약점 분석 (같은 학습 목표에서 가장 많이 틀린 토픽 TOP 5)
+    List<String> findTopWeakTopics(@Param("userId") Long userId, @Param("goalKey") String goalKey);
 
     // 6. 특정 토픽의 과거 문제 조회 (복습용)
     List<PracticeQuestionEntity> findWrongQuestionsByTopic(@Param("userId") Long userId, @Param("topic") String topic);
+
+    // 7. 문제은행 (학생이 보지 않은 문제 출제 + 노출 기록)
+    List<PracticeQuestionEntity> findUnseenPoolQuestions(@Param("userId") Long userId,
+                                                         @Param("goalKey") String goalKey,
+                                                         @Param("difficulty") int difficulty,
+                                                         @Param("preferredTopics") List<String> preferredTopics,
+                                                         @Param("limit") int limit);
+    int countUnseenPoolQuestions(@Param("userId") Long userId,
+                                 @Param("goalKey") String goalKey,
+                                 @Param("difficulty") int difficulty);
+    void saveQuestionViews(@Param("userId") Long userId, @Param("questionIds") List<Long> questionIds);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.tutoroo.mapper;
+
+import com.tutoroo.entity.RoadmapJobEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface RoadmapJobMapper {
+    void save(RoadmapJobEntity job);
+    RoadmapJobEntity findById(String id);
+
+    // 같은 상담 결과로 진행 중이거나 방금 끝난 작업 (재제출 시 재사용)
+    RoadmapJobEntity findReusableJob(@Param("userId") Long userId, @Param("requestHash") String requestHash);
+
+    // PENDING -> RUNNING 선점 (여러 서버 중 한 곳만 실행), 선점 성공 시 1
+    int claim(String id);
+
+    // 실행 중 생존 신호, 내 시도가 아니게 되면 0
+    int heartbeat(@Param("id") String id, @Param("attempt") int attempt);
+
+    // 내가 선점한 시도(RUNNING + attempts 일치)일 때만 기록, 기록 성공 시 1
+    int markCompleted(@Param("id") String id, @Param("attempt") int attempt,
+                      @Param("planId") Long planId, @Param("resultJson") String resultJson);
+    int markFailed(@Param("id") String id, @Param("attempt") int attempt,
+                   @Param("errorCode") String errorCode, @Param("errorMessage") String errorMessage);
+
+    // 서버 재시작 등으로 멈춘 작업 복구 (생존 신호가 staleSeconds 동안 없던 작업만)
+    List<String> findStaleJobIds(@Param("staleSeconds") long staleSeconds);
+    int requeue(@Param("id") String id, @Param("maxAttempts") int maxAttempts, @Param("staleSeconds") long staleSeconds,
+                @Param("errorCode") String errorCode, @Param("errorMessage") String errorMessage);
+}
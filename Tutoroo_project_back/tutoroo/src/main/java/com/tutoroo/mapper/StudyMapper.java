@@ -16,6 +16,9 @@ public interface StudyMapper {
     StudyPlanEntity findById(Long id);
     StudyPlanEntity findPlanById(Long id);
     List<StudyPlanEntity> findActivePlansByUserId(Long userId);
+
+    // 야간 사전 생성 대상: 최근 7일 내 생성되었거나 학습한 진행 중 플랜
+    List<StudyPlanEntity> findPlansForPregeneration();
     int countActivePlansByUserId(Long userId);
     void updateProgress(StudyPlanEntity plan);
     void updatePlan(StudyPlanEntity plan);
@@ -1,16 +1,24 @@
 package com.tutoroo.scheduler;
 
+import com.tutoroo.ai.PromptRegistry;
+import com.tutoroo.entity.StudyPlanEntity;
 import com.tutoroo.entity.UserEntity;
+import com.tutoroo.mapper.StudyMapper;
 import com.tutoroo.mapper.UserMapper;
 import com.tutoroo.service.NotificationService;
 import com.tutoroo.service.PetService;
+import com.tutoroo.service.RoadmapJobService;
+import com.tutoroo.service.TutorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
@@ -20,10 +28,23 @@ public class TutorooScheduler {
     private final UserMapper userMapper;
     private final PetService petService;
     private final NotificationService notificationService;
+    private final RoadmapJobService roadmapJobService;
+    private final TutorService tutorService;
+    private final StudyMapper studyMapper;
+    private final PromptRegistry promptRegistry;
 
     // AsyncConfig에서 정의한 가상 스레드 실행기 (Virtual Threads)
     private final AsyncTaskExecutor taskExecutor;
 
+    @Value("${app.ai.pregen.enabled:true}")
+    private boolean pregenEnabled;
+
+    @Value("${app.ai.pregen.parallelism:4}")
+    private int pregenParallelism;
+
+    @Value("${app.ai.pregen.tts:true}")
+    private boolean pregenTts;
+
     /**
      * [1. 미드나잇 다이어리 작성]
      * 동작 시간: 매일 밤 자정 (00:00:00)
@@ -98,4 +119,80 @@ public class TutorooScheduler {
 
         log.info("✅ [스케줄러] 총 {}명의 탈퇴 회원 데이터가 정리되었습니다.", count);
     }
+
+    /**
+     * [4. 멈춘 로드맵 생성 작업 복구]
+     * 동작 시간: 1분마다
+     * 기능: 서버 재시작 등으로 PENDING/RUNNING에 멈춘 로드맵 작업을 다시 실행하거나 실패 처리합니다.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void recoverRoadmapJobs() {
+        try {
+            roadmapJobService.recoverStaleJobs();
+        } catch (Exception e) {
+            log.error("❌ 로드맵 작업 복구 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * [5. 세션 전환 멘트 풀 갱신]
+     * 동작 시간: 매일 새벽 2시 30분
+     * 기능: 페르소나 x 세션 모드별 멘트(+음성) 변형을 새로 만들어, 낮 시간 세션 전환은 AI 호출 없이 응답합니다.
+     */
+    @Scheduled(cron = "0 30 2 * * *")
+    public void refreshSessionPhrases() {
+        try {
+            tutorService.refreshSessionPhrasePool();
+        } catch (Exception e) {
+            log.error("❌ 세션 멘트 풀 갱신 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * [6. 다음 날 수업 사전 생성]
+     * 동작 시간: 매일 새벽 3시 (트래픽 한산 시간)
+     * 기능: 최근 활동한 진행 중 플랜의 다음 수업 오프닝/시간표, TTS, 데일리 퀴즈를 미리 생성해 캐시에 올려 둡니다.
+     * 최적화: 동시에 parallelism개 플랜만 처리하고, AI 호출은 PREGEN 벌크헤드로 실시간 기능과 분리합니다.
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void pregenerateTomorrowClasses() {
+        if (!pregenEnabled) return;
+        log.info("🌅 [스케줄러] 다음 날 수업 사전 생성 시작...");
+
+        List<StudyPlanEntity> plans = studyMapper.findPlansForPregeneration();
+        Semaphore slots = new Semaphore(pregenParallelism);
+        AtomicInteger failed = new AtomicInteger();
+
+        for (StudyPlanEntity plan : plans) {
+            // 자리가 날 때까지 스케줄러 스레드에서 대기 (동시 처리 플랜 수 제한)
+            slots.acquireUninterruptibly();
+            taskExecutor.execute(() -> {
+                try {
+                    tutorService.pregenerateNextClass(plan, pregenTts);
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("❌ 수업 사전 생성 실패 (Plan: {}): {}", plan.getId(), e.getMessage());
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+        slots.acquireUninterruptibly(pregenParallelism);
+
+        log.info("✅ [스케줄러] 총 {}개 플랜 사전 생성 완료 (실패 {}건)", plans.size(), failed.get());
+    }
+
+    /**
+     * [7. 프롬프트 레지스트리 동기화]
+     * 동작 시간: 10분마다
+     * 기능: Redis 변경 알림이 유실된 노드도 DB의 최신 프롬프트로 맞춥니다. (평소 반영은 알림으로 즉시)
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void resyncPrompts() {
+        try {
+            promptRegistry.reload();
+        } catch (Exception e) {
+            log.error("❌ 프롬프트 동기화 실패: {}", e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -2,28 +2,48 @@ package com.tutoroo.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiGateway;
+import com.tutoroo.ai.AiMetrics;
+import com.tutoroo.ai.AiResponseCache;
+import com.tutoroo.ai.AiSingleFlight;
+import com.tutoroo.ai.AiStructuredOutput;
+import com.tutoroo.ai.PromptBudget;
+import com.tutoroo.ai.PromptRegistry;
 import com.tutoroo.dto.AssessmentDTO;
 import com.tutoroo.entity.StudyPlanEntity;
 import com.tutoroo.entity.UserEntity;
 import com.tutoroo.exception.ErrorCode;
 import com.tutoroo.exception.TutorooException;
-import com.tutoroo.mapper.CommonMapper;
 import com.tutoroo.mapper.StudyMapper;
 import com.tutoroo.mapper.UserMapper;
 import com.tutoroo.util.FileStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiAudioSpeechModel;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.audio.speech.SpeechPrompt;
 import org.springframework.ai.openai.audio.speech.SpeechResponse;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,45 +52,66 @@ import java.util.regex.Pattern;
 @RequiredArgsConstructor
 public class AssessmentService {
 
-    private final OpenAiChatModel chatModel;
+    private final AiGateway aiGateway;
+    private final AiResponseCache aiResponseCache;
+    private final AiSingleFlight aiSingleFlight;
+    private final AiStructuredOutput structuredOutput;
+    private final PromptBudget promptBudget;
     private final OpenAiAudioSpeechModel speechModel;
     private final StudyMapper studyMapper;
     private final UserMapper userMapper;
-    private final CommonMapper commonMapper;
+    private final PromptRegistry promptRegistry;
     private final ObjectMapper objectMapper;
     private final FileStore fileStore;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor taskExecutor;
+    private final ConsultSessionService consultSessionService;
 
     // [핵심 설정] 최소 상담 턴 수 10회 (심층 분석)
     private static final int MIN_CONSULT_TURNS = 10;
 
+    // [로드맵 생성] 주차별 상세 병렬 수 (로드맵 하나당), 단계별 최대 시도 횟수, 최대 주차 수
+    private static final int ROADMAP_WEEK_PARALLELISM = 4;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int ROADMAP_MAX_ATTEMPTS = 2;
+    private static final int MAX_ROADMAP_WEEKS = 52;
+
+    // AI 응답 캐시 엔드포인트 (app.ai.cache.ttls 키와 일치)
+    private static final String CACHE_LEVEL_TEST = "level-test";
+
+    // 상담 대화 역할 (기존 클라이언트가 보내던 history 형식과 동일)
+    private static final String ROLE_USER = "User";
+    private static final String ROLE_AI = "AI";
+
     // [유저 의도 감지] 조기 종료 키워드 (정규식)
     private static final Pattern STOP_KEYWORDS = Pattern.compile(".*(그만|종료|멈춰|끝|결과|로드맵|힘들|지겨|안할래|stop|finish|done).*", Pattern.CASE_INSENSITIVE);
 
     // --- [Step 2] 수준 파악 상담 (고도화됨) ---
-    public AssessmentDTO.ConsultResponse proceedConsultation(AssessmentDTO.ConsultRequest request) {
-        // 1. DB에서 기본 페르소나 로드
-        String baseSystemPrompt = commonMapper.findPromptContentByKey("CONSULT_SYSTEM");
+    public AssessmentDTO.ConsultResponse proceedConsultation(Long userId, AssessmentDTO.ConsultRequest request) {
+        // 0. 상담 세션 (첫 턴이면 발급, 이후에는 서버에 보관된 대화를 사용하므로 클라이언트는 새 메시지만 전송)
+        ConsultSessionService.Session session = StringUtils.hasText(request.sessionId())
+                ? consultSessionService.load(request.sessionId(), userId)
+                : consultSessionService.start(userId, request.studyInfo(), request.history());
+
+        // 1. 기본 페르소나 로드 (PromptRegistry 메모리 조회)
+        String baseSystemPrompt = promptRegistry.content("CONSULT_SYSTEM");
         if (baseSystemPrompt == null) {
             baseSystemPrompt = "너는 대한민국 최고의 입시/학습 컨설턴트야. 학생의 성적, 성향, 멘탈까지 완벽하게 파악해야 해.";
         }
 
         // 2. 현재 대화 턴 수 및 유저 의도 파악
-        int currentTurnCount = (request.history() == null) ? 0 : request.history().size();
+        int currentTurnCount = session.turns().size();
         String lastUserMessage = request.lastUserMessage();
         boolean userWantsToStop = isUserRequestingStop(lastUserMessage);
 
-        // 3. [Dynamic Prompt] 상황에 맞는 프롬프트 조립
-        String enhancedPrompt = buildGuardedPrompt(baseSystemPrompt, request, currentTurnCount, userWantsToStop);
+        // 3. [Dynamic Prompt] 고정 앞부분(페르소나 + 프로필 + 대화) 뒤에 이번 턴 지시를 붙여 조립
+        Prompt enhancedPrompt = buildGuardedPrompt(baseSystemPrompt, session, lastUserMessage, currentTurnCount, userWantsToStop);
 
         try {
-            // 4. AI 호출
-            String jsonResponse = chatModel.call(enhancedPrompt);
-            String cleanedJson = cleanJson(jsonResponse);
-
-            // 5. 응답 파싱
-            JsonNode rootNode = objectMapper.readTree(cleanedJson);
-            String message = rootNode.path("message").asText();
-            boolean isFinished = rootNode.path("isFinished").asBoolean();
+            // 4. AI 호출 + 응답 파싱 (JSON Schema 응답, 형식 오류는 로컬 복구)
+            ConsultReply reply = structuredOutput.call(AiFeature.TUTORING, enhancedPrompt, ConsultReply.class);
+            String message = (reply.message() != null) ? reply.message() : "";
+            boolean isFinished = Boolean.TRUE.equals(reply.isFinished());
 
             // [최종 안전장치 Logic]
             // A. 유저가 멈추길 원하면 -> 무조건 종료 (AI가 눈치 없이 계속 질문하는 것 방지)
@@ -85,10 +126,17 @@ public class AssessmentService {
                 isFinished = false;
             }
 
+            // 5. 세션에 이번 턴 추가 (끝에만 추가)
+            List<AssessmentDTO.Message> turn = new ArrayList<>();
+            if (StringUtils.hasText(lastUserMessage)) turn.add(new AssessmentDTO.Message(ROLE_USER, lastUserMessage));
+            turn.add(new AssessmentDTO.Message(ROLE_AI, message));
+            consultSessionService.append(session.id(), turn);
+
             // 6. TTS 생성
             String audioUrl = generateTtsAudio(message);
 
             return AssessmentDTO.ConsultResponse.builder()
+                    .sessionId(session.id())
                     .aiMessage(message)
                     .audioUrl(audioUrl)
                     .isFinished(isFinished)
@@ -102,8 +150,26 @@ public class AssessmentService {
     }
 
     // --- [Step 3] 로드맵 생성 (분석 + 로드맵 + DB저장) ---
-    @Transactional
+    // [성능] AI 호출(수십 초) 동안 DB 커넥션을 잡지 않도록 트랜잭션은 savePlanToDB 저장 구간에만 적용
     public AssessmentDTO.AssessmentResultResponse analyzeAndCreateRoadmap(Long userId, AssessmentDTO.AssessmentSubmitRequest request) {
+        // [중복 방지] 같은 상담 결과로 로드맵 생성이 겹치면 한 번만 생성 (플랜 중복 생성 방지)
+        return aiSingleFlight.execute("assessment-submit", userId, request, AssessmentDTO.AssessmentResultResponse.class,
+                () -> createRoadmapFromAssessment(userId, request));
+    }
+
+    /**
+     * [로드맵 생성 본체] 수준 분석 -> 로드맵 생성 -> 플랜 저장
+     * 동기 호출(analyzeAndCreateRoadmap)과 백그라운드 작업(RoadmapJobService)이 함께 사용합니다.
+     */
+    public AssessmentDTO.AssessmentResultResponse createRoadmapFromAssessment(Long userId, AssessmentDTO.AssessmentSubmitRequest request) {
+        return createRoadmapFromAssessment(userId, request, result -> true);
+    }
+
+    /**
+     * @param commitGuard 플랜 저장과 같은 트랜잭션에서 결과를 받아 확정 여부를 결정 (false면 플랜 저장을 되돌리고 null 반환)
+     */
+    public AssessmentDTO.AssessmentResultResponse createRoadmapFromAssessment(Long userId, AssessmentDTO.AssessmentSubmitRequest request,
+                                                                              Predicate<AssessmentDTO.AssessmentResultResponse> commitGuard) {
         UserEntity user = userMapper.findById(userId);
         if (user == null) throw new TutorooException(ErrorCode.USER_NOT_FOUND);
 
@@ -111,10 +177,9 @@ public class AssessmentService {
         checkPlanLimit(user);
 
         // 1. 레벨 분석 (Current & Target)
-        String analysisJson = analyzeStudentLevel(user, request.studyInfo(), request.history());
         AnalysisResult analysis;
         try {
-            analysis = objectMapper.readValue(analysisJson, AnalysisResult.class);
+            analysis = analyzeStudentLevel(user, request.studyInfo(), request.history());
         } catch (Exception e) {
             log.error("분석 파싱 실패: {}", e.getMessage());
             analysis = new AnalysisResult("BEGINNER", "INTERMEDIATE", "상담 데이터 부족으로 기초부터 시작합니다.");
@@ -130,25 +195,27 @@ public class AssessmentService {
             throw new TutorooException("로드맵 생성 형식이 올바르지 않습니다.", ErrorCode.AI_PROCESSING_ERROR);
         }
 
-        // 3. DB 저장 (endDate, targetLevel 포함)
-        savePlanToDB(userId, request.studyInfo(), roadmapJson, analysis);
-
-        // 4. 응답 생성 (요약본)
+        // 3. 응답 생성 (요약본)
         AssessmentDTO.RoadmapOverview overview = AssessmentDTO.RoadmapOverview.builder()
                 .summary(roadmapData.summary())
                 .chapters(roadmapData.tableOfContents())
                 .build();
-
-        return AssessmentDTO.AssessmentResultResponse.builder()
-                .analyzedLevel(analysis.currentLevel)
-                .analysisReport(analysis.analysisReport)
+        AnalysisResult analyzed = analysis;
+        Function<Long, AssessmentDTO.AssessmentResultResponse> toResult = planId -> AssessmentDTO.AssessmentResultResponse.builder()
+                .planId(planId)
+                .analyzedLevel(analyzed.currentLevel)
+                .analysisReport(analyzed.analysisReport)
                 .overview(overview)
                 .message("로드맵 생성이 완료되었습니다. 대시보드에서 상세 내용을 확인하세요.")
                 .build();
+
+        // 4. DB 저장 (endDate, targetLevel 포함)
+        Long planId = savePlanToDB(userId, request.studyInfo(), roadmapJson, analysis,
+                id -> commitGuard.test(toResult.apply(id)));
+        return (planId != null) ? toResult.apply(planId) : null;
     }
 
     // --- [복구됨] 간편 생성 (StudyController 호환용) ---
-    @Transactional
     public AssessmentDTO.RoadmapResponse createStudentRoadmap(Long userId, AssessmentDTO.RoadmapRequest request) {
         UserEntity user = userMapper.findById(userId);
         if (user == null) throw new TutorooException(ErrorCode.USER_NOT_FOUND);
@@ -186,20 +253,23 @@ public class AssessmentService {
                 .build();
     }
 
-    @Transactional
     public AssessmentDTO.AssessmentResultResponse regenerateRoadmap(Long userId, Long planId, AssessmentDTO.AssessmentSubmitRequest request) {
         StudyPlanEntity plan = studyMapper.findById(planId);
         if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
         if (!plan.getUserId().equals(userId)) throw new TutorooException(ErrorCode.UNAUTHORIZED_ACCESS);
-        return analyzeAndCreateRoadmap(userId, request);
+
+        // 재생성은 새 플랜(새 planId)으로 저장되므로 기존 플랜의 AI 캐시와 키가 겹치지 않음
+        return analyzeAndCreateRoadmap(userId, withConsultHistory(userId, request));
     }
 
     // --- 기타 기능 (레벨 테스트 등) ---
     public AssessmentDTO.LevelTestResponse generateLevelTest(AssessmentDTO.LevelTestRequest request) {
-        String prompt = String.format("과목: %s. 5지선다 5문제 JSON 출제.", request.subject());
+        String prompt = String.format("과목: %s. 5지선다 5문제 JSON 출제. (questions: questionNo, question, options)", request.subject());
         try {
-            String json = cleanJson(chatModel.call(prompt));
-            List<AssessmentDTO.LevelTestResponse.TestQuestion> qs = objectMapper.readValue(json, new TypeReference<>() {});
+            // [캐시] 과목별 레벨 테스트는 모든 학생이 공유
+            List<AssessmentDTO.LevelTestResponse.TestQuestion> qs = aiResponseCache.getOrLoad(
+                    CACHE_LEVEL_TEST, null, prompt, new TypeReference<>() {},
+                    () -> structuredOutput.call(AiFeature.GRADING, prompt, LevelTestQuestions.class).questions());
             return AssessmentDTO.LevelTestResponse.builder().testId(UUID.randomUUID().toString()).subject(request.subject()).questions(qs).build();
         } catch(Exception e) {
             return AssessmentDTO.LevelTestResponse.builder().testId("error").questions(new ArrayList<>()).build();
@@ -217,51 +287,80 @@ public class AssessmentService {
         return STOP_KEYWORDS.matcher(message).find();
     }
 
-    private String buildGuardedPrompt(String baseSystemPrompt, AssessmentDTO.ConsultRequest request, int currentTurn, boolean userWantsToStop) {
+    /**
+     * [상담 프롬프트] 매 턴 바뀌지 않는 부분을 앞에 두어 OpenAI 프롬프트 캐시(동일 앞부분 재사용)가 적용되게 합니다.
+     * 순서: [페르소나 + 프로필 + 형식] -> [지난 대화] -> [이번 턴 지시(턴 수/종료 조건)] -> [이번 학생 메시지]
+     */
+    private Prompt buildGuardedPrompt(String baseSystemPrompt, ConsultSessionService.Session session, String lastUserMessage,
+                                      int currentTurn, boolean userWantsToStop) {
+        AssessmentDTO.StudyStartRequest studyInfo = session.studyInfo();
         StringBuilder sb = new StringBuilder();
 
         sb.append(baseSystemPrompt).append("\n\n");
         sb.append("You are a strict and highly detailed academic counselor. Your goal is to gather as much detail as possible about the student's current status, weaknesses, and habits.\n\n");
 
         sb.append("[Student Profile]\n");
-        sb.append("Goal: ").append(request.studyInfo().goal()).append("\n");
-        sb.append("Available Time: ").append(request.studyInfo().availableTime()).append("\n");
-        sb.append("Deadline: ").append(request.studyInfo().deadline()).append("\n\n");
+        sb.append("Goal: ").append(studyInfo.goal()).append("\n");
+        sb.append("Available Time: ").append(studyInfo.availableTime()).append("\n");
+        sb.append("Deadline: ").append(studyInfo.deadline()).append("\n\n");
 
-        sb.append("[SYSTEM RULES - EXECUTE STRICTLY]\n");
-        sb.append("Current Turn: ").append(currentTurn).append(" / Target Min Turn: ").append(MIN_CONSULT_TURNS).append("\n");
+        sb.append("FORMAT: Return ONLY JSON. Example: { \"message\": \"Your question here\", \"isFinished\": boolean }\n");
+        SystemMessage stablePrefix = new SystemMessage(sb.toString());
+
+        StringBuilder rules = new StringBuilder();
+        rules.append("[SYSTEM RULES - EXECUTE STRICTLY]\n");
+        rules.append("Current Turn: ").append(currentTurn).append(" / Target Min Turn: ").append(MIN_CONSULT_TURNS).append("\n");
 
         if (userWantsToStop) {
-            sb.append("CONDITION: The student explicitly wants to stop or see the result.\n");
-            sb.append("ACTION: Stop asking questions immediately. Provide a brief closing remark confirming you have analyzed their data.\n");
-            sb.append("OUTPUT: Set 'isFinished': true.\n");
+            rules.append("CONDITION: The student explicitly wants to stop or see the result.\n");
+            rules.append("ACTION: Stop asking questions immediately. Provide a brief closing remark confirming you have analyzed their data.\n");
+            rules.append("OUTPUT: Set 'isFinished': true.\n");
         } else if (currentTurn < MIN_CONSULT_TURNS) {
-            sb.append("CONDITION: Conversation is in the early/middle stage (Under 10 turns).\n");
-            sb.append("ACTION: You MUST NOT finish. Ask a deep, probing follow-up question. Dig into specific subjects, recent exam scores, or study distractions.\n");
-            sb.append("EXAMPLE: 'mathematics score is low? which part? calculus or geometry?'\n");
-            sb.append("OUTPUT: Set 'isFinished': false.\n");
+            rules.append("CONDITION: Conversation is in the early/middle stage (Under 10 turns).\n");
+            rules.append("ACTION: You MUST NOT finish. Ask a deep, probing follow-up question. Dig into specific subjects, recent exam scores, or study distractions.\n");
+            rules.append("EXAMPLE: 'mathematics score is low? which part? calculus or geometry?'\n");
+            rules.append("OUTPUT: Set 'isFinished': false.\n");
         } else {
-            sb.append("CONDITION: Sufficient data collected (Over 10 turns).\n");
-            sb.append("ACTION: You may finish now. Summarize briefly and encourage the student.\n");
-            sb.append("OUTPUT: Set 'isFinished': true.\n");
+            rules.append("CONDITION: Sufficient data collected (Over 10 turns).\n");
+            rules.append("ACTION: You may finish now. Summarize briefly and encourage the student.\n");
+            rules.append("OUTPUT: Set 'isFinished': true.\n");
         }
-
-        sb.append("6. FORMAT: Return ONLY JSON. Example: { \"message\": \"Your question here\", \"isFinished\": boolean }\n\n");
-
-        sb.append("[Conversation History]\n");
-        if (request.history() != null) {
-            for (AssessmentDTO.Message msg : request.history()) {
-                sb.append(msg.role()).append(": ").append(msg.content()).append("\n");
-            }
+        if (!StringUtils.hasText(lastUserMessage) && currentTurn == 0) {
+            rules.append("Start the consultation with a sharp, insightful question based on their goal.\n");
         }
-
-        if (request.lastUserMessage() != null && !request.lastUserMessage().isEmpty()) {
-            sb.append("user: ").append(request.lastUserMessage()).append("\n");
-        } else if (currentTurn == 0) {
-            sb.append("system: Start the consultation with a sharp, insightful question based on their goal.\n");
+        SystemMessage turnRules = new SystemMessage(rules.toString());
+        UserMessage current = StringUtils.hasText(lastUserMessage) ? new UserMessage(lastUserMessage) : null;
+
+        // [토큰 예산] 턴 수는 전체 기록 기준으로 세고, 프롬프트에는 예산 안에 들어오는 최근 대화만 싣습니다.
+        int reserved = promptBudget.count(List.of(stablePrefix, turnRules)) + (current == null ? 0 : promptBudget.count(List.of(current)));
+        List<Message> messages = new ArrayList<>();
+        messages.add(stablePrefix);
+        for (AssessmentDTO.Message m : promptBudget.fitHistory(AiFeature.TUTORING, reserved, session.turns(), m -> m.role() + ": " + m.content())) {
+            messages.add(ROLE_USER.equalsIgnoreCase(m.role()) ? new UserMessage(m.content()) : new AssistantMessage(m.content()));
         }
+        messages.add(turnRules);
+        if (current != null) messages.add(current);
+        return new Prompt(messages);
+    }
 
-        return sb.toString();
+    /**
+     * [로드맵 요청 보완] 세션 ID만 보낸 경우 서버에 보관된 상담 내역(과 학습 정보)으로 채웁니다.
+     * 작업 요청(JSON)에 전체 대화가 들어가므로 세션이 만료된 뒤 재시도해도 같은 내용으로 생성됩니다.
+     */
+    public AssessmentDTO.AssessmentSubmitRequest withConsultHistory(Long userId, AssessmentDTO.AssessmentSubmitRequest request) {
+        if (!StringUtils.hasText(request.sessionId())) return request;
+        ConsultSessionService.Session session = consultSessionService.load(request.sessionId(), userId);
+        return AssessmentDTO.AssessmentSubmitRequest.builder()
+                .studyInfo(request.studyInfo() != null ? request.studyInfo() : session.studyInfo())
+                .history(session.turns())
+                .build();
+    }
+
+    // 로드맵 작업 접수 전에 멤버십 제한을 먼저 확인 (제한 초과는 작업을 만들지 않고 즉시 응답)
+    public void checkPlanLimit(Long userId) {
+        UserEntity user = userMapper.findById(userId);
+        if (user == null) throw new TutorooException(ErrorCode.USER_NOT_FOUND);
+        checkPlanLimit(user);
     }
 
     private void checkPlanLimit(UserEntity user) {
@@ -278,7 +377,14 @@ public class AssessmentService {
     }
 
     // [수정] AnalysisResult 파라미터 추가 및 필드 매핑 완벽 지원
-    private void savePlanToDB(Long userId, AssessmentDTO.StudyStartRequest info, String json, AnalysisResult analysis) {
+    // [성능] 짧은 트랜잭션으로 저장 (AI 생성 중 다른 요청이 플랜을 만들었을 수 있으므로 한도 재검증)
+    private Long savePlanToDB(Long userId, AssessmentDTO.StudyStartRequest info, String json, AnalysisResult analysis) {
+        return savePlanToDB(userId, info, json, analysis, planId -> true);
+    }
+
+    // commitGuard가 false면 저장을 되돌리고 null 반환
+    private Long savePlanToDB(Long userId, AssessmentDTO.StudyStartRequest info, String json, AnalysisResult analysis,
+                              LongPredicate commitGuard) {
         // deadline 문자열 파싱 (예: "3개월", "100일") -> LocalDate
         LocalDate endDate = calculateEndDate(info.deadline());
 
@@ -295,7 +401,14 @@ public class AssessmentService {
                 .endDate(endDate)                  // [New] 계산된 종료일 저장
                 .isPaid(false)
                 .build();
-        studyMapper.savePlan(plan);
+
+        return transactionTemplate.execute(status -> {
+            checkPlanLimit(userMapper.findById(userId));
+            studyMapper.savePlan(plan);
+            if (commitGuard.test(plan.getId())) return plan.getId();
+            status.setRollbackOnly();
+            return null;
+        });
     }
 
     // [New] 종료일 계산 헬퍼
@@ -318,8 +431,8 @@ public class AssessmentService {
         return LocalDate.now().plusDays(30);
     }
 
-    private String analyzeStudentLevel(UserEntity user, AssessmentDTO.StudyStartRequest info, List<AssessmentDTO.Message> history) {
-        String prompt = String.format("""
+    private AnalysisResult analyzeStudentLevel(UserEntity user, AssessmentDTO.StudyStartRequest info, List<AssessmentDTO.Message> history) {
+        String template = """
                 [학생 프로필] %s (%d세)
                 [목표] %s (기한: %s)
                 [상담 내역]
@@ -332,20 +445,48 @@ public class AssessmentService {
                   "targetLevel": "INTERMEDIATE / ADVANCED / MASTER 중 택1",
                   "analysisReport": "상세 분석 내용 (5문장 내외)"
                 }
-                """, user.getName(), user.getAge(), info.goal(), info.deadline(), serializeHistory(history));
+                """;
+
+        int reserved = promptBudget.count(String.format(template, user.getName(), user.getAge(), info.goal(), info.deadline(), ""));
+        String prompt = String.format(template, user.getName(), user.getAge(), info.goal(), info.deadline(),
+                serializeHistory(AiFeature.ROADMAP, reserved, history));
 
-        return cleanJson(chatModel.call(prompt));
+        return structuredOutput.call(AiFeature.ROADMAP, prompt, AnalysisResult.class);
     }
 
+    /**
+     * [로드맵 2단계 생성] 1) 목차(주차별 제목) -> 2) 주차별 일일 상세(병렬) -> 병합
+     * 한 번에 전체를 생성하면 장기 목표일수록 응답이 길어져 느리고 잘리기 쉬우므로 주차 단위로 나눕니다.
+     * 형식이 깨졌거나 비어 있는 주차만 따로 재시도하며, 끝내 실패한 주차는 목차 내용으로 채워 로드맵 전체를 버리지 않습니다.
+     * AI 혼잡/시간 초과는 재시도해도 같은 결과이므로 로드맵 생성 전체를 실패시킵니다.
+     */
     private String generateFullRoadmap(UserEntity user, AssessmentDTO.StudyStartRequest info, AnalysisResult analysis) {
+        RoadmapOutline outline = generateRoadmapOutline(user, info, analysis);
+        List<AssessmentDTO.Chapter> chapters = outline.tableOfContents();
+
+        AssessmentDTO.RoadmapData merged = AssessmentDTO.RoadmapData.builder()
+                .summary(outline.summary())
+                .tableOfContents(chapters)
+                .detailedCurriculum(generateWeeklyDetails(info, analysis, chapters))
+                .examSchedule(outline.examSchedule())
+                .build();
+
+        try {
+            return objectMapper.writeValueAsString(merged);
+        } catch (JsonProcessingException e) {
+            throw new TutorooException(ErrorCode.AI_PROCESSING_ERROR);
+        }
+    }
+
+    // 1단계: 목차 (짧은 응답이므로 빠르게 생성)
+    private RoadmapOutline generateRoadmapOutline(UserEntity user, AssessmentDTO.StudyStartRequest info, AnalysisResult analysis) {
+        int totalWeeks = calculateTotalWeeks(info.deadline());
         String prompt = String.format("""
                 [학생 정보] 이름: %s (%d세), 목표: %s, 기한: %s, 시간: %s
                 [분석 결과] 수준: %s -> %s, 코멘트: %s
                 
-                위 정보를 종합하여 JSON을 작성해.
-                
-                1. **tableOfContents (빙산의 일각)**: 전체 과정을 주차별(또는 챕터별)로 요약한 목차. (title, description)
-                2. **detailedCurriculum (진짜 빙산)**: 실제 일별 상세 학습 스케줄. Key는 '1주차' 등 목차와 일치해야 함.
+                위 정보를 종합하여 총 %d주 과정의 학습 로드맵 목차를 JSON으로 작성해.
+                tableOfContents는 1주차부터 %d주차까지 주차마다 하나씩 (week, title, description).
                 
                 응답 형식 (JSON):
                 {
@@ -353,51 +494,141 @@ public class AssessmentService {
                   "tableOfContents": [
                     {"week": "1주차", "title": "입문", "description": "기초 다지기"}
                   ],
-                  "detailedCurriculum": {
-                    "1주차": [
-                      {"day": "1일차", "topic": "변수", "method": "강의", "material": "1장"},
-                      {"day": "2일차", "topic": "연산자", "method": "실습", "material": "2장"}
-                    ]
-                  },
                   "examSchedule": ["2주차 테스트"]
                 }
                 """,
                 user.getName(), user.getAge(), info.goal(), info.deadline(), info.availableTime(),
-                analysis.currentLevel, analysis.targetLevel, analysis.analysisReport
+                analysis.currentLevel, analysis.targetLevel, analysis.analysisReport,
+                totalWeeks, totalWeeks
         );
 
-        return cleanJson(chatModel.call(prompt));
+        for (int attempt = 1; attempt <= ROADMAP_MAX_ATTEMPTS; attempt++) {
+            try {
+                RoadmapOutline outline = structuredOutput.call(AiFeature.ROADMAP, prompt, RoadmapOutline.class);
+                if (outline.tableOfContents() != null && !outline.tableOfContents().isEmpty()) return outline;
+                log.warn("로드맵 목차가 비어 있음 ({}/{}회)", attempt, ROADMAP_MAX_ATTEMPTS);
+            } catch (UncheckedIOException e) {
+                log.warn("로드맵 목차 파싱 실패 ({}/{}회): {}", attempt, ROADMAP_MAX_ATTEMPTS, e.getMessage());
+            }
+        }
+        throw new TutorooException("로드맵 생성 형식이 올바르지 않습니다.", ErrorCode.AI_PROCESSING_ERROR);
     }
 
-    private String serializeHistory(List<AssessmentDTO.Message> history) {
+    // 2단계: 주차별 상세 (가상 스레드 병렬, 로드맵 하나당 동시 ROADMAP_WEEK_PARALLELISM개)
+    private Map<String, List<AssessmentDTO.DailyDetail>> generateWeeklyDetails(AssessmentDTO.StudyStartRequest info,
+                                                                             AnalysisResult analysis,
+                                                                             List<AssessmentDTO.Chapter> chapters) {
+        StringBuilder outlineText = new StringBuilder();
+        chapters.forEach(ch -> outlineText.append(ch.week()).append(": ").append(ch.title()).append("\n"));
+
+        Semaphore slots = new Semaphore(ROADMAP_WEEK_PARALLELISM);
+        List<CompletableFuture<List<AssessmentDTO.DailyDetail>>> futures = new ArrayList<>();
+        for (int i = 0; i < chapters.size(); i++) {
+            AssessmentDTO.Chapter chapter = chapters.get(i);
+            int firstDay = i * DAYS_PER_WEEK + 1;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                slots.acquireUninterruptibly();
+                try {
+                    return generateWeekDetail(info, analysis, outlineText.toString(), chapter, firstDay);
+                } finally {
+                    slots.release();
+                }
+            }, taskExecutor));
+        }
+
+        // 목차 순서대로 병합 (한 주차라도 AI 오류로 실패하면 나머지는 취소하고 원래 예외를 전달)
+        // day는 전체 기간 기준 누적 일차로 다시 매김 (TutorService가 "N일차"를 학습 일수와 맞춰 오늘 주제를 찾음)
+        Map<String, List<AssessmentDTO.DailyDetail>> curriculum = new LinkedHashMap<>();
+        int dayNumber = 1;
+        try {
+            for (int i = 0; i < chapters.size(); i++) {
+                List<AssessmentDTO.DailyDetail> days = new ArrayList<>();
+                for (AssessmentDTO.DailyDetail day : futures.get(i).join()) {
+                    days.add(new AssessmentDTO.DailyDetail(dayNumber++ + "일차", day.topic(), day.method(), day.material()));
+                }
+                curriculum.put(chapters.get(i).week(), days);
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new TutorooException(ErrorCode.AI_PROCESSING_ERROR);
+        }
+        return curriculum;
+    }
+
+    private List<AssessmentDTO.DailyDetail> generateWeekDetail(AssessmentDTO.StudyStartRequest info, AnalysisResult analysis,
+                                                             String outlineText, AssessmentDTO.Chapter chapter, int firstDay) {
+        int lastDay = firstDay + DAYS_PER_WEEK - 1;
+        String prompt = String.format("""
+                [학습 목표] %s (하루 학습 시간: %s)
+                [수준] %s -> %s
+                [전체 목차]
+                %s
+                
+                위 로드맵 중 '%s - %s' (%s)의 일별 상세 학습 스케줄을 작성해.
+                앞뒤 주차와 내용이 겹치지 않게 하고, 전체 기간 기준 %d일차부터 %d일차까지 하루에 1개씩 작성해.
+                
+                응답 형식 (JSON):
+                {
+                  "days": [
+                    {"day": "%d일차", "topic": "변수", "method": "강의", "material": "1장"},
+                    {"day": "%d일차", "topic": "연산자", "method": "실습", "material": "2장"}
+                  ]
+                }
+                """,
+                info.goal(), info.availableTime(), analysis.currentLevel, analysis.targetLevel,
+                outlineText, chapter.week(), chapter.title(), chapter.description(),
+                firstDay, lastDay, firstDay, firstDay + 1
+        );
+
+        for (int attempt = 1; attempt <= ROADMAP_MAX_ATTEMPTS; attempt++) {
+            try {
+                List<AssessmentDTO.DailyDetail> days = structuredOutput.call(AiFeature.ROADMAP, prompt, WeekSchedule.class).days();
+                if (days != null && !days.isEmpty()) return days;
+                log.warn("로드맵 {} 상세가 비어 있음 ({}/{}회)", chapter.week(), attempt, ROADMAP_MAX_ATTEMPTS);
+            } catch (UncheckedIOException e) {
+                log.warn("로드맵 {} 상세 파싱 실패 ({}/{}회): {}", chapter.week(), attempt, ROADMAP_MAX_ATTEMPTS, e.getMessage());
+            }
+        }
+
+        // 재시도까지 형식이 깨진 주차는 목차 정보로 7일을 채움 (일차가 비면 이후 주차 진도가 밀림)
+        log.error("로드맵 {} 상세 생성 최종 실패 -> 목차 기반 기본 일정 적용", chapter.week());
+        List<AssessmentDTO.DailyDetail> fallback = new ArrayList<>();
+        for (int day = firstDay; day <= lastDay; day++) {
+            fallback.add(new AssessmentDTO.DailyDetail(day + "일차", chapter.title(), "자율 학습", chapter.description()));
+        }
+        return fallback;
+    }
+
+    // 기한 -> 총 주차 수 (1 ~ 52주)
+    private int calculateTotalWeeks(String deadline) {
+        long days = ChronoUnit.DAYS.between(LocalDate.now(), calculateEndDate(deadline));
+        return (int) Math.max(1, Math.min(MAX_ROADMAP_WEEKS, (days + 6) / 7));
+    }
+
+    // 예산을 넘는 오래된 대화는 제외하고 직렬화
+    private String serializeHistory(AiFeature feature, int reservedTokens, List<AssessmentDTO.Message> history) {
         if (history == null) return "";
+        List<AssessmentDTO.Message> kept = promptBudget.fitHistory(feature, reservedTokens, history, m -> m.role() + ": " + m.content());
         StringBuilder sb = new StringBuilder();
-        history.forEach(m -> sb.append(m.role()).append(": ").append(m.content()).append("\n"));
+        kept.forEach(m -> sb.append(m.role()).append(": ").append(m.content()).append("\n"));
         return sb.toString();
     }
 
     private String generateTtsAudio(String text) {
         try {
-            SpeechResponse response = speechModel.call(new SpeechPrompt(text));
+            SpeechResponse response = aiGateway.execute(AiFeature.TUTORING, AiMetrics.Kind.SPEECH, "tts-1", text.length(),
+                    () -> speechModel.call(new SpeechPrompt(text)));
             return fileStore.storeFile(response.getResult().getOutput(), ".mp3");
         } catch (Exception e) { return null; }
     }
 
-    private String cleanJson(String text) {
-        if (text == null) return "{}";
-        String cleaned = text.trim();
-        if (cleaned.startsWith("```json")) {
-            cleaned = cleaned.substring(7);
-        }
-        if (cleaned.startsWith("```")) {
-            cleaned = cleaned.substring(3);
-        }
-        if (cleaned.endsWith("```")) {
-            cleaned = cleaned.substring(0, cleaned.length() - 3);
-        }
-        return cleaned.trim();
-    }
-
     // [New] AnalysisResult 레코드 (targetLevel 추가)
     private record AnalysisResult(String currentLevel, String targetLevel, String analysisReport) {}
+
+    // 구조화 출력(JSON Schema) 응답 형식
+    private record ConsultReply(String message, Boolean isFinished) {}
+    private record RoadmapOutline(String summary, List<AssessmentDTO.Chapter> tableOfContents, List<String> examSchedule) {}
+    private record WeekSchedule(List<AssessmentDTO.DailyDetail> days) {}
+    private record LevelTestQuestions(List<AssessmentDTO.LevelTestResponse.TestQuestion> questions) {}
 }
\ No newline at end of file
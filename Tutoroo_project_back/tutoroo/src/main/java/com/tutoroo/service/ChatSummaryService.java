@@ -0,0 +1,119 @@
+package com.tutoroo.service;
+
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiGateway;
+import com.tutoroo.mapper.ChatMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * [기능: 튜터 채팅 대화 압축 (Rolling Summary)]
+ * 설명: 대화가 길어질수록 프롬프트가 커지는 문제를 막기 위해, 오래된 대화는 플랜별 요약본으로 접습니다.
+ * 작동원리:
+ * 1. 프롬프트에는 [요약본 + 요약 이후 최근 대화(최대 trigger개)]만 싣습니다.
+ * 2. 요약 이후 대화가 trigger개를 넘으면, 최근 keep-recent개를 남기고 나머지를 기존 요약에 합쳐 갱신합니다. (백그라운드)
+ * 효과: 세션이 길어져도 턴당 프롬프트 크기가 거의 일정하게 유지됩니다.
+ */
+@Slf4j
+@Service
+public class ChatSummaryService {
+
+    private static final String LOCK_PREFIX = "chat:compact:lock:";
+
+    private final ChatMapper chatMapper;
+    private final AiGateway aiGateway;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final int trigger;
+    private final int keepRecent;
+
+    public ChatSummaryService(ChatMapper chatMapper,
+                              AiGateway aiGateway,
+                              RedisTemplate<String, String> redisTemplate,
+                              @Value("${app.ai.chat-compaction.trigger:20}") int trigger,
+                              @Value("${app.ai.chat-compaction.keep-recent:8}") int keepRecent) {
+        this.chatMapper = chatMapper;
+        this.aiGateway = aiGateway;
+        this.redisTemplate = redisTemplate;
+        this.trigger = trigger;
+        this.keepRecent = Math.min(keepRecent, trigger);
+    }
+
+    /**
+     * 프롬프트용 대화 맥락 (요약본 + 요약 이후 최근 대화)
+     */
+    public ChatContext loadContext(Long planId) {
+        ChatMapper.ChatSummary summary = chatMapper.findSummary(planId);
+        long cursor = (summary != null) ? summary.lastMessageId() : 0L;
+
+        List<ChatMapper.ChatMessage> recent = chatMapper.findRecentMessagesAfter(planId, cursor, trigger);
+        return new ChatContext(summary != null ? summary.summary() : null, recent);
+    }
+
+    /**
+     * [백그라운드] 요약 이후 대화가 기준을 넘었으면 오래된 대화를 요약본에 합칩니다.
+     * 같은 플랜의 압축이 겹치지 않도록 Redis 락을 사용합니다.
+     */
+    @Async
+    public void compactIfNeeded(Long planId) {
+        String lockKey = LOCK_PREFIX + planId;
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, "1", Duration.ofMinutes(2)))) return;
+
+        try {
+            ChatMapper.ChatSummary summary = chatMapper.findSummary(planId);
+            long cursor = (summary != null) ? summary.lastMessageId() : 0L;
+
+            int pending = chatMapper.countMessagesAfter(planId, cursor);
+            if (pending <= trigger) return;
+
+            List<ChatMapper.ChatTurn> toFold = chatMapper.findOldestMessagesAfter(planId, cursor, pending - keepRecent);
+            if (toFold.isEmpty()) return;
+
+            String updated = summarize(summary != null ? summary.summary() : null, toFold);
+            long lastId = toFold.get(toFold.size() - 1).id();
+            chatMapper.upsertSummary(planId, updated, lastId);
+
+            log.info("🗜️ 채팅 요약 갱신 (planId: {}, 접은 대화: {}개, 커서: {})", planId, toFold.size(), lastId);
+        } catch (Exception e) {
+            // 요약 실패 시에도 대화는 최근 trigger개로 계속 진행되므로 다음 턴에 재시도
+            log.warn("채팅 요약 실패 (planId: {}): {}", planId, e.getMessage());
+        } finally {
+            redisTemplate.delete(lockKey);
+        }
+    }
+
+    private String summarize(String previousSummary, List<ChatMapper.ChatTurn> turns) {
+        StringBuilder dialog = new StringBuilder();
+        for (ChatMapper.ChatTurn turn : turns) {
+            dialog.append("USER".equals(turn.sender()) ? "학생: " : "선생님: ").append(turn.message()).append("\n");
+        }
+
+        String prompt = String.format("""
+                너는 1:1 수업 대화 기록을 관리하는 조교야.
+                [기존 요약]
+                %s
+
+                [새로 추가된 대화]
+                %s
+
+                [지시사항]
+                기존 요약에 새 대화를 합쳐 하나의 요약으로 갱신해.
+                1. 학생이 한 질문, 자주 한 실수, 현재 이해 수준을 반드시 남겨.
+                2. 선생님이 설명한 핵심 개념, 예시, 다음에 하기로 한 약속(숙제/복습)을 남겨.
+                3. 인사/잡담은 버려.
+                4. 15문장 이내, 한국어, 요약문만 출력.
+                """,
+                previousSummary != null ? previousSummary : "(없음)",
+                dialog
+        );
+
+        return aiGateway.call(AiFeature.SUMMARY, prompt).trim();
+    }
+
+    public record ChatContext(String summary, List<ChatMapper.ChatMessage> recentMessages) {}
+}
@@ -0,0 +1,120 @@
+package com.tutoroo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.dto.AssessmentDTO;
+import com.tutoroo.exception.ErrorCode;
+import com.tutoroo.exception.TutorooException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * [기능: 수준 파악 상담 세션 (서버 보관)]
+ * 설명: 상담 대화를 Redis에 세션 단위로 보관하여, 클라이언트는 매 턴 새 메시지만 보내면 됩니다.
+ * 작동원리:
+ * 1. 첫 요청에서 세션 ID를 발급하고 학습 정보(프로필)를 저장합니다.
+ * 2. 대화는 리스트 끝에 추가만 합니다. (앞부분이 바뀌지 않아 프롬프트 앞부분이 턴마다 동일 -> OpenAI 프롬프트 캐시 적용)
+ * 3. 마지막 사용 후 ttl이 지나면 자동 삭제됩니다. 로드맵 제출 시 세션 ID로 전체 대화를 꺼내 씁니다.
+ * 저장 구조: consult:session:{id}:profile (학습 정보 + 소유자) / consult:session:{id}:turns (List, 메시지 JSON)
+ */
+@Slf4j
+@Service
+public class ConsultSessionService {
+
+    private static final String KEY_PREFIX = "consult:session:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public ConsultSessionService(RedisTemplate<String, String> redisTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.assessment.consult-session-ttl:2h}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    /**
+     * [세션 시작] 이전 방식(history 전송) 클라이언트가 보낸 대화가 있으면 그대로 이어받습니다.
+     */
+    public Session start(Long userId, AssessmentDTO.StudyStartRequest studyInfo, List<AssessmentDTO.Message> history) {
+        if (studyInfo == null) throw new TutorooException(ErrorCode.INVALID_INPUT_VALUE);
+        String id = UUID.randomUUID().toString();
+        redisTemplate.opsForValue().set(profileKey(id), toJson(new Profile(userId, studyInfo)), ttl);
+
+        List<AssessmentDTO.Message> turns = (history == null) ? List.of() : List.copyOf(history);
+        append(id, turns);
+        return new Session(id, studyInfo, turns);
+    }
+
+    /**
+     * [세션 조회] 없거나(만료) 다른 사용자의 세션이면 CONSULT_SESSION_NOT_FOUND
+     */
+    public Session load(String id, Long userId) {
+        String profileJson = redisTemplate.opsForValue().get(profileKey(id));
+        if (profileJson == null) throw new TutorooException(ErrorCode.CONSULT_SESSION_NOT_FOUND);
+        Profile profile = fromJson(profileJson, Profile.class);
+        if (profile.userId() != null && !Objects.equals(profile.userId(), userId)) {
+            throw new TutorooException(ErrorCode.CONSULT_SESSION_NOT_FOUND);
+        }
+
+        List<String> raw = redisTemplate.opsForList().range(turnsKey(id), 0, -1);
+        List<AssessmentDTO.Message> turns = new ArrayList<>();
+        if (raw != null) raw.forEach(json -> turns.add(fromJson(json, AssessmentDTO.Message.class)));
+        return new Session(id, profile.studyInfo(), turns);
+    }
+
+    /**
+     * [대화 추가] 끝에만 붙이고, 사용할 때마다 만료 시간을 연장합니다.
+     */
+    public void append(String id, List<AssessmentDTO.Message> messages) {
+        if (!messages.isEmpty()) {
+            redisTemplate.opsForList().rightPushAll(turnsKey(id), messages.stream().map(this::toJson).toList());
+        }
+        redisTemplate.expire(profileKey(id), ttl);
+        redisTemplate.expire(turnsKey(id), ttl);
+    }
+
+    private static String profileKey(String id) {
+        return KEY_PREFIX + id + ":profile";
+    }
+
+    private static String turnsKey(String id) {
+        return KEY_PREFIX + id + ":turns";
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new TutorooException(ErrorCode.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.error("상담 세션 데이터 손상: {}", e.getMessage());
+            throw new TutorooException(ErrorCode.CONSULT_SESSION_NOT_FOUND);
+        }
+    }
+
+    /**
+     * @param id        세션 ID
+     * @param studyInfo 상담 시작 시 학습 정보
+     * @param turns     지금까지의 대화 (오래된 순)
+     */
+    public record Session(String id, AssessmentDTO.StudyStartRequest studyInfo, List<AssessmentDTO.Message> turns) {}
+
+    private record Profile(Long userId, AssessmentDTO.StudyStartRequest studyInfo) {}
+}
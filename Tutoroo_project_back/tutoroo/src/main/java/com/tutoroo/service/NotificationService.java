@@ -82,6 +82,14 @@ public class NotificationService {
         send(userId, "알림", message, "INFO", null);
     }
 
+    /**
+     * 2-1. 실시간 이벤트 전송 (DB 저장 없음)
+     * 설명: 작업 진행 상태처럼 보관함에 남길 필요 없는 데이터를 접속 중인 유저에게만 보냅니다.
+     */
+    public void sendEvent(Long userId, String eventName, Object data) {
+        sendToClient(userId, eventName, data);
+    }
+
     /**
      * 3. 알림 목록 조회 (보관함)
      */
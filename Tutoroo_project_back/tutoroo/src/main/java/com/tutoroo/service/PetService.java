@@ -1,5 +1,9 @@
 package com.tutoroo.service;
 
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiGateway;
+import com.tutoroo.ai.AiMetrics;
+import com.tutoroo.ai.AiTask;
 import com.tutoroo.dto.PetDTO;
 import com.tutoroo.entity.*;
 import com.tutoroo.exception.ErrorCode;
@@ -10,7 +14,6 @@ import com.tutoroo.mapper.UserMapper;
 import com.tutoroo.util.FileStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.image.ImageModel;
 import org.springframework.ai.image.ImagePrompt;
 import org.springframework.ai.image.ImageResponse;
@@ -18,6 +21,7 @@ import org.springframework.ai.openai.OpenAiImageOptions;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.InputStream;
 import java.net.URL;
@@ -34,9 +38,10 @@ public class PetService {
     private final PetMapper petMapper;
     private final UserMapper userMapper;
     private final StudyMapper studyMapper;
-    private final ChatClient.Builder chatClientBuilder;
     private final ImageModel imageModel;
+    private final AiGateway aiGateway;
     private final FileStore fileStore;
+    private final TransactionTemplate transactionTemplate;
 
     // 상수 설정
     private static final int FULLNESS_DECAY_PER_HOUR = 5;
@@ -228,7 +233,7 @@ public class PetService {
     }
 
     // --- [6] 커스텀 펫 생성 (Step 20) ---
-    @Transactional
+    // [성능] DALL-E 호출/다운로드는 트랜잭션 밖에서, 펫 저장만 짧은 트랜잭션으로 처리
     public void createCustomPet(Long userId, PetDTO.CustomPetCreateRequest request) {
         if (petMapper.findByUserId(userId) != null) throw new TutorooException(ErrorCode.ALREADY_HAS_PET);
 
@@ -240,8 +245,8 @@ public class PetService {
 
         String finalImageUrl = "/images/pets/default_custom.png";
         try {
-            ImageResponse response = imageModel.call(new ImagePrompt(imagePrompt,
-                    OpenAiImageOptions.builder().withModel("dall-e-3").withHeight(1024).withWidth(1024).build()));
+            ImageResponse response = aiGateway.execute(AiFeature.DIARY, AiMetrics.Kind.IMAGE, "dall-e-3", 1, () -> imageModel.call(new ImagePrompt(imagePrompt,
+                    OpenAiImageOptions.builder().withModel("dall-e-3").withHeight(1024).withWidth(1024).build())));
 
             String originalUrl = response.getResult().getOutput().getUrl();
             try (InputStream in = new URL(originalUrl).openStream()) {
@@ -251,12 +256,16 @@ public class PetService {
             log.error("이미지 생성 실패", e);
         }
 
-        // Entity 생성 호출
-        createPetEntity(userId, PetType.CUSTOM, request.petName(), request.customDescription(), finalImageUrl);
+        // Entity 생성 호출 (이미지 생성 중 다른 요청으로 펫이 생겼을 수 있으므로 재검증)
+        String imageUrl = finalImageUrl;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (petMapper.findByUserId(userId) != null) throw new TutorooException(ErrorCode.ALREADY_HAS_PET);
+            createPetEntity(userId, PetType.CUSTOM, request.petName(), request.customDescription(), imageUrl);
+        });
     }
 
     // --- [7] 미드나잇 다이어리 ---
-    @Transactional
+    // (AI 호출 포함 -> 트랜잭션 없이 실행, 일기 저장은 단건 Auto-commit)
     public void writeMidnightDiary(Long userId) {
         PetInfoEntity pet = petMapper.findByUserId(userId);
         if (pet == null) return;
@@ -295,7 +304,7 @@ public class PetService {
             );
 
             // 4. AI 호출 및 저장 (기존 코드와 동일)
-            String content = chatClientBuilder.build().prompt().user(prompt).call().content();
+            String content = aiGateway.call(AiTask.PET_DIARY, prompt);
 
             PetDiaryEntity diary = PetDiaryEntity.builder()
                     .petId(pet.getPetId())
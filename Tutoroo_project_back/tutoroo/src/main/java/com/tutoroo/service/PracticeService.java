@@ -2,30 +2,30 @@ package com.tutoroo.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiSingleFlight;
+import com.tutoroo.ai.AiStructuredOutput;
 import com.tutoroo.dto.PracticeDTO;
 import com.tutoroo.entity.*;
 import com.tutoroo.exception.ErrorCode;
 import com.tutoroo.exception.TutorooException;
 import com.tutoroo.mapper.PracticeMapper;
 import com.tutoroo.mapper.StudyMapper;
-import com.tutoroo.util.FileStore;
+import com.tutoroo.util.ObjectiveGrader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.image.ImageModel;
-import org.springframework.ai.image.ImagePrompt;
-import org.springframework.ai.image.ImageResponse;
-import org.springframework.ai.openai.OpenAiChatModel;
-import org.springframework.ai.openai.OpenAiImageOptions;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 @Slf4j
 @Service
@@ -34,104 +34,40 @@ public class PracticeService {
 
     private final PracticeMapper practiceMapper;
     private final StudyMapper studyMapper;
-    private final OpenAiChatModel chatModel;
-    private final ImageModel imageModel;
-    private final FileStore fileStore;
+    private final AiSingleFlight aiSingleFlight;
+    private final AiStructuredOutput structuredOutput;
+    private final QuestionBankService questionBankService;
     private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor taskExecutor;
+    private final ObjectiveGrader objectiveGrader;
+
+    // [채점] 제출 1건당 동시에 채점하는 문항 수
+    private static final int GRADING_PARALLELISM = 5;
 
     // =================================================================================
     // 1. 무한 실전 테스트 생성 (이미지 생성 & DB 저장 탑재)
     // =================================================================================
-    @Transactional
     public PracticeDTO.TestResponse generatePracticeTest(Long userId, PracticeDTO.GenerateRequest request) {
+        // [중복 방지] 같은 조건의 출제 요청이 겹치면 문제/이미지 생성은 한 번만 실행
+        return aiSingleFlight.execute("practice-generate", userId, request, PracticeDTO.TestResponse.class,
+                () -> createPracticeTest(userId, request));
+    }
+
+    private PracticeDTO.TestResponse createPracticeTest(Long userId, PracticeDTO.GenerateRequest request) {
         StudyPlanEntity plan = studyMapper.findById(request.planId());
         if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
 
-        // 1. 약점 분석 기반 토픽 선정
-        String topicInstruction = "전체 학습 범위에서 중요 개념 위주로 출제해.";
-        if (request.isWeaknessMode()) {
-            List<String> weakTopics = practiceMapper.findTopWeakTopics(userId, request.planId());
-            if (!weakTopics.isEmpty()) {
-                topicInstruction = "학생이 자주 틀리는 다음 주제를 집중 공략해: " + String.join(", ", weakTopics);
-            }
-        }
-
-        // 2. AI 프롬프트 (시각 자료 요청 포함)
-        String promptText = String.format("""
-                [Role] You are a professional exam creator for '%s'.
-                [Topic] %s
-                [Difficulty] %s (1=Easy, 5=Hard)
-                [Count] Create %d high-quality questions.
-                
-                [Requirements]
-                1. **Question Types**: Mix MULTIPLE_CHOICE, SHORT_ANSWER, and VISUAL_ANALYSIS.
-                2. **Visuals**: If a question needs an image (e.g., Geometry, Art, Biology), provide an 'imagePrompt' field.
-                   - Example: "A diagram of a mitochondria" or "A painting in Impressionist style".
-                3. **Language**: The content MUST be in Korean (한국어).
-                
-                [JSON Format Strict]
-                [
-                    {
-                        "topic": "Topic Name",
-                        "type": "MULTIPLE_CHOICE",
-                        "question": "Question text...",
-                        "options": ["Option A", "B", "C", "D"],
-                        "answer": "Correct Answer",
-                        "explanation": "Detailed explanation...",
-                        "imagePrompt": "Description for DALL-E (or null if not needed)"
-                    }
-                ]
-                """, plan.getGoal(), topicInstruction, request.difficulty(), request.questionCount());
-
-        // 3. 문제 생성 및 파싱 (재시도 로직 포함)
-        List<Map<String, Object>> rawQuestions = generateAndParseQuestionsWithRetry(promptText);
-
-        List<PracticeDTO.PracticeQuestion> responseList = new ArrayList<>();
-
-        for (Map<String, Object> raw : rawQuestions) {
-            String questionText = (String) raw.get("question");
-            String contentHash = hashString(questionText);
-
-            // [중복 방지]
-            if (practiceMapper.countByContentHash(contentHash) > 0) {
-                log.info("중복 문제 패스: {}", raw.get("topic"));
-                continue;
-            }
-
-            // [이미지 생성] DALL-E 호출
-            String imageUrl = null;
-            String imagePrompt = (String) raw.get("imagePrompt");
-            if (StringUtils.hasText(imagePrompt) && !imagePrompt.equalsIgnoreCase("null")) {
-                try {
-                    imageUrl = generateQuestionImage(imagePrompt);
-                } catch (Exception e) {
-                    log.warn("이미지 생성 실패 (텍스트로만 저장): {}", e.getMessage());
-                }
-            }
+        // 1. 약점 분석 기반 우선 토픽 선정
+        List<String> weakTopics = request.isWeaknessMode()
+                ? practiceMapper.findTopWeakTopics(userId, QuestionBankService.goalKey(plan.getGoal()))
+                : List.of();
 
-            // [DB 저장] Entity 빌드 (imageUrl 포함)
-            PracticeQuestionEntity entity = PracticeQuestionEntity.builder()
-                    .planId(plan.getId())
-                    .contentHash(contentHash)
-                    .questionJson(toJson(raw)) // 원본 데이터 보존
-                    .topic((String) raw.get("topic"))
-                    .questionType((String) raw.get("type"))
-                    .difficulty(parseDifficulty(request.difficulty()))
-                    .imageUrl(imageUrl) // [핵심] 생성된 이미지 URL을 DB에 영구 저장
-                    .build();
-
-            practiceMapper.saveQuestion(entity);
-
-            // [응답] DTO 변환
-            responseList.add(PracticeDTO.PracticeQuestion.builder()
-                    .questionId(entity.getId())
-                    .topic(entity.getTopic())
-                    .type(QuestionType.valueOf(entity.getQuestionType()))
-                    .questionText(questionText)
-                    .options((List<String>) raw.get("options"))
-                    .referenceMediaUrl(imageUrl) // 프론트엔드에 이미지 전달
-                    .build());
-        }
+        // 2. 문제은행에서 출제 (안 본 문제만, 부족하면 백그라운드 보충)
+        List<PracticeDTO.PracticeQuestion> responseList = questionBankService
+                .take(userId, plan, parseDifficulty(request.difficulty()), request.questionCount(), weakTopics)
+                .stream()
+                .map(this::toPracticeQuestion)
+                .toList();
 
         return PracticeDTO.TestResponse.builder()
                 .testSessionId(System.currentTimeMillis())
@@ -142,51 +78,88 @@ public class PracticeService {
     // =================================================================================
     // 2. 채점 및 정밀 해설
     // =================================================================================
-    @Transactional
     public PracticeDTO.GradingResponse submitPracticeTest(Long userId, PracticeDTO.SubmitRequest request) {
         List<PracticeDTO.GradingResponse.QuestionResult> results = new ArrayList<>();
         int correctCount = 0;
 
+        List<PracticeLogEntity> logs = new ArrayList<>();
+
+        // 1. 문항 일괄 조회 (문항마다 SELECT 하지 않음)
+        List<Long> questionIds = request.answers().stream()
+                .map(PracticeDTO.SubmitRequest.AnswerSubmission::questionId)
+                .toList();
+        Map<Long, PracticeQuestionEntity> questions = new HashMap<>();
+        if (!questionIds.isEmpty()) {
+            practiceMapper.findQuestionsByIds(questionIds).forEach(q -> questions.put(q.getId(), q));
+        }
+
+        // 2. 문항별 채점
+        //    - 객관식/O,X/숫자/단답형: 저장된 정답으로 즉시 로컬 채점
+        //    - 서술형/코드/시각 자료: AI 채점을 동시에 실행 (트랜잭션 밖, 요청당 최대 GRADING_PARALLELISM개)
+        Semaphore slots = new Semaphore(GRADING_PARALLELISM);
+        List<CompletableFuture<Map<String, Object>>> gradings = new ArrayList<>();
+        List<String> userAnswers = new ArrayList<>();
         for (PracticeDTO.SubmitRequest.AnswerSubmission ans : request.answers()) {
-            PracticeQuestionEntity question = practiceMapper.findQuestionById(ans.questionId());
-            if (question == null) continue;
-
-            String prompt = String.format("""
-                    [채점]
-                    문제: %s
-                    학생 답안: %s
-                    
-                    1. 정답 여부(true/false)
-                    2. 명쾌한 해설 (학생이 이해하기 쉽게)
-                    3. 핵심 태그 (약점 분석용 단어 1개)
-                    
-                    JSON: {"isCorrect": boolean, "explanation": "...", "tag": "..."}
-                    """, extractQuestionText(question.getQuestionJson()), ans.answerText());
-
-            Map<String, Object> aiResult = generateAndParseSingleResultWithRetry(prompt);
+            PracticeQuestionEntity question = questions.get(ans.questionId());
+            if (question == null) {
+                gradings.add(null);
+                userAnswers.add(null);
+                continue;
+            }
+
+            Map<String, Object> raw = parseSingleResult(question.getQuestionJson());
+            List<String> options = (List<String>) raw.get("options");
+            String userAnswer = resolveUserAnswer(options, ans);
+            userAnswers.add(userAnswer);
+
+            Optional<ObjectiveGrader.Result> local = objectiveGrader.grade(
+                    question.getQuestionType(), options, asText(raw.get("answer")), ans.answerText(), ans.selectedIndex());
+            if (local.isPresent()) {
+                gradings.add(CompletableFuture.completedFuture(toLocalResult(local.get(), raw, question)));
+                continue;
+            }
+
+            gradings.add(CompletableFuture.supplyAsync(() -> {
+                slots.acquireUninterruptibly();
+                try {
+                    return gradeAnswer(question, userAnswer);
+                } finally {
+                    slots.release();
+                }
+            }, taskExecutor));
+        }
+
+        // 3. 제출 순서대로 결과 수집
+        for (int i = 0; i < request.answers().size(); i++) {
+            if (gradings.get(i) == null) continue;
+            PracticeDTO.SubmitRequest.AnswerSubmission ans = request.answers().get(i);
+            PracticeQuestionEntity question = questions.get(ans.questionId());
+            String userAnswer = userAnswers.get(i);
+            Map<String, Object> aiResult = gradings.get(i).join();
 
             boolean isCorrect = (boolean) aiResult.getOrDefault("isCorrect", false);
             if (isCorrect) correctCount++;
 
-            // 로그 저장
-            PracticeLogEntity log = PracticeLogEntity.builder()
+            logs.add(PracticeLogEntity.builder()
                     .userId(userId)
                     .questionId(question.getId())
-                    .userAnswer(ans.answerText())
+                    .userAnswer(userAnswer)
                     .isCorrect(isCorrect)
                     .aiFeedback((String) aiResult.get("explanation"))
-                    .build();
-            practiceMapper.saveLog(log);
+                    .build());
 
             results.add(new PracticeDTO.GradingResponse.QuestionResult(
                     question.getId(),
                     isCorrect,
-                    ans.answerText(),
+                    userAnswer,
                     (String) aiResult.get("explanation"),
                     (String) aiResult.get("tag")
             ));
         }
 
+        // 4. [DB 구간] 로그 일괄 저장 (단일 multi-row INSERT)
+        if (!logs.isEmpty()) practiceMapper.saveLogs(logs);
+
         int totalScore = (request.answers().isEmpty()) ? 0 : (int)(((double)correctCount / request.answers().size()) * 100);
 
         return PracticeDTO.GradingResponse.builder()
@@ -201,7 +174,10 @@ public class PracticeService {
     // =================================================================================
     @Transactional(readOnly = true)
     public PracticeDTO.WeaknessAnalysisResponse getWeaknessAnalysis(Long userId, Long planId) {
-        List<String> weakTopics = practiceMapper.findTopWeakTopics(userId, planId);
+        StudyPlanEntity plan = studyMapper.findById(planId);
+        if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
+
+        List<String> weakTopics = practiceMapper.findTopWeakTopics(userId, QuestionBankService.goalKey(plan.getGoal()));
         List<PracticeDTO.WeaknessAnalysisResponse.WeakPoint> weakPoints = new ArrayList<>();
         List<PracticeDTO.PracticeQuestion> recommended = new ArrayList<>();
 
@@ -212,17 +188,7 @@ public class PracticeService {
             // 복습용 문제 추출 (과거 틀린 문제 재사용)
             List<PracticeQuestionEntity> wrongs = practiceMapper.findWrongQuestionsByTopic(userId, topic);
             for (PracticeQuestionEntity q : wrongs) {
-                Map<String, Object> raw = parseSingleResult(q.getQuestionJson());
-
-                recommended.add(PracticeDTO.PracticeQuestion.builder()
-                        .questionId(q.getId())
-                        .topic(q.getTopic())
-                        .type(QuestionType.valueOf(q.getQuestionType()))
-                        .questionText((String) raw.get("question"))
-                        .options((List<String>) raw.get("options"))
-                        // [최적화] DB에 저장된 이미지 URL을 바로 사용 (DALL-E 호출 X -> 비용 절감)
-                        .referenceMediaUrl(q.getImageUrl())
-                        .build());
+                recommended.add(toPracticeQuestion(q));
             }
         }
         return PracticeDTO.WeaknessAnalysisResponse.builder()
@@ -235,65 +201,70 @@ public class PracticeService {
     // [Private Helpers]
     // =========================================================================
 
-    // 1. 이미지 생성 (DALL-E 3 -> Local/S3 저장)
-    private String generateQuestionImage(String prompt) {
-        ImageResponse response = imageModel.call(new ImagePrompt(
-                "Education diagram, clear, minimalist style: " + prompt,
-                // [수정] OpenAI 전용 옵션 사용 및 Base64 응답 요청
-                OpenAiImageOptions.builder()
-                        .withModel("dall-e-3")
-                        .withHeight(1024)
-                        .withWidth(1024)
-                        .withResponseFormat("b64_json") // Base64로 받아야 파일 저장이 빠름
-                        .build()
-        ));
-
-        // [수정] mb64()가 아니라 getB64Json() 사용
-        String base64 = response.getResult().getOutput().getB64Json();
-
-        if (base64 != null) {
-            byte[] decoded = Base64.getDecoder().decode(base64);
-            return fileStore.storeFile(decoded, ".png");
-        }
-        return null;
+    // 저장된 문항 -> 출제용 DTO
+    private PracticeDTO.PracticeQuestion toPracticeQuestion(PracticeQuestionEntity q) {
+        Map<String, Object> raw = parseSingleResult(q.getQuestionJson());
+        return PracticeDTO.PracticeQuestion.builder()
+                .questionId(q.getId())
+                .topic(q.getTopic())
+                .type(QuestionType.valueOf(q.getQuestionType()))
+                .questionText((String) raw.get("question"))
+                .options((List<String>) raw.get("options"))
+                // [최적화] DB에 저장된 이미지 URL을 바로 사용 (DALL-E 호출 X -> 비용 절감, 생성 중이면 플레이스홀더)
+                .referenceMediaUrl(questionBankService.referenceMediaUrl(q))
+                .build();
     }
 
-    // 2. 안전한 JSON 파싱 (재시도 로직)
-    private List<Map<String, Object>> generateAndParseQuestionsWithRetry(String prompt) {
-        for (int i = 0; i < 2; i++) { // 최대 2회 시도
-            try {
-                String json = cleanJson(chatModel.call(prompt));
-                return objectMapper.readValue(json, new TypeReference<>() {});
-            } catch (Exception e) {
-                log.warn("JSON 파싱 실패 (재시도 {}회): {}", i + 1, e.getMessage());
-            }
-        }
-        return new ArrayList<>(); // 실패 시 빈 리스트 (서버 에러 방지)
+    // 객관식을 번호로 제출한 경우 보기 문장으로 기록
+    private String resolveUserAnswer(List<String> options, PracticeDTO.SubmitRequest.AnswerSubmission ans) {
+        if (StringUtils.hasText(ans.answerText())) return ans.answerText();
+        Integer index = ans.selectedIndex();
+        if (options != null && index != null && index >= 0 && index < options.size()) return options.get(index);
+        return ans.answerText();
     }
 
-    private Map<String, Object> generateAndParseSingleResultWithRetry(String prompt) {
-        for (int i = 0; i < 2; i++) {
-            try {
-                String json = cleanJson(chatModel.call(prompt));
-                return objectMapper.readValue(json, new TypeReference<>() {});
-            } catch (Exception e) {
-                log.warn("채점 결과 파싱 실패: {}", e.getMessage());
-            }
+    // 로컬 채점 결과를 AI 채점 결과와 같은 형태로 변환 (해설은 출제 시 저장된 explanation 사용)
+    private Map<String, Object> toLocalResult(ObjectiveGrader.Result result, Map<String, Object> raw, PracticeQuestionEntity question) {
+        String explanation = asText(raw.get("explanation"));
+        if (!result.correct()) {
+            explanation = "정답: " + result.correctAnswer() + (StringUtils.hasText(explanation) ? "\n" + explanation : "");
         }
-        return Map.of("isCorrect", false, "explanation", "채점 시스템 오류로 오답 처리되었습니다.", "tag", "Error");
+        return Map.of(
+                "isCorrect", result.correct(),
+                "explanation", explanation != null ? explanation : "",
+                "tag", question.getTopic() != null ? question.getTopic() : ""
+        );
     }
 
-    private String cleanJson(String text) {
-        if (text == null) return "{}";
-        String cleaned = text.trim();
-        if (cleaned.startsWith("```json")) cleaned = cleaned.substring(7);
-        if (cleaned.startsWith("```")) cleaned = cleaned.substring(3);
-        if (cleaned.endsWith("```")) cleaned = cleaned.substring(0, cleaned.length() - 3);
-        return cleaned.trim();
+    private String asText(Object value) {
+        return (value == null) ? null : String.valueOf(value);
     }
 
-    private String toJson(Object obj) {
-        try { return objectMapper.writeValueAsString(obj); } catch (Exception e) { return "{}"; }
+    private Map<String, Object> gradeAnswer(PracticeQuestionEntity question, String answerText) {
+        String prompt = String.format("""
+                [채점]
+                문제: %s
+                학생 답안: %s
+                
+                1. 정답 여부(true/false)
+                2. 명쾌한 해설 (학생이 이해하기 쉽게)
+                3. 핵심 태그 (약점 분석용 단어 1개)
+                
+                JSON: {"isCorrect": boolean, "explanation": "...", "tag": "..."}
+                """, extractQuestionText(question.getQuestionJson()), answerText);
+
+        // JSON Schema 응답 + 로컬 복구 파싱 (형식 오류로 재채점 호출하지 않음)
+        try {
+            GradingResult result = structuredOutput.call(AiFeature.GRADING, prompt, GradingResult.class);
+            Map<String, Object> map = new HashMap<>();
+            map.put("isCorrect", Boolean.TRUE.equals(result.isCorrect()));
+            map.put("explanation", result.explanation());
+            map.put("tag", result.tag());
+            return map;
+        } catch (Exception e) {
+            log.warn("채점 실패: {}", e.getMessage());
+            return Map.of("isCorrect", false, "explanation", "채점 시스템 오류로 오답 처리되었습니다.", "tag", "Error");
+        }
     }
 
     private String extractQuestionText(String json) {
@@ -305,19 +276,12 @@ public class PracticeService {
         try { return objectMapper.readValue(json, new TypeReference<>() {}); } catch (Exception e) { return Map.of(); }
     }
 
-    private String hashString(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) hexString.append(String.format("%02x", b));
-            return hexString.toString();
-        } catch (Exception e) { return String.valueOf(input.hashCode()); }
-    }
-
     private int parseDifficulty(String diff) {
         if ("EASY".equalsIgnoreCase(diff)) return 1;
         if ("HARD".equalsIgnoreCase(diff)) return 5;
         return 3;
     }
+
+    // 주관식 채점 응답 형식 (JSON Schema)
+    private record GradingResult(Boolean isCorrect, String explanation, String tag) {}
 }
\ No newline at end of file
@@ -0,0 +1,446 @@
+package com.tutoroo.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiGateway;
+import com.tutoroo.ai.AiMetrics;
+import com.tutoroo.ai.AiJsonStream;
+import com.tutoroo.ai.AiStructuredOutput;
+import com.tutoroo.dto.PracticeDTO;
+import com.tutoroo.entity.PracticeQuestionEntity;
+import com.tutoroo.entity.StudyPlanEntity;
+import com.tutoroo.mapper.PracticeMapper;
+import com.tutoroo.util.FileStore;
+import com.tutoroo.util.HashBloomFilter;
+import com.tutoroo.util.Hashes;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.image.ImageModel;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+import org.springframework.ai.openai.OpenAiImageOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * [기능: 실전 문제은행]
+ * 설명: 미리 만들어 둔 문제 풀에서 출제하여 AI 문제 생성(수십 초 + DALL-E)을 요청 경로에서 제거합니다.
+ * 작동원리:
+ * 1. 풀 키: 학습 목표(goal_key) + 난이도. 같은 목표의 플랜끼리 문제를 공유합니다. (유형은 한 풀 안에 섞여 있음)
+ * 2. 출제: 학생이 본 적 없는 문제만 고르고(practice_question_views), 약점 모드면 약점 토픽을 우선합니다.
+ * 3. 보충: 학생 기준 남은 문제가 low-watermark 미만이면 백그라운드(PREGEN 벌크헤드)에서 풀을 채웁니다.
+ *    노드 간 중복 보충은 Redis 잠금으로 막습니다.
+ * 4. 콜드 스타트: 풀이 비어 부족분이 생기면 그 수만큼만 즉시 생성합니다.
+ * 5. 이미지: DALL-E(10~20초)는 응답을 기다리지 않습니다. 플레이스홀더로 먼저 응답하고 병렬로 생성한 뒤
+ *    image_url에 기록하고 SSE(practice-image)로 전달합니다. (image_url: null = 생성 대기, "" = 이미지 없음)
+ *    생성은 Redis 잠금으로 노드 간 한 번만 실행하고, 실패하면 최대 MAX_IMAGE_ATTEMPTS회까지 다음 출제 때 다시 시도합니다.
+ *    끝내 이미지가 없는 시각 자료 분석(VISUAL_ANALYSIS) 문제는 풀에서 제외됩니다.
+ * 중복 제거: 블룸 필터(기동 시 테이블로 예열)로 확실히 새 문제를 걸러내고, 나머지만 IN 조회 1회로 확인한 뒤
+ *           content_hash 유니크 제약 + multi-row INSERT IGNORE로 저장합니다. (노드 간 경합에도 중복 저장 없음)
+ * 지표: practice.bank.questions{source=pool|generated}
+ */
+@Slf4j
+@Service
+public class QuestionBankService {
+
+    private static final String REFILL_LOCK_PREFIX = "qbank:refill:";
+    private static final Duration REFILL_LOCK_TTL = Duration.ofMinutes(10);
+
+    // 이미지: 대기 중 응답용 플레이스홀더 / 이미지 없는 문제 표시("") / SSE 이벤트 이름 / 서버 전체 동시 생성 수
+    public static final String IMAGE_PLACEHOLDER_URL = "/images/practice/image-pending.png";
+    private static final String NO_IMAGE = "";
+    private static final String IMAGE_EVENT_NAME = "practice-image";
+    private static final int IMAGE_PARALLELISM = 4;
+
+    // 이미지 생성 선점 잠금 (DALL-E 응답 시간보다 넉넉히) / 실패 횟수 기록 (횟수를 다 쓰면 이미지 없는 문제로 확정)
+    private static final String IMAGE_LOCK_PREFIX = "qbank:image:lock:";
+    private static final Duration IMAGE_LOCK_TTL = Duration.ofMinutes(3);
+    private static final String IMAGE_ATTEMPTS_PREFIX = "qbank:image:attempts:";
+    private static final Duration IMAGE_ATTEMPTS_TTL = Duration.ofDays(1);
+    private static final int MAX_IMAGE_ATTEMPTS = 3;
+
+    private static final TypeReference<Map<String, Object>> QUESTION_TYPE = new TypeReference<>() {};
+
+    // 보충 1회에 AI를 최대 몇 번 호출할지 (생성 실패/중복이 계속될 때 무한 반복 방지)
+    private static final int MAX_REFILL_ROUNDS = 3;
+
+    private final PracticeMapper practiceMapper;
+    private final AiGateway aiGateway;
+    private final AiJsonStream aiJsonStream;
+    private final AiStructuredOutput structuredOutput;
+    private final ImageModel imageModel;
+    private final FileStore fileStore;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor taskExecutor;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final NotificationService notificationService;
+    private final int lowWatermark;
+    private final int refillBatch;
+
+    // 저장된 content_hash 블룸 필터 (예열 전에는 모든 해시를 DB로 확인)
+    private final HashBloomFilter knownHashes;
+    private volatile boolean bloomReady = false;
+
+    // 진행 중인 이미지 생성 (문제 ID -> 완성 URL)
+    private final Map<Long, CompletableFuture<ImageResult>> imagesInFlight = new ConcurrentHashMap<>();
+    private final Semaphore imageSlots = new Semaphore(IMAGE_PARALLELISM);
+
+    public QuestionBankService(PracticeMapper practiceMapper,
+                               AiGateway aiGateway,
+                               AiJsonStream aiJsonStream,
+                               AiStructuredOutput structuredOutput,
+                               ImageModel imageModel,
+                               FileStore fileStore,
+                               ObjectMapper objectMapper,
+                               AsyncTaskExecutor taskExecutor,
+                               RedisTemplate<String, String> redisTemplate,
+                               MeterRegistry meterRegistry,
+                               NotificationService notificationService,
+                               @Value("${app.practice.question-bank.low-watermark:20}") int lowWatermark,
+                               @Value("${app.practice.question-bank.refill-batch:10}") int refillBatch,
+                               @Value("${app.practice.question-bank.bloom-expected-insertions:1000000}") long bloomExpectedInsertions,
+                               @Value("${app.practice.question-bank.bloom-fpp:0.01}") double bloomFpp) {
+        this.practiceMapper = practiceMapper;
+        this.aiGateway = aiGateway;
+        this.aiJsonStream = aiJsonStream;
+        this.structuredOutput = structuredOutput;
+        this.imageModel = imageModel;
+        this.fileStore = fileStore;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.notificationService = notificationService;
+        this.lowWatermark = lowWatermark;
+        this.refillBatch = refillBatch;
+        this.knownHashes = new HashBloomFilter(bloomExpectedInsertions, bloomFpp);
+    }
+
+    /**
+     * [블룸 필터 예열] 기동 후 저장된 모든 content_hash를 백그라운드에서 읽어 둡니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpBloomFilter() {
+        taskExecutor.execute(() -> {
+            try {
+                long[] count = {0};
+                practiceMapper.scanContentHashes(context -> {
+                    knownHashes.put(context.getResultObject());
+                    count[0]++;
+                });
+                bloomReady = true;
+                log.info("📚 문제은행 블룸 필터 예열 완료: {}건", count[0]);
+            } catch (Exception e) {
+                log.warn("문제은행 블룸 필터 예열 실패 (DB 조회로 중복 확인): {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * [출제] 풀에서 학생이 보지 않은 문제를 count개 꺼내고 노출 기록을 남깁니다.
+     * @param weakTopics 우선 출제할 토픽 (없으면 빈 리스트)
+     */
+    public List<PracticeQuestionEntity> take(Long userId, StudyPlanEntity plan, int difficulty, int count, List<String> weakTopics) {
+        String goalKey = goalKey(plan.getGoal());
+
+        List<PracticeQuestionEntity> questions = new ArrayList<>(
+                practiceMapper.findUnseenPoolQuestions(userId, goalKey, difficulty, weakTopics, count));
+        meterRegistry.counter("practice.bank.questions", "source", "pool").increment(questions.size());
+
+        // [콜드 스타트] 풀이 모자라면 부족분만 즉시 생성
+        if (questions.size() < count) {
+            List<PracticeQuestionEntity> generated = generate(plan, difficulty, count - questions.size(),
+                    topicInstruction(weakTopics), AiFeature.GRADING);
+            meterRegistry.counter("practice.bank.questions", "source", "generated").increment(generated.size());
+            questions.addAll(generated);
+        }
+
+        if (!questions.isEmpty()) {
+            practiceMapper.saveQuestionViews(userId, questions.stream().map(PracticeQuestionEntity::getId).toList());
+        }
+
+        // [이미지] 대기 중인 문제는 플레이스홀더로 먼저 응답하고, 완성되면 SSE로 전달
+        questions.forEach(q -> illustrate(q, AiFeature.GRADING, userId));
+
+        // [보충] 남은 문제가 기준 미만이면 다음 출제를 위해 백그라운드에서 채움
+        if (practiceMapper.countUnseenPoolQuestions(userId, goalKey, difficulty) < lowWatermark) {
+            replenishAsync(userId, plan, difficulty);
+        }
+        return questions;
+    }
+
+    /**
+     * [출제용 이미지 URL] 완성된 이미지 URL, 생성 대기 중이면 플레이스홀더, 이미지 없는 문제면 null
+     */
+    public String referenceMediaUrl(PracticeQuestionEntity question) {
+        String imageUrl = question.getImageUrl();
+        if (imageUrl == null) return IMAGE_PLACEHOLDER_URL;
+        return imageUrl.isEmpty() ? null : imageUrl;
+    }
+
+    /**
+     * [풀 키] 학습 목표 정규화(앞뒤 공백 제거 + 소문자) 후 SHA-256. (V4 마이그레이션 백필과 같은 규칙)
+     */
+    public static String goalKey(String goal) {
+        return Hashes.sha256Hex(goal == null ? "" : goal.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // =========================================================================
+    // [Private Helpers]
+    // =========================================================================
+
+    private void replenishAsync(Long userId, StudyPlanEntity plan, int difficulty) {
+        String lockKey = REFILL_LOCK_PREFIX + goalKey(plan.getGoal()) + ":" + difficulty;
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, "1", REFILL_LOCK_TTL))) return;
+        } catch (Exception e) {
+            // 출제는 이미 끝났으므로 보충만 건너뜀 (다음 출제 때 다시 시도)
+            log.warn("문제은행 보충 잠금 실패 (Plan: {}): {}", plan.getId(), e.getMessage());
+            return;
+        }
+
+        taskExecutor.execute(() -> {
+            try {
+                String goalKey = goalKey(plan.getGoal());
+                for (int round = 0; round < MAX_REFILL_ROUNDS; round++) {
+                    if (practiceMapper.countUnseenPoolQuestions(userId, goalKey, difficulty) >= lowWatermark) break;
+                    List<PracticeQuestionEntity> added = generate(plan, difficulty, refillBatch,
+                            topicInstruction(List.of()), AiFeature.PREGEN);
+                    added.forEach(q -> illustrate(q, AiFeature.PREGEN, null));
+                    log.info("📚 문제은행 보충 (목표: {}, 난이도: {}): {}문제", plan.getGoal(), difficulty, added.size());
+                    if (added.isEmpty()) break;
+                }
+            } catch (Exception e) {
+                log.warn("문제은행 보충 실패 (Plan: {}): {}", plan.getId(), e.getMessage());
+            } finally {
+                redisTemplate.delete(lockKey);
+            }
+        });
+    }
+
+    /**
+     * [이미지 생성] 이미지가 필요한 문제의 DALL-E 생성을 백그라운드에서 실행하고 image_url에 기록합니다.
+     * 같은 문제의 생성은 노드 내(진행 중이면 합류)와 노드 간(Redis 잠금) 모두 한 번만 실행되며,
+     * userId가 있으면 완성 시 SSE(practice-image)로 알립니다. (다른 노드가 생성 중이면 그 결과를 다음 출제 때 사용)
+     * 실패하면 생성 대기(null)로 남겨 다음 출제 때 다시 시도하고, MAX_IMAGE_ATTEMPTS회 실패하면 이미지 없는 문제("")로 확정합니다.
+     */
+    private void illustrate(PracticeQuestionEntity question, AiFeature feature, Long userId) {
+        if (question.getImageUrl() != null) return;
+        String prompt = imagePrompt(parseJson(question.getQuestionJson()));
+        if (prompt == null) return;
+
+        Long questionId = question.getId();
+        CompletableFuture<ImageResult> job = imagesInFlight.computeIfAbsent(questionId, id ->
+                CompletableFuture.supplyAsync(() -> renderImage(id, prompt, feature), taskExecutor));
+
+        job.whenComplete((result, e) -> {
+            imagesInFlight.remove(questionId, job);
+            if (userId != null && result != null && result.claimed()) {
+                notificationService.sendEvent(userId, IMAGE_EVENT_NAME, new PracticeDTO.QuestionImageEvent(questionId, result.imageUrl()));
+            }
+        });
+    }
+
+    private ImageResult renderImage(Long questionId, String prompt, AiFeature feature) {
+        String lockKey = IMAGE_LOCK_PREFIX + questionId;
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, "1", IMAGE_LOCK_TTL))) {
+                return new ImageResult(false, null);
+            }
+        } catch (Exception e) {
+            // 선점할 수 없으면 생성 대기로 두고 다음 출제 때 다시 시도
+            log.warn("이미지 생성 잠금 실패 (Question: {}): {}", questionId, e.getMessage());
+            return new ImageResult(false, null);
+        }
+
+        imageSlots.acquireUninterruptibly();
+        try {
+            // 잠금을 잡기 전에 다른 노드가 이미 끝냈을 수 있음
+            PracticeQuestionEntity current = practiceMapper.findQuestionById(questionId);
+            if (current == null || current.getImageUrl() != null) {
+                return new ImageResult(true, current != null && StringUtils.hasText(current.getImageUrl()) ? current.getImageUrl() : null);
+            }
+
+            try {
+                String imageUrl = generateQuestionImage(prompt, feature);
+                if (imageUrl != null) {
+                    practiceMapper.updateImageUrl(questionId, imageUrl);
+                    return new ImageResult(true, imageUrl);
+                }
+            } catch (Exception e) {
+                log.warn("이미지 생성 실패 (Question: {}): {}", questionId, e.getMessage());
+            }
+
+            String attemptsKey = IMAGE_ATTEMPTS_PREFIX + questionId;
+            Long attempts = redisTemplate.opsForValue().increment(attemptsKey);
+            redisTemplate.expire(attemptsKey, IMAGE_ATTEMPTS_TTL);
+            if (attempts != null && attempts >= MAX_IMAGE_ATTEMPTS) {
+                log.warn("이미지 생성 {}회 실패 -> 이미지 없는 문제로 확정 (Question: {})", attempts, questionId);
+                practiceMapper.updateImageUrl(questionId, NO_IMAGE);
+                redisTemplate.delete(attemptsKey);
+            }
+            return new ImageResult(true, null);
+        } finally {
+            imageSlots.release();
+            redisTemplate.delete(lockKey);
+        }
+    }
+
+    private String imagePrompt(Map<String, Object> raw) {
+        Object prompt = raw.get("imagePrompt");
+        if (!(prompt instanceof String text) || !StringUtils.hasText(text) || text.equalsIgnoreCase("null")) return null;
+        return text;
+    }
+
+    private String topicInstruction(List<String> weakTopics) {
+        return weakTopics.isEmpty()
+                ? "전체 학습 범위에서 중요 개념 위주로 출제해."
+                : "학생이 자주 틀리는 다음 주제를 집중 공략해: " + String.join(", ", weakTopics);
+    }
+
+    // 문제 생성 -> 중복 제거 -> 이미지 생성 -> 일괄 저장
+    private List<PracticeQuestionEntity> generate(StudyPlanEntity plan, int difficulty, int count,
+                                                  String topicInstruction, AiFeature feature) {
+        // 1. AI 프롬프트 (시각 자료 요청 포함)
+        String promptText = String.format("""
+                [Role] You are a professional exam creator for '%s'.
+                [Topic] %s
+                [Difficulty] %d (1=Easy, 5=Hard)
+                [Count] Create %d high-quality questions.
+
+                [Requirements]
+                1. **Question Types**: Mix MULTIPLE_CHOICE, SHORT_ANSWER, and VISUAL_ANALYSIS.
+                2. **Visuals**: If a question needs an image (e.g., Geometry, Art, Biology), provide an 'imagePrompt' field.
+                   - Example: "A diagram of a mitochondria" or "A painting in Impressionist style".
+                3. **Language**: The content MUST be in Korean (한국어).
+
+                [JSON Format Strict]
+                [
+                    {
+                        "topic": "Topic Name",
+                        "type": "MULTIPLE_CHOICE",
+                        "question": "Question text...",
+                        "options": ["Option A", "B", "C", "D"],
+                        "answer": "Correct Answer",
+                        "explanation": "Detailed explanation...",
+                        "imagePrompt": "Description for DALL-E (or null if not needed)"
+                    }
+                ]
+                """, plan.getGoal(), topicInstruction, difficulty, count);
+
+        // 2. 문제 생성 (스트리밍) + 도착하는 문제부터 중복 사전 판별
+        //    배치 안 중복 제거 -> 블룸 필터로 확실한 신규 문제 통과 -> 나머지는 끝나고 IN 조회 1회
+        Map<String, Map<String, Object>> byHash = new LinkedHashMap<>();
+        List<String> maybeStored = new ArrayList<>();
+        streamQuestionsWithRetry(promptText, feature, raw -> {
+            String questionText = (raw.get("question") instanceof String text) ? text : null;
+            if (!StringUtils.hasText(questionText)) return;
+            String hash = Hashes.sha256Hex(questionText);
+            if (byHash.putIfAbsent(hash, raw) == null && (!bloomReady || knownHashes.mightContain(hash))) {
+                maybeStored.add(hash);
+            }
+        });
+
+        // 3. [중복 제거] 저장된 적 있을 수도 있는 문제만 DB 확인
+        Set<String> stored = maybeStored.isEmpty() ? Set.of() : new HashSet<>(practiceMapper.findExistingContentHashes(maybeStored));
+
+        // 4. 저장 대상 (이미지는 저장 후 illustrate()에서 비동기로 생성)
+        String goalKey = goalKey(plan.getGoal());
+        List<PracticeQuestionEntity> candidates = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : byHash.entrySet()) {
+            Map<String, Object> raw = entry.getValue();
+            if (stored.contains(entry.getKey())) {
+                log.info("중복 문제 패스: {}", raw.get("topic"));
+                continue;
+            }
+
+            candidates.add(PracticeQuestionEntity.builder()
+                    .planId(plan.getId())
+                    .goalKey(goalKey)
+                    .contentHash(entry.getKey())
+                    .questionJson(toJson(raw)) // 원본 데이터 보존
+                    .topic((String) raw.get("topic"))
+                    .questionType((String) raw.get("type"))
+                    .difficulty(difficulty)
+                    .imageUrl(imagePrompt(raw) != null ? null : NO_IMAGE) // null = 이미지 생성 대기
+                    .build());
+        }
+        if (candidates.isEmpty()) return List.of();
+
+        // 5. [DB 구간] 단일 INSERT IGNORE (AI 생성 중 다른 노드가 같은 문제를 저장했으면 유니크 제약이 걸러냄)
+        List<String> hashes = candidates.stream().map(PracticeQuestionEntity::getContentHash).toList();
+        practiceMapper.saveQuestionsIgnoringDuplicates(candidates);
+        hashes.forEach(knownHashes::put);
+
+        // ID 확보 (INSERT IGNORE는 건너뛴 행 때문에 생성 키를 행과 짝지을 수 없음)
+        return practiceMapper.findQuestionsByContentHashes(hashes);
+    }
+
+    // 이미지 생성 (DALL-E 3 -> Local/S3 저장)
+    private String generateQuestionImage(String prompt, AiFeature feature) {
+        ImageResponse response = aiGateway.execute(feature, AiMetrics.Kind.IMAGE, "dall-e-3", 1, () -> imageModel.call(new ImagePrompt(
+                "Education diagram, clear, minimalist style: " + prompt,
+                OpenAiImageOptions.builder()
+                        .withModel("dall-e-3")
+                        .withHeight(1024)
+                        .withWidth(1024)
+                        .withResponseFormat("b64_json") // Base64로 받아야 파일 저장이 빠름
+                        .build()
+        )));
+
+        String base64 = response.getResult().getOutput().getB64Json();
+        if (base64 != null) {
+            byte[] decoded = Base64.getDecoder().decode(base64);
+            return fileStore.storeFile(decoded, ".png");
+        }
+        return null;
+    }
+
+    // 스트리밍 생성 (완성된 문제부터 onQuestion 호출, 한 문제도 못 받았을 때만 재시도)
+    private void streamQuestionsWithRetry(String prompt, AiFeature feature, Consumer<Map<String, Object>> onQuestion) {
+        for (int i = 0; i < 2; i++) { // 최대 2회 시도
+            try {
+                if (aiJsonStream.forEachElement(feature, structuredOutput.arrayPrompt(prompt, GeneratedQuestion.class), QUESTION_TYPE, onQuestion).received() > 0) return;
+                log.warn("문제 생성 결과 없음 (재시도 {}회)", i + 1);
+            } catch (Exception e) {
+                log.warn("문제 생성 실패 (재시도 {}회): {}", i + 1, e.getMessage());
+            }
+        }
+    }
+
+    // 응답 스키마 전용 (저장은 원본 Map 그대로)
+    private record GeneratedQuestion(String topic, String type, String question, List<String> options,
+                                     String answer, String explanation, String imagePrompt) {}
+
+    // claimed=false: 다른 노드가 생성 중이라 이번에는 결과를 알리지 않음
+    private record ImageResult(boolean claimed, String imageUrl) {}
+
+    private Map<String, Object> parseJson(String json) {
+        try { return objectMapper.readValue(json, new TypeReference<>() {}); } catch (Exception e) { return Map.of(); }
+    }
+
+    private String toJson(Object obj) {
+        try { return objectMapper.writeValueAsString(obj); } catch (Exception e) { return "{}"; }
+    }
+}
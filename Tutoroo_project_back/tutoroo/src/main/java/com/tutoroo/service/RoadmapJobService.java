@@ -0,0 +1,227 @@
+package com.tutoroo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.dto.AssessmentDTO;
+import com.tutoroo.entity.RoadmapJobEntity;
+import com.tutoroo.exception.ErrorCode;
+import com.tutoroo.exception.TutorooException;
+import com.tutoroo.mapper.RoadmapJobMapper;
+import com.tutoroo.util.Hashes;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * [기능: 로드맵 생성 백그라운드 작업]
+ * 설명: 수준 분석 + 로드맵 생성(수십 초)을 HTTP 요청에서 분리합니다.
+ * 작동원리:
+ * 1. 접수: 멤버십 제한만 즉시 확인하고 roadmap_jobs에 PENDING으로 저장한 뒤 작업 ID를 바로 반환합니다.
+ * 2. 실행: 가상 스레드에서 PENDING -> RUNNING 선점 후 AssessmentService로 생성/저장하고 COMPLETED/FAILED로 기록합니다.
+ * 3. 알림: 완료/실패는 NotificationService SSE 채널로 보내고(roadmap-job 이벤트 + 알림 보관함), 폴링용 상태 조회도 제공합니다.
+ * 4. 복구: 실행 중에는 stale-after/3마다 생존 신호(updated_at)를 남기고, 신호가 끊긴 작업은 스케줄러가 다시 실행합니다. (최대 max-attempts회)
+ *    완료/실패 기록과 플랜 저장은 자기 시도(RUNNING + attempts 일치)일 때만 확정되어, 늦게 끝난 이전 시도가 플랜을 중복 저장하지 않습니다.
+ * 재제출: 같은 상담 결과로 진행 중이거나 방금 끝난 작업이 있으면 새로 만들지 않고 그 작업을 돌려줍니다.
+ */
+@Slf4j
+@Service
+public class RoadmapJobService {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // NotificationService SSE 채널의 이벤트 이름
+    private static final String EVENT_NAME = "roadmap-job";
+    private static final String INTERRUPTED_MESSAGE = "로드맵 생성 작업이 중단되었습니다.";
+
+    private final RoadmapJobMapper roadmapJobMapper;
+    private final AssessmentService assessmentService;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor taskExecutor;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+
+    public RoadmapJobService(RoadmapJobMapper roadmapJobMapper,
+                             AssessmentService assessmentService,
+                             NotificationService notificationService,
+                             ObjectMapper objectMapper,
+                             AsyncTaskExecutor taskExecutor,
+                             @Value("${app.roadmap-job.stale-after:10m}") Duration staleAfter,
+                             @Value("${app.roadmap-job.max-attempts:2}") int maxAttempts) {
+        this.roadmapJobMapper = roadmapJobMapper;
+        this.assessmentService = assessmentService;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.staleAfter = staleAfter;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * [작업 접수] 작업 ID를 즉시 반환합니다.
+     */
+    public AssessmentDTO.RoadmapJobResponse submit(Long userId, AssessmentDTO.AssessmentSubmitRequest request) {
+        assessmentService.checkPlanLimit(userId);
+        request = assessmentService.withConsultHistory(userId, request);
+
+        String requestJson = toJson(request);
+        String requestHash = Hashes.sha256Hex(requestJson);
+
+        RoadmapJobEntity reusable = roadmapJobMapper.findReusableJob(userId, requestHash);
+        if (reusable != null) {
+            log.info("🔁 동일한 로드맵 작업 재사용 (User: {}, Job: {}, 상태: {})", userId, reusable.getId(), reusable.getStatus());
+            return toResponse(reusable);
+        }
+
+        RoadmapJobEntity job = RoadmapJobEntity.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .status(STATUS_PENDING)
+                .requestHash(requestHash)
+                .requestJson(requestJson)
+                .build();
+        roadmapJobMapper.save(job);
+
+        dispatch(job.getId());
+        return toResponse(job);
+    }
+
+    /**
+     * [상태 조회] 폴링용 (본인 작업만)
+     */
+    public AssessmentDTO.RoadmapJobResponse getJob(Long userId, String jobId) {
+        RoadmapJobEntity job = roadmapJobMapper.findById(jobId);
+        if (job == null) throw new TutorooException(ErrorCode.ROADMAP_JOB_NOT_FOUND);
+        if (!job.getUserId().equals(userId)) throw new TutorooException(ErrorCode.UNAUTHORIZED_ACCESS);
+        return toResponse(job);
+    }
+
+    /**
+     * [복구] 일정 시간 이상 PENDING/RUNNING에 머문 작업을 다시 실행합니다. (TutorooScheduler에서 주기 호출)
+     */
+    public void recoverStaleJobs() {
+        List<String> staleIds = roadmapJobMapper.findStaleJobIds(staleAfter.toSeconds());
+        for (String jobId : staleIds) {
+            if (roadmapJobMapper.requeue(jobId, maxAttempts, staleAfter.toSeconds(),
+                    ErrorCode.INTERNAL_SERVER_ERROR.getCode(), INTERRUPTED_MESSAGE) == 0) continue;
+
+            RoadmapJobEntity job = roadmapJobMapper.findById(jobId);
+            if (STATUS_PENDING.equals(job.getStatus())) {
+                log.warn("♻️ 멈춘 로드맵 작업 재실행 (Job: {}, 시도: {}회)", jobId, job.getAttempts());
+                dispatch(jobId);
+            } else {
+                log.warn("❌ 로드맵 작업 재시도 한도 초과로 실패 처리 (Job: {})", jobId);
+                notifyFailure(job);
+            }
+        }
+    }
+
+    // --- Private Helpers ---
+
+    private void dispatch(String jobId) {
+        taskExecutor.execute(() -> run(jobId));
+    }
+
+    private void run(String jobId) {
+        // 다른 서버(또는 복구 스케줄러)가 이미 실행 중이면 종료
+        if (roadmapJobMapper.claim(jobId) == 0) return;
+
+        RoadmapJobEntity job = roadmapJobMapper.findById(jobId);
+        int attempt = job.getAttempts();
+        log.info("🗺️ 로드맵 생성 작업 시작 (User: {}, Job: {}, 시도: {}회)", job.getUserId(), jobId, attempt);
+
+        Thread heartbeat = startHeartbeat(jobId, attempt);
+        try {
+            AssessmentDTO.AssessmentSubmitRequest request =
+                    objectMapper.readValue(job.getRequestJson(), AssessmentDTO.AssessmentSubmitRequest.class);
+            // 완료 기록과 플랜 저장을 한 트랜잭션으로 (내 시도가 아니게 됐으면 플랜 저장도 취소)
+            AssessmentDTO.AssessmentResultResponse result = assessmentService.createRoadmapFromAssessment(job.getUserId(), request,
+                    created -> roadmapJobMapper.markCompleted(jobId, attempt, created.planId(), toJson(created)) == 1);
+            if (result == null) {
+                log.warn("로드맵 생성 작업이 다른 시도로 넘어가 결과를 버림 (Job: {}, 시도: {}회)", jobId, attempt);
+                return;
+            }
+            log.info("✅ 로드맵 생성 작업 완료 (Job: {}, Plan: {})", jobId, result.planId());
+
+            notificationService.send(job.getUserId(), "학습 로드맵 완성",
+                    "'" + request.studyInfo().goal() + "' 로드맵이 준비되었습니다. 대시보드에서 확인하세요.", "SUCCESS", null);
+            notificationService.sendEvent(job.getUserId(), EVENT_NAME, toResponse(roadmapJobMapper.findById(jobId)));
+
+        } catch (TutorooException e) {
+            log.warn("로드맵 생성 작업 실패 (Job: {}): {}", jobId, e.getMessage());
+            fail(job, attempt, e.getErrorCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("로드맵 생성 작업 오류 (Job: {})", jobId, e);
+            fail(job, attempt, ErrorCode.AI_PROCESSING_ERROR, ErrorCode.AI_PROCESSING_ERROR.getMessage());
+        } finally {
+            heartbeat.interrupt();
+        }
+    }
+
+    // 작업이 끝날 때까지 생존 신호 (내 시도가 아니게 되면 중단)
+    private Thread startHeartbeat(String jobId, int attempt) {
+        long interval = Math.max(1_000, staleAfter.toMillis() / 3);
+        return Thread.ofVirtual().name("roadmap-job-heartbeat").start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(interval);
+                    try {
+                        if (roadmapJobMapper.heartbeat(jobId, attempt) == 0) return;
+                    } catch (Exception e) {
+                        log.warn("로드맵 작업 생존 신호 실패 (Job: {}): {}", jobId, e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                // 작업 종료
+            }
+        });
+    }
+
+    private void fail(RoadmapJobEntity job, int attempt, ErrorCode errorCode, String message) {
+        if (roadmapJobMapper.markFailed(job.getId(), attempt, errorCode.getCode(), message) == 0) {
+            log.warn("로드맵 생성 작업이 다른 시도로 넘어가 실패 기록을 생략 (Job: {}, 시도: {}회)", job.getId(), attempt);
+            return;
+        }
+        notifyFailure(roadmapJobMapper.findById(job.getId()));
+    }
+
+    private void notifyFailure(RoadmapJobEntity job) {
+        notificationService.send(job.getUserId(), "학습 로드맵 생성 실패",
+                "로드맵을 만들지 못했습니다. 잠시 후 다시 시도해주세요.", "WARNING", null);
+        notificationService.sendEvent(job.getUserId(), EVENT_NAME, toResponse(job));
+    }
+
+    private AssessmentDTO.RoadmapJobResponse toResponse(RoadmapJobEntity job) {
+        AssessmentDTO.AssessmentResultResponse result = null;
+        if (STATUS_COMPLETED.equals(job.getStatus()) && job.getResultJson() != null) {
+            try {
+                result = objectMapper.readValue(job.getResultJson(), AssessmentDTO.AssessmentResultResponse.class);
+            } catch (JsonProcessingException e) {
+                log.warn("로드맵 작업 결과 파싱 실패 (Job: {}): {}", job.getId(), e.getMessage());
+            }
+        }
+
+        return AssessmentDTO.RoadmapJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .result(result)
+                .errorCode(job.getErrorCode())
+                .message(job.getErrorMessage())
+                .build();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new TutorooException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.tutoroo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * [기능: 세션 전환 멘트 풀]
+ * 설명: 페르소나 + 세션 모드(CLASS/BREAK/TEST/GRADING/AI_FEEDBACK)별로 미리 만든 멘트(텍스트 + 음성)를 보관합니다.
+ * 작동원리:
+ * 1. Redis Set에 변형 멘트 variants개를 저장하고, 요청마다 무작위로 하나를 꺼냅니다. (SRANDMEMBER 1회)
+ * 2. 교체는 임시 키에 채운 뒤 RENAME으로 한 번에 바꿔, 갱신 중에도 빈 풀이 보이지 않습니다.
+ * 3. 풀 채우기는 Redis 잠금으로 노드 간 한 번만 실행합니다. (생성 자체는 TutorService 담당)
+ * 4. 갱신이 멈추면 ttl 후 풀이 사라지고 실시간 생성으로 돌아갑니다.
+ */
+@Slf4j
+@Component
+public class SessionPhrasePool {
+
+    private static final String KEY_PREFIX = "tutor:phrases:";
+    private static final String LOCK_PREFIX = "tutor:phrases:lock:";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final int variants;
+    private final boolean withTts;
+    private final Duration ttl;
+
+    public SessionPhrasePool(RedisTemplate<String, String> redisTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${app.ai.phrase-pool.variants:5}") int variants,
+                             @Value("${app.ai.phrase-pool.tts:true}") boolean withTts,
+                             @Value("${app.ai.phrase-pool.ttl:3d}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.variants = variants;
+        this.withTts = withTts;
+        this.ttl = ttl;
+    }
+
+    public int variants() {
+        return variants;
+    }
+
+    public boolean withTts() {
+        return withTts;
+    }
+
+    /**
+     * [무작위 선택] 풀이 비어 있으면 Optional.empty()
+     */
+    public Optional<Phrase> pick(String persona, String mode) {
+        try {
+            String json = redisTemplate.opsForSet().randomMember(key(persona, mode));
+            return (json == null) ? Optional.empty() : Optional.of(objectMapper.readValue(json, Phrase.class));
+        } catch (Exception e) {
+            log.warn("세션 멘트 풀 조회 실패 ({}/{}): {}", persona, mode, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * [교체] 새 변형 멘트로 풀 전체를 바꿉니다.
+     */
+    public void replace(String persona, String mode, List<Phrase> phrases) {
+        if (phrases.isEmpty()) return;
+        String key = key(persona, mode);
+        String tempKey = key + ":next";
+
+        String[] values = phrases.stream().map(this::toJson).toArray(String[]::new);
+        redisTemplate.delete(tempKey);
+        redisTemplate.opsForSet().add(tempKey, values);
+        redisTemplate.rename(tempKey, key);
+        redisTemplate.expire(key, ttl);
+    }
+
+    /**
+     * [채우기 잠금] 같은 풀을 여러 노드/요청이 동시에 채우지 않도록 합니다.
+     */
+    public boolean tryLock(String persona, String mode) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + persona + ":" + mode, "1", LOCK_TTL));
+    }
+
+    public void unlock(String persona, String mode) {
+        redisTemplate.delete(LOCK_PREFIX + persona + ":" + mode);
+    }
+
+    private String key(String persona, String mode) {
+        return KEY_PREFIX + persona + ":" + mode;
+    }
+
+    private String toJson(Phrase phrase) {
+        try {
+            return objectMapper.writeValueAsString(phrase);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param text     멘트
+     * @param audioUrl 미리 만든 음성 (없으면 null)
+     */
+    public record Phrase(String text, String audioUrl) {}
+}
@@ -3,6 +3,11 @@ package com.tutoroo.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.ai.AiAnswerCache;
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiGateway;
+import com.tutoroo.ai.AiResponseCache;
+import com.tutoroo.ai.PromptBudget;
 import com.tutoroo.dto.AssessmentDTO;
 import com.tutoroo.dto.StudyDTO;
 import com.tutoroo.entity.MembershipTier;
@@ -20,7 +25,6 @@ import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,7 +47,14 @@ public class StudyService {
     private final StudyMapper studyMapper;
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
-    private final OpenAiChatModel chatModel;
+    private final AiGateway aiGateway;
+    private final AiResponseCache aiResponseCache;
+    private final AiAnswerCache aiAnswerCache;
+    private final PromptBudget promptBudget;
+
+    // 간단 채팅에서 Redis에 보관/참조하는 최근 대화 수 (user/assistant 각각 1개씩)
+    private static final int SIMPLE_CHAT_HISTORY_SIZE = 10;
+    private static final String SIMPLE_CHAT_CACHE_ENDPOINT = "study-chat";
 
     // =================================================================================
     // 1. 학습 플랜 생성 및 관리 (CRUD)
@@ -82,8 +93,9 @@ public class StudyService {
         if (!plan.getUserId().equals(userId)) throw new TutorooException(ErrorCode.UNAUTHORIZED_ACCESS);
 
         studyMapper.deletePlan(planId);
-        // 관련 세션 데이터도 정리
+        // 관련 세션 데이터 및 AI 응답 캐시도 정리
         clearSessionState(planId);
+        aiResponseCache.invalidatePlan(planId);
         log.info("🗑️ 학습 플랜 및 세션 삭제 완료: userId={}, planId={}", userId, planId);
     }
 
@@ -253,31 +265,48 @@ public class StudyService {
 
         StudyLogEntity lastLog = studyMapper.findLatestLogByPlanId(planId);
         String historyKey = "chat:history:" + planId;
-        List<String> history = redisTemplate.opsForList().range(historyKey, 0, 9);
-
-        // [핵심] 지능형 페르소나 생성
-        String systemPrompt = buildSmartSystemPersona(user, plan, lastLog, history);
+        // 가장 최근 대화 기준 (리스트 끝에서부터)
+        List<String> history = redisTemplate.opsForList().range(historyKey, -SIMPLE_CHAT_HISTORY_SIZE, -1);
 
-        List<Message> messages = new ArrayList<>();
-        messages.add(new SystemMessage(systemPrompt));
+        String currentTopic = extractCurrentTopic(plan.getRoadmapJson(), lastLog);
 
-        if (history != null) {
-            for (String h : history) {
-                if (h.startsWith("user:")) messages.add(new UserMessage(h.substring(5)));
-                else if (h.startsWith("assistant:")) messages.add(new AssistantMessage(h.substring(10)));
+        // [유사 질문 캐시] 대화 기록이 없는 첫 질문만 대상 (기록이 있으면 답변이 이 학생의 대화에 묶임)
+        // 같은 목표/레벨/페르소나 + 같은 주제(Day)/연령에서 거의 같은 질문이 있었으면 그 답변 재사용 (켜져 있을 때만)
+        boolean cacheable = history == null || history.isEmpty();
+        AiAnswerCache.Scope cacheScope = new AiAnswerCache.Scope(SIMPLE_CHAT_CACHE_ENDPOINT,
+                plan.getGoal(), plan.getCurrentLevel(), plan.getPersona(), currentTopic + "|" + user.getAge());
+        String cleanedResponse = cacheable ? aiAnswerCache.find(cacheScope, userMessage, user.getName()) : null;
+
+        if (cleanedResponse == null) {
+            // [핵심] 지능형 페르소나 생성
+            String systemPrompt = buildSmartSystemPersona(user, plan, currentTopic, history);
+
+            List<Message> messages = new ArrayList<>();
+            messages.add(new SystemMessage(systemPrompt));
+            UserMessage current = new UserMessage(userMessage);
+
+            // [토큰 예산] 시스템 프롬프트 + 이번 질문을 뺀 나머지 예산 안에서 최근 대화만 포함
+            if (history != null) {
+                int reserved = promptBudget.count(List.of(messages.get(0), current));
+                for (String h : promptBudget.fitHistory(AiFeature.TUTORING, reserved, history, line -> line)) {
+                    if (h.startsWith("user:")) messages.add(new UserMessage(h.substring(5)));
+                    else if (h.startsWith("assistant:")) messages.add(new AssistantMessage(h.substring(10)));
+                }
             }
-        }
-        messages.add(new UserMessage(userMessage));
+            messages.add(current);
 
-        Prompt prompt = new Prompt(messages);
+            Prompt prompt = new Prompt(messages);
 
-        // AI 호출 (Spring AI 1.0.0-M6 호환)
-        String aiResponseText = chatModel.call(prompt).getResult().getOutput().getText();
-        String cleanedResponse = cleanText(aiResponseText);
+            // AI 호출 (Spring AI 1.0.0-M6 호환)
+            String aiResponseText = aiGateway.call(AiFeature.TUTORING, prompt).getResult().getOutput().getText();
+            cleanedResponse = cleanText(aiResponseText);
+            if (cacheable) aiAnswerCache.put(cacheScope, userMessage, cleanedResponse, user.getName());
+        }
 
         // Redis에 대화 내역 저장
         redisTemplate.opsForList().rightPush(historyKey, "user:" + userMessage);
         redisTemplate.opsForList().rightPush(historyKey, "assistant:" + cleanedResponse);
+        redisTemplate.opsForList().trim(historyKey, -SIMPLE_CHAT_HISTORY_SIZE, -1);
         redisTemplate.expire(historyKey, 1, TimeUnit.HOURS);
 
         return StudyDTO.ChatResponse.builder()
@@ -313,7 +342,7 @@ public class StudyService {
                 logEntity.getStudentFeedback() != null ? logEntity.getStudentFeedback() : "없음"
         );
 
-        String response = chatModel.call(promptText);
+        String response = aiGateway.call(AiFeature.TUTORING, promptText);
         String cleaned = cleanText(response);
 
         // 저장 로직 (Mapper는 Auto-commit 되므로 별도 트랜잭션 불필요)
@@ -339,8 +368,7 @@ public class StudyService {
     }
 
     // [New] 스마트 페르소나 빌더
-    private String buildSmartSystemPersona(UserEntity user, StudyPlanEntity plan, StudyLogEntity lastLog, List<String> history) {
-        String currentTopic = extractCurrentTopic(plan.getRoadmapJson(), lastLog);
+    private String buildSmartSystemPersona(UserEntity user, StudyPlanEntity plan, String currentTopic, List<String> history) {
         StringBuilder sb = new StringBuilder();
 
         sb.append(getPersonaDescription(plan.getPersona())).append("\n\n");
@@ -1,8 +1,19 @@
 package com.tutoroo.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tutoroo.ai.AiAnswerCache;
+import com.tutoroo.ai.AiFeature;
+import com.tutoroo.ai.AiGateway;
+import com.tutoroo.ai.AiMetrics;
+import com.tutoroo.ai.AiJsonStream;
+import com.tutoroo.ai.AiResponseCache;
+import com.tutoroo.ai.AiSingleFlight;
+import com.tutoroo.ai.AiStructuredOutput;
+import com.tutoroo.ai.AiTask;
+import com.tutoroo.ai.PromptBudget;
+import com.tutoroo.ai.PromptRegistry;
 import com.tutoroo.dto.TutorDTO;
 import com.tutoroo.entity.*;
 import com.tutoroo.event.StudyCompletedEvent;
@@ -12,6 +23,9 @@ import com.tutoroo.mapper.ChatMapper;
 import com.tutoroo.mapper.CommonMapper;
 import com.tutoroo.mapper.StudyMapper;
 import com.tutoroo.util.FileStore;
+import com.tutoroo.util.Hashes;
+import com.tutoroo.util.PromptTemplate;
+import com.tutoroo.util.ObjectiveGrader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
@@ -19,29 +33,37 @@ import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiAudioSpeechModel;
 import org.springframework.ai.openai.OpenAiAudioSpeechOptions;
 import org.springframework.ai.openai.OpenAiAudioTranscriptionModel;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.api.OpenAiAudioApi;
 import org.springframework.ai.openai.audio.speech.SpeechPrompt;
 import org.springframework.ai.openai.audio.speech.SpeechResponse;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
 
 import java.io.File;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,29 +74,130 @@ public class TutorService {
 
     private final StudyMapper studyMapper;
     private final CommonMapper commonMapper;
+    private final PromptRegistry promptRegistry;
     private final ChatMapper chatMapper;
-    private final OpenAiChatModel chatModel;
+    private final ChatSummaryService chatSummaryService;
+    private final AiGateway aiGateway;
+    private final AiJsonStream aiJsonStream;
+    private final AiStructuredOutput structuredOutput;
+    private final AiResponseCache aiResponseCache;
+    private final AiAnswerCache aiAnswerCache;
+    private final AiSingleFlight aiSingleFlight;
+    private final PromptBudget promptBudget;
     private final OpenAiAudioSpeechModel speechModel;
     private final OpenAiAudioTranscriptionModel transcriptionModel;
     private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
     private final FileStore fileStore;
     private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectiveGrader objectiveGrader;
+    private final SessionPhrasePool sessionPhrasePool;
+    private final AsyncTaskExecutor taskExecutor;
+
+    // 채팅 스트리밍 최대 유지 시간: 3분 (gpt-4o 장문 답변 기준 여유 있게)
+    private static final long CHAT_STREAM_TIMEOUT = 3L * 60 * 1000;
+
+    // AI 응답 캐시 엔드포인트 (app.ai.cache.ttls 키와 일치)
+    private static final String CACHE_DAILY_TEST = "daily-test";
+    private static final String CACHE_EXAM = "exam";
+    private static final String CACHE_CLASS_OPENING = "class-opening";
+
+    // 유사 질문 답변 캐시 범위 구분 (AiAnswerCache)
+    private static final String FEEDBACK_CHAT_CACHE_ENDPOINT = "feedback-chat";
+
+    // 시험 출제 문항 수 / 스트림 원소 타입
+    private static final int EXAM_QUESTION_COUNT = 2;
+    private static final TypeReference<TutorDTO.ExamGenerateResponse.ExamQuestion> EXAM_QUESTION_TYPE = new TypeReference<>() {};
+
+    // 세션 모드 (멘트 풀 단위) / 페르소나 프롬프트 키 접두사
+    private static final List<String> SESSION_MODES = List.of("CLASS", "BREAK", "TEST", "GRADING", "AI_FEEDBACK");
+    private static final String TEACHER_PROMPT_PREFIX = "TEACHER_";
+
+    // 데일리 테스트 채점 프롬프트 키 / 점수 파싱(parseScore)에 필요한 응답 형식
+    private static final String TEST_FEEDBACK_PROMPT_KEY = "TEST_FEEDBACK";
+    private static final String TEST_FEEDBACK_RESPONSE_FORMAT = """
+            응답 형식:
+            점수: [0-100]
+            피드백: [상세한 설명]
+            """;
+
+    // 커리큘럼 조정 채팅 시스템 프롬프트 (채팅 메시지마다 쓰이므로 서식을 한 번만 분석)
+    private static final PromptTemplate FEEDBACK_CHAT_TEMPLATE = PromptTemplate.compile("""
+            %s
+            
+            [현재 수업 정보]
+            - 과목: %s
+            - 학생 레벨: %s (목표: %s)
+            - **교수법 전략**: %s
+            %s
+            
+            [절대 규칙: World-Class Tutoring System]
+            1. **문맥 완벽 유지**: 위 [대화 내역]을 분석해. 학생이 이전에 했던 질문이나 실수를 기억해서 "아까 말씀드린 것처럼~" 하고 연결해.
+            2. **소크라테스식 검증**: 단순히 정답만 알려주지 마. 설명을 마친 후엔 반드시 **"그럼 이 경우에는 어떻게 될까요?"**라고 역질문을 던져 이해도를 체크해.
+            3. **코드/예시 필수**: 코딩 질문이면 반드시 코드를, 이론 질문이면 반드시 예시를 들어.
+            4. **잡담 차단**: 학생이 수업과 무관한 얘기를 하면 정중히 수업으로 복귀시켜.
+            5. **이미지 분석**: 학생이 이미지를 첨부했다면, 이미지 파일명과 컨텍스트를 참고하여 답변해줘.
+            """);
+
+    // 프론트엔드 기본 기분값 (야간 사전 생성 시 사용)
+    private static final String DEFAULT_DAILY_MOOD = "NORMAL";
+
+    // 데일리 퀴즈 정답 키 (로컬 채점용, 하루 보관)
+    private static final String DAILY_QUIZ_KEY_PREFIX = "tutor:quiz:";
+    private static final Duration DAILY_QUIZ_TTL = Duration.ofDays(1);
 
-    @Transactional
     public TutorDTO.ClassStartResponse startClass(Long userId, TutorDTO.ClassStartRequest request) {
+        // [중복 방지] 더블클릭/재시도로 같은 요청이 겹치면 AI(오프닝 + TTS)는 한 번만 실행
+        return aiSingleFlight.execute("class-start", userId, request, TutorDTO.ClassStartResponse.class,
+                () -> openClass(request));
+    }
+
+    private TutorDTO.ClassStartResponse openClass(TutorDTO.ClassStartRequest request) {
         StudyPlanEntity plan = studyMapper.findById(request.planId());
         if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
 
-        // ✅ 커스텀 옵션 저장
+        // ✅ 커스텀 옵션 저장 (일반 선생님을 고르면 null로 오므로 지움 -> 야간 사전 생성도 같은 값을 씀)
         updatePersonaIfChanged(plan, request.personaName());
-        if (request.customOption() != null) {
-            plan.setCustomOption(request.customOption());
+        String customOption = StringUtils.hasText(request.customOption()) ? request.customOption() : null;
+        if (!Objects.equals(plan.getCustomOption(), customOption)) {
+            plan.setCustomOption(customOption);
             studyMapper.updatePlan(plan);
         }
 
-        String todaysTopic = getTopicFromRoadmap(plan.getRoadmapJson(), request.dayCount());
-        String yesterdayTopic = (request.dayCount() > 1) ? getTopicFromRoadmap(plan.getRoadmapJson(), request.dayCount() - 1) : "기초 오리엔테이션";
+        ParsedResponse parsed = generateClassOpening(plan, request.dayCount(), request.dailyMood(), AiFeature.TUTORING);
+        String audioUrl = request.needsTts() ? generateTtsAudio(parsed.aiMessage, plan.getPersona()) : null;
+        String tutorImageUrl = "/images/tutors/" + plan.getPersona().toLowerCase() + ".png";
+
+        return new TutorDTO.ClassStartResponse(
+                parsed.topic, parsed.aiMessage, audioUrl, tutorImageUrl, "/audio/bgm/calm.mp3",
+                10, 5, parsed.schedule
+        );
+    }
+
+    /**
+     * [야간 사전 생성] 다음 수업의 오프닝 멘트 + 시간표, TTS, 데일리 퀴즈를 미리 만들어 캐시에 올려 둡니다.
+     * 아침 요청은 같은 프롬프트로 캐시를 조회하므로 AI 호출 없이 응답합니다.
+     * 페르소나/커스텀 옵션/레벨/진도가 바뀌면 프롬프트가 달라지므로 사전 생성분은 자동으로 무시됩니다.
+     */
+    public void pregenerateNextClass(StudyPlanEntity plan, boolean withTts) {
+        StudyLogEntity lastLog = studyMapper.findLatestLogByPlanId(plan.getId());
+        int nextDay = (lastLog == null) ? 1 : lastLog.getDayCount() + 1;
+
+        ParsedResponse opening = generateClassOpening(plan, nextDay, DEFAULT_DAILY_MOOD, AiFeature.PREGEN);
+        if (withTts) generateTtsAudio(opening.aiMessage, plan.getPersona(), AiFeature.PREGEN);
+
+        try {
+            generateDailyQuiz(plan, nextDay, AiFeature.PREGEN);
+        } catch (UncheckedIOException e) {
+            log.warn("데일리 퀴즈 사전 생성 실패 (planId: {}): {}", plan.getId(), e.getMessage());
+        }
+    }
+
+    // 수업 오프닝 (주제 | 멘트 | 시간표) - 프롬프트 단위로 캐시, 커스텀 옵션은 플랜에 저장된 값 (수업 시작/사전 생성 공통)
+    private ParsedResponse generateClassOpening(StudyPlanEntity plan, int dayCount, String dailyMood, AiFeature feature) {
+        String customOption = plan.getCustomOption();
+        String todaysTopic = getTopicFromRoadmap(plan.getRoadmapJson(), dayCount);
+        String yesterdayTopic = (dayCount > 1) ? getTopicFromRoadmap(plan.getRoadmapJson(), dayCount - 1) : "기초 오리엔테이션";
 
         String userPrompt = String.format("""
                 [수업 컨텍스트]
@@ -94,38 +217,85 @@ public class TutorService {
                 """,
                 plan.getGoal(), plan.getCurrentLevel(),
                 todaysTopic, yesterdayTopic,
-                request.dailyMood(),
-                request.customOption() != null ? request.customOption() : "없음",
+                dailyMood,
+                StringUtils.hasText(customOption) ? customOption : "없음",
                 extractTopicKeyword(yesterdayTopic), extractTopicKeyword(todaysTopic)
         );
 
-        String systemPrompt = buildBaseSystemPrompt(plan, request.customOption()) +
+        String systemPrompt = buildBaseSystemPrompt(plan, customOption) +
                 "\n너는 체계적이고 논리적인 '1타 강사'야. 흐름이 끊기지 않게 수업을 연결해.";
 
-        String response = chatModel.call(new Prompt(List.of(
-                new SystemMessage(systemPrompt),
-                new UserMessage(userPrompt)
-        ))).getResult().getOutput().getText();
-
-        ParsedResponse parsed = parseScheduleResponse(response);
-        String audioUrl = request.needsTts() ? generateTtsAudio(parsed.aiMessage, plan.getPersona()) : null;
-        String tutorImageUrl = "/images/tutors/" + plan.getPersona().toLowerCase() + ".png";
+        String response = aiResponseCache.getOrLoad(CACHE_CLASS_OPENING, plan.getId(), systemPrompt + "\n" + userPrompt, String.class,
+                () -> aiGateway.call(feature, new Prompt(List.of(
+                        new SystemMessage(systemPrompt),
+                        new UserMessage(userPrompt)
+                ))).getResult().getOutput().getText());
 
-        return new TutorDTO.ClassStartResponse(
-                parsed.topic, parsed.aiMessage, audioUrl, tutorImageUrl, "/audio/bgm/calm.mp3",
-                10, 5, parsed.schedule
-        );
+        return parseScheduleResponse(response);
     }
 
-    @Transactional
     public TutorDTO.SessionStartResponse startSession(Long userId, TutorDTO.SessionStartRequest request) {
-        String mode = request.sessionMode();
+        String mode = SESSION_MODES.contains(request.sessionMode()) ? request.sessionMode() : "CLASS";
         String personaName = request.personaName();
 
         // ✅ 플랜 조회하여 customOption 가져오기
         StudyPlanEntity plan = studyMapper.findById(request.planId());
         String customOption = plan != null ? plan.getCustomOption() : null;
 
+        // [멘트 풀] 커스텀 옵션이 없고 등록된 페르소나면 미리 만든 멘트(+음성)를 사용, 풀이 비었으면 실시간 생성 후 백그라운드로 채움
+        // (등록되지 않은 페르소나 이름으로 Redis 풀 키가 무한히 늘어나지 않도록 실시간 생성만 사용)
+        boolean knownPersona = personaName != null && promptRegistry.content(TEACHER_PROMPT_PREFIX + personaName) != null;
+        SessionPhrasePool.Phrase phrase = null;
+        if (knownPersona && !StringUtils.hasText(customOption)) {
+            phrase = sessionPhrasePool.pick(personaName, mode).orElse(null);
+            if (phrase == null) taskExecutor.execute(() -> refillSessionPhrases(personaName, mode));
+        }
+        if (phrase == null) {
+            phrase = new SessionPhrasePool.Phrase(generateSessionMessage(personaName, mode, customOption, AiTask.SESSION_MESSAGE), null);
+        }
+
+        String audioUrl = null;
+        if (request.needsTts()) {
+            audioUrl = (phrase.audioUrl() != null) ? phrase.audioUrl() : generateTtsAudio(phrase.text(), personaName);
+        }
+        String imageUrl = "/images/tutors/" + personaName.toLowerCase() + ".png";
+
+        return new TutorDTO.SessionStartResponse(phrase.text(), audioUrl, imageUrl);
+    }
+
+    /**
+     * [멘트 풀 갱신] 모든 페르소나 x 세션 모드의 멘트 풀을 새 변형으로 교체합니다. (TutorooScheduler에서 주기 호출)
+     */
+    public void refreshSessionPhrasePool() {
+        for (String personaKey : promptRegistry.keysWithPrefix(TEACHER_PROMPT_PREFIX)) {
+            String persona = personaKey.substring(TEACHER_PROMPT_PREFIX.length());
+            for (String mode : SESSION_MODES) {
+                taskExecutor.execute(() -> refillSessionPhrases(persona, mode));
+            }
+        }
+    }
+
+    private void refillSessionPhrases(String persona, String mode) {
+        if (!sessionPhrasePool.tryLock(persona, mode)) return;
+        try {
+            List<SessionPhrasePool.Phrase> phrases = new ArrayList<>();
+            for (int i = 0; i < sessionPhrasePool.variants(); i++) {
+                String text = generateSessionMessage(persona, mode, null, AiTask.SESSION_PHRASE_POOL);
+                if (!StringUtils.hasText(text)) continue;
+                String audioUrl = sessionPhrasePool.withTts() ? generateTtsAudio(text, persona, AiFeature.PREGEN) : null;
+                phrases.add(new SessionPhrasePool.Phrase(text, audioUrl));
+            }
+            sessionPhrasePool.replace(persona, mode, phrases);
+            log.info("💬 세션 멘트 풀 갱신 ({}/{}): {}개", persona, mode, phrases.size());
+        } catch (Exception e) {
+            log.warn("세션 멘트 풀 갱신 실패 ({}/{}): {}", persona, mode, e.getMessage());
+        } finally {
+            sessionPhrasePool.unlock(persona, mode);
+        }
+    }
+
+    // 세션 전환 멘트 (페르소나 + 상황 + 커스텀 옵션)
+    private String generateSessionMessage(String personaName, String mode, String customOption, AiTask task) {
         String situation = switch (mode) {
             case "BREAK" -> "상황: 휴식 시간. 뇌과학적으로 휴식이 왜 기억 저장에 도움이 되는지 짧게 언급하며 쉬라고 해.";
             case "TEST" -> "상황: 테스트 시작. '틀려도 괜찮아, 모르는 걸 찾는 과정이야'라고 부담을 덜어주되 긴장감은 줘.";
@@ -134,7 +304,7 @@ public class TutorService {
             default -> "상황: 수업 집중. 딴짓하지 말고 화면을 보라고 주의를 환기해.";
         };
 
-        String basePrompt = commonMapper.findPromptContentByKey("TEACHER_" + personaName);
+        String basePrompt = promptRegistry.content(TEACHER_PROMPT_PREFIX + personaName);
         if (basePrompt == null) basePrompt = "너는 유능한 AI 튜터야.";
 
         // ✅ customOption 적용
@@ -142,49 +312,133 @@ public class TutorService {
             basePrompt += "\n[커스텀 요청]: " + customOption;
         }
 
-        String aiMessage = chatModel.call(new Prompt(List.of(
+        return aiGateway.call(task, new Prompt(List.of(
                 new SystemMessage(basePrompt),
                 new UserMessage(situation)
         ))).getResult().getOutput().getText();
+    }
 
-        String audioUrl = request.needsTts() ? generateTtsAudio(aiMessage, personaName) : null;
-        String imageUrl = "/images/tutors/" + personaName.toLowerCase() + ".png";
+    public TutorDTO.FeedbackChatResponse adjustCurriculum(Long userId, Long planId, String message, boolean needsTts, MultipartFile image) {
+        StudyPlanEntity plan = studyMapper.findById(planId);
+        if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
+
+        String userContent = message;
+        if (image != null && !image.isEmpty()) {
+            try {
+                String imageUrl = fileStore.storeFile(image.getBytes(),
+                        getFileExtension(image.getOriginalFilename()));
+
+                log.info("📷 이미지 저장 완료: {}", imageUrl);
 
-        return new TutorDTO.SessionStartResponse(aiMessage, audioUrl, imageUrl);
+                userContent = message + "\n\n[학생이 이미지를 첨부했습니다]\n" +
+                        "이미지 파일: " + imageUrl + "\n" +
+                        "학생의 이미지와 질문을 바탕으로 답변해주세요. " +
+                        "이미지의 내용을 추론하여 설명하거나, 이미지 관련 질문에 답변해주세요.";
+            } catch (Exception e) {
+                log.error("이미지 처리 실패", e);
+                throw new TutorooException("이미지 처리 중 오류가 발생했습니다.", ErrorCode.AI_PROCESSING_ERROR);
+            }
+        }
+
+        // [유사 질문 캐시] 이미지 첨부/커스텀 요청이 있는 플랜은 답변이 개인화되므로 제외
+        boolean cacheable = userContent.equals(message) && !StringUtils.hasText(plan.getCustomOption());
+        AiAnswerCache.Scope cacheScope = new AiAnswerCache.Scope(FEEDBACK_CHAT_CACHE_ENDPOINT,
+                plan.getGoal(), plan.getCurrentLevel(), plan.getPersona(), plan.getTargetLevel());
+        String aiResponse = cacheable ? aiAnswerCache.find(cacheScope, message, null) : null;
+
+        if (aiResponse != null) {
+            chatMapper.saveMessage(planId, "USER", message);
+        } else {
+            // 이번 메시지는 프롬프트 끝에 직접 붙이므로 저장 전에 맥락(요약 + 최근 대화)을 불러옴
+            ChatSummaryService.ChatContext context = chatSummaryService.loadContext(planId);
+            List<Message> messages = buildFeedbackChatMessages(plan, context, userContent);
+            chatMapper.saveMessage(planId, "USER", message);
+
+            aiResponse = aiGateway.call(AiFeature.TUTORING, new Prompt(messages)).getResult().getOutput().getText();
+            // 요약/대화 기록이 들어간 답변은 이 학생의 대화에 묶이므로 다른 학생에게 돌려주지 않도록 저장하지 않음
+            boolean contextFree = !StringUtils.hasText(context.summary()) && context.recentMessages().isEmpty();
+            if (cacheable && contextFree) aiAnswerCache.put(cacheScope, message, aiResponse, null);
+        }
+
+        chatMapper.saveMessage(planId, "AI", aiResponse);
+        chatSummaryService.compactIfNeeded(planId);
+
+        String audioUrl = needsTts ? generateTtsAudio(aiResponse, plan.getPersona()) : null;
+        return new TutorDTO.FeedbackChatResponse(aiResponse, audioUrl);
     }
 
-    @Transactional
-    public TutorDTO.FeedbackChatResponse adjustCurriculum(Long userId, Long planId, String message, boolean needsTts, MultipartFile image) {
+    /**
+     * [기능: 커리큘럼 조정 채팅 - 토큰 스트리밍 버전]
+     * 설명: adjustCurriculum과 같은 프롬프트를 사용하되, AI가 생성하는 토큰을 SSE(text/event-stream)로 즉시 전달합니다.
+     * 이벤트: start(연결 확인) -> token(생성 조각, 반복) -> done(최종 응답) / error
+     * 저장: 스트림이 정상 종료되면 완성된 답변을 ChatMapper.saveMessage로 저장합니다.
+     *      클라이언트가 중간에 연결을 끊어도 생성은 끝까지 받아서 대화 기록이 끊기지 않게 합니다.
+     */
+    public SseEmitter streamCurriculumChat(Long userId, Long planId, String message) {
         StudyPlanEntity plan = studyMapper.findById(planId);
         if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
 
+        List<Message> messages = buildFeedbackChatMessages(plan, chatSummaryService.loadContext(planId), message);
         chatMapper.saveMessage(planId, "USER", message);
 
-        List<ChatMapper.ChatMessage> history = chatMapper.findRecentMessages(planId, 50);
+        SseEmitter emitter = new SseEmitter(CHAT_STREAM_TIMEOUT);
+        AtomicBoolean clientConnected = new AtomicBoolean(true);
+        StringBuilder fullResponse = new StringBuilder();
+
+        sendStreamEvent(emitter, clientConnected, "start", Map.of("planId", planId));
+
+        Disposable subscription = aiGateway.stream(AiFeature.TUTORING, new Prompt(messages))
+                .mapNotNull(this::extractStreamToken)
+                .subscribe(
+                        token -> {
+                            fullResponse.append(token);
+                            sendStreamEvent(emitter, clientConnected, "token", Map.of("token", token));
+                        },
+                        error -> {
+                            log.error("튜터 채팅 스트리밍 실패 (planId: {})", planId, error);
+                            sendStreamEvent(emitter, clientConnected, "error",
+                                    Map.of("message", ErrorCode.AI_PROCESSING_ERROR.getMessage()));
+                            emitter.complete();
+                        },
+                        // 완료 신호는 Reactor(Netty) 스레드에서 오므로 JDBC 저장은 가상 스레드로 넘김
+                        // 저장이 실패해도 error 이벤트를 보내고 연결은 반드시 닫음 (타임아웃까지 매달리지 않도록)
+                        () -> taskExecutor.execute(() -> finishCurriculumStream(planId, fullResponse.toString(), emitter, clientConnected))
+                );
+
+        // 타임아웃 시에는 생성 자체를 중단 (연결 끊김은 저장을 위해 계속 수신)
+        emitter.onTimeout(() -> {
+            clientConnected.set(false);
+            subscription.dispose();
+        });
+        emitter.onError(e -> clientConnected.set(false));
+
+        return emitter;
+    }
+
+    private void finishCurriculumStream(Long planId, String aiResponse, SseEmitter emitter, AtomicBoolean clientConnected) {
+        try {
+            chatMapper.saveMessage(planId, "AI", aiResponse);
+            chatSummaryService.compactIfNeeded(planId);
+            sendStreamEvent(emitter, clientConnected, "done", new TutorDTO.FeedbackChatResponse(aiResponse, null));
+        } catch (Exception e) {
+            log.error("튜터 채팅 스트리밍 응답 저장 실패 (planId: {})", planId, e);
+            sendStreamEvent(emitter, clientConnected, "error", Map.of("message", ErrorCode.AI_PROCESSING_ERROR.getMessage()));
+        } finally {
+            emitter.complete();
+        }
+    }
 
+    // 커리큘럼 조정 채팅 공용 프롬프트 (시스템 프롬프트 + 이전 대화 요약 + 최근 대화 + 이번 메시지)
+    // 토큰 예산을 넘으면 최근 대화 중 오래된 것부터 제외
+    private List<Message> buildFeedbackChatMessages(StudyPlanEntity plan, ChatSummaryService.ChatContext context, String userContent) {
         String pedagogyStrategy = plan.getCurrentLevel().equalsIgnoreCase("BEGINNER")
                 ? "쉬운 비유와 실생활 예시를 들어 설명해. 전문 용어는 최소화해."
                 : "정확한 기술 용어를 사용하고, 원리와 내부 구조(Under the hood)를 깊게 설명해.";
 
-        String basePrompt = commonMapper.findPromptContentByKey("TEACHER_" + plan.getPersona());
+        String basePrompt = promptRegistry.content(TEACHER_PROMPT_PREFIX + plan.getPersona());
         if (basePrompt == null) basePrompt = "너는 열정적인 AI 선생님이야.";
 
-        String teacherPrompt = String.format("""
-            %s
-            
-            [현재 수업 정보]
-            - 과목: %s
-            - 학생 레벨: %s (목표: %s)
-            - **교수법 전략**: %s
-            %s
-            
-            [절대 규칙: World-Class Tutoring System]
-            1. **문맥 완벽 유지**: 위 [대화 내역]을 분석해. 학생이 이전에 했던 질문이나 실수를 기억해서 "아까 말씀드린 것처럼~" 하고 연결해.
-            2. **소크라테스식 검증**: 단순히 정답만 알려주지 마. 설명을 마친 후엔 반드시 **"그럼 이 경우에는 어떻게 될까요?"**라고 역질문을 던져 이해도를 체크해.
-            3. **코드/예시 필수**: 코딩 질문이면 반드시 코드를, 이론 질문이면 반드시 예시를 들어.
-            4. **잡담 차단**: 학생이 수업과 무관한 얘기를 하면 정중히 수업으로 복귀시켜.
-            5. **이미지 분석**: 학생이 이미지를 첨부했다면, 이미지 파일명과 컨텍스트를 참고하여 답변해줘.
-            """,
+        String teacherPrompt = FEEDBACK_CHAT_TEMPLATE.format(
                 basePrompt,
                 plan.getGoal(),
                 plan.getCurrentLevel(),
@@ -198,6 +452,15 @@ public class TutorService {
         List<Message> messages = new ArrayList<>();
         messages.add(new SystemMessage(teacherPrompt));
 
+        if (StringUtils.hasText(context.summary())) {
+            messages.add(new SystemMessage("[이전 대화 요약]\n" + context.summary()));
+        }
+
+        UserMessage current = new UserMessage(userContent);
+        int reserved = promptBudget.count(messages) + promptBudget.count(List.of(current));
+        List<ChatMapper.ChatMessage> history = promptBudget.fitHistory(
+                AiFeature.TUTORING, reserved, context.recentMessages(), ChatMapper.ChatMessage::message);
+
         for (ChatMapper.ChatMessage chat : history) {
             if ("USER".equals(chat.sender())) {
                 messages.add(new UserMessage(chat.message()));
@@ -205,48 +468,49 @@ public class TutorService {
                 messages.add(new AssistantMessage(chat.message()));
             }
         }
+        messages.add(current);
+        return messages;
+    }
 
-        if (image != null && !image.isEmpty()) {
-            try {
-                String imageUrl = fileStore.storeFile(image.getBytes(),
-                        getFileExtension(image.getOriginalFilename()));
-
-                log.info("📷 이미지 저장 완료: {}", imageUrl);
-
-                String messageWithImage = message + "\n\n[학생이 이미지를 첨부했습니다]\n" +
-                        "이미지 파일: " + imageUrl + "\n" +
-                        "학생의 이미지와 질문을 바탕으로 답변해주세요. " +
-                        "이미지의 내용을 추론하여 설명하거나, 이미지 관련 질문에 답변해주세요.";
-
-                messages.add(new UserMessage(messageWithImage));
-
-                String aiResponse = chatModel.call(new Prompt(messages)).getResult().getOutput().getText();
-
-                chatMapper.saveMessage(planId, "AI", aiResponse);
-
-                String audioUrl = needsTts ? generateTtsAudio(aiResponse, plan.getPersona()) : null;
-                return new TutorDTO.FeedbackChatResponse(aiResponse, audioUrl);
-
-            } catch (Exception e) {
-                log.error("이미지 처리 실패", e);
-                throw new TutorooException("이미지 처리 중 오류가 발생했습니다.", ErrorCode.AI_PROCESSING_ERROR);
-            }
-        } else {
-            messages.add(new UserMessage(message));
-            String aiResponse = chatModel.call(new Prompt(messages)).getResult().getOutput().getText();
-
-            chatMapper.saveMessage(planId, "AI", aiResponse);
+    private String extractStreamToken(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) return null;
+        String text = response.getResult().getOutput().getText();
+        return StringUtils.hasLength(text) ? text : null;
+    }
 
-            String audioUrl = needsTts ? generateTtsAudio(aiResponse, plan.getPersona()) : null;
-            return new TutorDTO.FeedbackChatResponse(aiResponse, audioUrl);
+    private void sendStreamEvent(SseEmitter emitter, AtomicBoolean clientConnected, String eventName, Object data) {
+        if (!clientConnected.get()) return;
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            clientConnected.set(false);
+            log.debug("스트리밍 클라이언트 연결 종료: {}", e.getMessage());
         }
     }
 
-    @Transactional(readOnly = true)
     public TutorDTO.DailyTestResponse generateTest(Long userId, Long planId, int dayCount) {
         StudyPlanEntity plan = studyMapper.findById(planId);
         if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
 
+        try {
+            // 출제 ID는 요청마다 새로 발급 (캐시된 같은 문제라도 제출은 마지막으로 받은 문제 기준)
+            DailyQuiz generated = generateDailyQuiz(plan, dayCount, AiFeature.GRADING);
+            TutorDTO.DailyTestResponse quiz = new TutorDTO.DailyTestResponse(
+                    generated.type(), generated.question(), generated.imageUrl(),
+                    generated.options(), generated.answerIndex(), UUID.randomUUID().toString()
+            );
+            saveDailyQuiz(userId, planId, quiz);
+            return quiz;
+        } catch (UncheckedIOException e) {
+            return new TutorDTO.DailyTestResponse(
+                    "QUIZ", "오늘 배운 내용을 복습해볼까요?", null,
+                    List.of("네", "아니오", "글쎄요", "모르겠어요"), 0, null
+            );
+        }
+    }
+
+    // 데일리 퀴즈 (AI 응답 형식 오류 시 UncheckedIOException)
+    private DailyQuiz generateDailyQuiz(StudyPlanEntity plan, int dayCount, AiFeature feature) {
         String todaysTopic = getTopicFromRoadmap(plan.getRoadmapJson(), dayCount);
 
         String prompt = String.format("""
@@ -268,20 +532,11 @@ public class TutorService {
                 }
                 """, plan.getGoal(), todaysTopic, plan.getCurrentLevel(), todaysTopic);
 
-        String response = chatModel.call(prompt);
-        String cleaned = cleanJson(response);
-
-        try {
-            return objectMapper.readValue(cleaned, TutorDTO.DailyTestResponse.class);
-        } catch (Exception e) {
-            return new TutorDTO.DailyTestResponse(
-                    "QUIZ", "오늘 배운 내용을 복습해볼까요?", null,
-                    List.of("네", "아니오", "글쎄요", "모르겠어요"), 0
-            );
-        }
+        // [캐시] 같은 플랜/날짜/레벨이면 같은 퀴즈 재사용 (재시도/새로고침 시 AI 호출 X)
+        return aiResponseCache.getOrLoad(CACHE_DAILY_TEST, plan.getId(), prompt, DailyQuiz.class,
+                () -> structuredOutput.call(feature, prompt, DailyQuiz.class));
     }
 
-    @Transactional(readOnly = true)
     public TutorDTO.ExamGenerateResponse generateExam(Long userId, Long planId) {
         StudyPlanEntity plan = studyMapper.findById(planId);
         if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
@@ -293,20 +548,34 @@ public class TutorService {
             Role: Senior Examiner in %s.
             Topic: %s.
             
-            Generate 2 high-quality questions in JSON format.
+            Generate %d high-quality questions.
             - Question 1: Conceptual understanding (Multiple Choice).
             - Question 2: Practical application or Visual Analysis (Visual Analysis if Art/Bio, otherwise Code/Short Answer).
-            """, plan.getGoal(), topic);
 
-        String jsonResponse = chatModel.call(promptText);
+            Output ONLY a JSON array:
+            [
+              {"number": 1, "type": "MULTIPLE_CHOICE", "question": "...", "options": ["...", "..."], "codeTemplate": null}
+            ]
+            type: MULTIPLE_CHOICE | SHORT_ANSWER | LONG_ANSWER | CODE_IMPLEMENTATION | VISUAL_ANALYSIS
+            """, plan.getGoal(), topic, EXAM_QUESTION_COUNT);
+
         try {
-            return objectMapper.readValue(cleanJson(jsonResponse), TutorDTO.ExamGenerateResponse.class);
-        } catch (JsonProcessingException e) {
+            // [스트리밍] 완성된 문제부터 받고, 끝이 깨져도 온전한 문제는 살림
+            // 배열이 끝까지 닫혔거나 요청한 문제 수를 다 받았을 때만 캐시 (부분 결과는 이번 응답에만 사용)
+            AtomicBoolean complete = new AtomicBoolean(false);
+            return aiResponseCache.getOrLoad(CACHE_EXAM, planId, promptText, TutorDTO.ExamGenerateResponse.class, () -> {
+                List<TutorDTO.ExamGenerateResponse.ExamQuestion> questions = new ArrayList<>();
+                AiJsonStream.Result result = aiJsonStream.forEachElement(AiFeature.GRADING,
+                        structuredOutput.arrayPrompt(promptText, TutorDTO.ExamGenerateResponse.ExamQuestion.class), EXAM_QUESTION_TYPE, questions::add);
+                if (questions.isEmpty()) throw new UncheckedIOException(new IOException("시험 문제 생성 결과 없음"));
+                complete.set(result.complete() || questions.size() >= EXAM_QUESTION_COUNT);
+                return new TutorDTO.ExamGenerateResponse(topic + " 평가", questions);
+            }, exam -> complete.get());
+        } catch (UncheckedIOException e) {
             return createFallbackExam(topic);
         }
     }
 
-    @Transactional(readOnly = true)
     public TutorDTO.ExamGenerateResponse generateExam(Long userId, Long planId, int startDay, int endDay) {
         return generateExam(userId, planId);
     }
@@ -315,7 +584,6 @@ public class TutorService {
         return evaluateExam(userId, request);
     }
 
-    @Transactional
     public TutorDTO.ExamResultResponse evaluateExam(Long userId, TutorDTO.ExamSubmitRequest request) {
         StringBuilder summary = new StringBuilder();
         for (TutorDTO.ExamSubmitRequest.SubmittedAnswer ans : request.answers()) {
@@ -330,20 +598,23 @@ public class TutorService {
             JSON: {"totalScore": 0, "isPassed": boolean, "aiComment": "총평", "feedbacks": []}
             """, summary.toString());
 
-        String json = chatModel.call(prompt);
         try {
-            return objectMapper.readValue(cleanJson(json), TutorDTO.ExamResultResponse.class);
+            return structuredOutput.call(AiTask.EXAM_EVALUATION, prompt, TutorDTO.ExamResultResponse.class);
         } catch(Exception e) {
             throw new TutorooException("채점 시스템 오류", ErrorCode.AI_PROCESSING_ERROR);
         }
     }
 
-    @Transactional
-    public TutorDTO.TestFeedbackResponse submitTest(Long userId, Long planId, String textAnswer, MultipartFile image) {
+    public TutorDTO.TestFeedbackResponse submitTest(Long userId, Long planId, String quizId, String textAnswer, MultipartFile image) {
         StudyPlanEntity plan = studyMapper.findById(planId);
         if (plan == null) throw new TutorooException(ErrorCode.STUDY_PLAN_NOT_FOUND);
 
-        String prompt = String.format("""
+        // [채점 프롬프트] 운영 중 수정 가능한 DB 템플릿(TEST_FEEDBACK: 주제, 학생 답안)에 점수 파싱용 응답 형식을 붙임
+        String answerText = textAnswer != null ? textAnswer : "텍스트 답변 없음";
+        PromptTemplate feedbackTemplate = promptRegistry.template(TEST_FEEDBACK_PROMPT_KEY);
+        String prompt = (feedbackTemplate != null && feedbackTemplate.argumentCount() == 2)
+                ? feedbackTemplate.format(plan.getGoal(), answerText) + "\n\n" + TEST_FEEDBACK_RESPONSE_FORMAT
+                : String.format("""
             [답안 채점]
             과목: %s
             학생 답안(텍스트): %s
@@ -351,17 +622,26 @@ public class TutorService {
             학생의 답변을 분석하고 100점 만점으로 채점해줘.
             점수와 함께 구체적인 피드백을 제공해줘.
             
-            응답 형식:
-            점수: [0-100]
-            피드백: [상세한 설명]
-            """,
-                plan.getGoal(),
-                textAnswer != null ? textAnswer : "텍스트 답변 없음"
-        );
-
-        String aiResponse;
+            """, plan.getGoal(), answerText) + TEST_FEEDBACK_RESPONSE_FORMAT;
+
+        String aiResponse = null;
+
+        // [로컬 채점] 마지막으로 출제한 퀴즈의 ID와 같을 때만 저장된 정답 인덱스로 즉시 채점 (AI 호출 X)
+        boolean hasImage = image != null && !image.isEmpty();
+        TutorDTO.DailyTestResponse quiz = (hasImage || quizId == null) ? null : loadDailyQuiz(userId, planId);
+        if (quiz != null && !quizId.equals(quiz.quizId())) quiz = null;
+        if (quiz != null) {
+            aiResponse = objectiveGrader.gradeChoice(quiz.options(), quiz.answerIndex(), textAnswer, null)
+                    .map(result -> String.format("점수: %d\n피드백: %s", result.correct() ? 100 : 0,
+                            result.correct()
+                                    ? "정답입니다! '" + result.correctAnswer() + "'의 개념을 정확히 이해하고 있어요."
+                                    : "아쉽지만 오답이에요. 정답은 '" + result.correctAnswer() + "'입니다. 왜 그런지 한 번 더 복습해봐요."))
+                    .orElse(null);
+        }
 
-        if (image != null && !image.isEmpty()) {
+        if (aiResponse != null) {
+            log.info("✅ 데일리 퀴즈 로컬 채점 (planId: {})", planId);
+        } else if (hasImage) {
             try {
                 String imageUrl = fileStore.storeFile(image.getBytes(),
                         getFileExtension(image.getOriginalFilename()));
@@ -373,14 +653,14 @@ public class TutorService {
                         "학생이 이미지로 제출한 답안을 평가해주세요. " +
                         "이미지의 내용을 추론하여 채점하고, 피드백을 제공해주세요.";
 
-                aiResponse = chatModel.call(promptWithImage);
+                aiResponse = aiGateway.call(AiFeature.GRADING, promptWithImage);
 
             } catch (Exception e) {
                 log.error("테스트 이미지 처리 실패", e);
                 throw new TutorooException("이미지 처리 중 오류가 발생했습니다.", ErrorCode.AI_PROCESSING_ERROR);
             }
         } else {
-            aiResponse = chatModel.call(prompt);
+            aiResponse = aiGateway.call(AiFeature.GRADING, prompt);
         }
 
         int score = parseScore(aiResponse);
@@ -393,6 +673,7 @@ public class TutorService {
                 .isCompleted(score >= 60)
                 .pointChange(score >= 60 ? 50 : 10)
                 .build());
+        if (quiz != null) deleteDailyQuiz(userId, planId);
 
         String audioUrl = requestTts(aiResponse, plan.getPersona());
 
@@ -449,7 +730,7 @@ public class TutorService {
 
     // ✅ 수정: customOption을 실제로 프롬프트에 추가
     private String buildBaseSystemPrompt(StudyPlanEntity plan, String customOption) {
-        String base = commonMapper.findPromptContentByKey("TEACHER_" + plan.getPersona());
+        String base = promptRegistry.content(TEACHER_PROMPT_PREFIX + plan.getPersona());
         if (base == null) base = "너는 열정적인 AI 선생님이야.";
 
         StringBuilder sb = new StringBuilder(base);
@@ -486,11 +767,15 @@ public class TutorService {
     }
 
     private String generateTtsAudio(String text, String personaName) {
+        return generateTtsAudio(text, personaName, AiFeature.TUTORING);
+    }
+
+    private String generateTtsAudio(String text, String personaName, AiFeature feature) {
         try {
-            String hash = generateHash(text + personaName);
+            String hash = Hashes.sha256Hex(text + personaName);
             TtsCacheEntity cached = commonMapper.findTtsCacheByHash(hash);
             if (cached != null) return cached.getAudioPath();
-            SpeechResponse res = speechModel.call(new SpeechPrompt(text, OpenAiAudioSpeechOptions.builder().model("tts-1").voice(OpenAiAudioApi.SpeechRequest.Voice.ALLOY).build()));
+            SpeechResponse res = aiGateway.execute(feature, AiMetrics.Kind.SPEECH, "tts-1", text.length(), () -> speechModel.call(new SpeechPrompt(text, OpenAiAudioSpeechOptions.builder().model("tts-1").voice(OpenAiAudioApi.SpeechRequest.Voice.ALLOY).build())));
             String url = fileStore.storeFile(res.getResult().getOutput(), ".mp3");
             commonMapper.saveTtsCache(TtsCacheEntity.builder().textHash(hash).audioPath(url).build());
             return url;
@@ -504,20 +789,31 @@ public class TutorService {
         return new TutorDTO.ExamGenerateResponse(topic + " 평가", List.of(new TutorDTO.ExamGenerateResponse.ExamQuestion(1, QuestionType.MULTIPLE_CHOICE, "개념 확인", null, null, List.of("O","X"), null)));
     }
 
-    private String cleanJson(String text) {
-        if (text == null) return "{}";
-        String cleaned = text.trim();
-        if (cleaned.startsWith("```json")) cleaned = cleaned.substring(7);
-        if (cleaned.startsWith("```")) cleaned = cleaned.substring(3);
-        if (cleaned.endsWith("```")) cleaned = cleaned.substring(0, cleaned.length() - 3);
-        return cleaned.trim();
+    private void saveDailyQuiz(Long userId, Long planId, TutorDTO.DailyTestResponse quiz) {
+        try {
+            redisTemplate.opsForValue().set(DAILY_QUIZ_KEY_PREFIX + userId + ":" + planId,
+                    objectMapper.writeValueAsString(quiz), DAILY_QUIZ_TTL);
+        } catch (Exception e) {
+            log.warn("데일리 퀴즈 정답 저장 실패 (planId: {}): {}", planId, e.getMessage());
+        }
     }
 
-    private String generateHash(String input) throws Exception {
-        byte[] h = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
-        StringBuilder s = new StringBuilder();
-        for (byte b : h) s.append(String.format("%02x", b));
-        return s.toString();
+    // 채점이 끝난 퀴즈는 지워서 같은 문제를 반복 제출해도 다시 로컬 채점되지 않게 함
+    private void deleteDailyQuiz(Long userId, Long planId) {
+        try {
+            redisTemplate.delete(DAILY_QUIZ_KEY_PREFIX + userId + ":" + planId);
+        } catch (Exception e) {
+            log.warn("데일리 퀴즈 정답 삭제 실패 (planId: {}): {}", planId, e.getMessage());
+        }
+    }
+
+    private TutorDTO.DailyTestResponse loadDailyQuiz(Long userId, Long planId) {
+        try {
+            String json = redisTemplate.opsForValue().get(DAILY_QUIZ_KEY_PREFIX + userId + ":" + planId);
+            return (json != null) ? objectMapper.readValue(json, TutorDTO.DailyTestResponse.class) : null;
+        } catch (Exception e) {
+            return null;
+        }
     }
 
     private int parseScore(String text) {
@@ -541,7 +837,8 @@ public class TutorService {
         try {
             File temp = File.createTempFile("stt", ".webm");
             audio.transferTo(temp);
-            String text = transcriptionModel.call(new AudioTranscriptionPrompt(new FileSystemResource(temp))).getResult().getOutput();
+            String text = aiGateway.execute(AiFeature.TUTORING, AiMetrics.Kind.TRANSCRIPTION, "whisper-1", 0,
+                    () -> transcriptionModel.call(new AudioTranscriptionPrompt(new FileSystemResource(temp)))).getResult().getOutput();
             temp.delete();
             return text;
         } catch (Exception e) {
@@ -564,5 +861,8 @@ public class TutorService {
     }
 
     private record ParsedResponse(String topic, String aiMessage, Map<String, Integer> schedule) {}
+
+    // AI 출제 형식 (출제 ID는 응답할 때 붙임)
+    private record DailyQuiz(String type, String question, String imageUrl, List<String> options, int answerIndex) {}
     private String requestTts(String text, String persona) { return generateTtsAudio(text, persona); }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.tutoroo.util;
+
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * [기능: 해시 전용 블룸 필터]
+ * 설명: "확실히 없음"을 메모리에서 즉시 판정하여 DB 중복 조회를 줄입니다.
+ * 작동원리:
+ * 1. 입력은 SHA-256 등 16진수 다이제스트(32자 이상)이며, 앞 128비트를 두 개의 long으로 나눠 이중 해싱합니다.
+ * 2. mightContain()이 false면 추가된 적 없는 값이고, true면 있을 수도 있는 값입니다. (오탐률 fpp)
+ * 3. 비트 배열은 AtomicLongArray라 여러 스레드가 잠금 없이 동시에 추가/조회할 수 있습니다.
+ */
+public class HashBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public HashBloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, (m + 63) / 64));
+        this.bitCount = (long) bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(String hexDigest) {
+        long h1 = HexFormat.fromHexDigitsToLong(hexDigest, 0, 16);
+        long h2 = HexFormat.fromHexDigitsToLong(hexDigest, 16, 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String hexDigest) {
+        long h1 = HexFormat.fromHexDigitsToLong(hexDigest, 0, 16);
+        long h2 = HexFormat.fromHexDigitsToLong(hexDigest, 16, 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) return false;
+        }
+        return true;
+    }
+}
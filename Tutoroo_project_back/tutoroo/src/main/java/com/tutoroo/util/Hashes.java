@@ -0,0 +1,30 @@
+package com.tutoroo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * [기능: 해시 공용 함수]
+ * 설명: 캐시 키, 중복 판정, 요청 식별에 쓰는 SHA-256 16진수 다이제스트(64자)를 한 곳에서 만듭니다.
+ * HashBloomFilter 입력으로 그대로 쓸 수 있습니다.
+ */
+public final class Hashes {
+
+    private Hashes() {
+    }
+
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            // 모든 JDK가 SHA-256을 제공하므로 발생하지 않음
+            throw new IllegalStateException(e);
+        }
+    }
+}
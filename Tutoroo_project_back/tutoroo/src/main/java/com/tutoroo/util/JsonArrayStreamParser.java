@@ -0,0 +1,78 @@
+package com.tutoroo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [기능: 스트리밍 JSON 배열 분해기]
+ * 설명: 조각(chunk)으로 들어오는 AI 응답에서 첫 번째 JSON 배열의 객체 원소를 닫히는 즉시 하나씩 꺼냅니다.
+ * 작동원리:
+ * 1. 처음 만나는 '['를 대상 배열로 삼습니다. (앞의 ```json 같은 설명 문구나 감싸는 객체는 무시)
+ * 2. 대상 배열 바로 아래의 '{'부터 짝이 맞는 '}'까지를 원소 하나로 잘라 반환합니다. (문자열 안의 괄호/이스케이프 처리)
+ * 3. 응답 끝부분이 깨져도 이미 닫힌 원소는 그대로 남습니다.
+ * 스레드 안전하지 않으며, 응답 1건당 인스턴스 1개를 사용합니다.
+ */
+public class JsonArrayStreamParser {
+
+    private final StringBuilder element = new StringBuilder();
+    private int depth = 0;          // 현재 괄호 깊이
+    private int arrayDepth = -1;    // 대상 배열 안의 깊이 (-1: 아직 못 찾음)
+    private boolean capturing = false;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private boolean complete = false;
+
+    /**
+     * 조각을 넣고, 이번 조각에서 완성된 객체 원소(JSON 문자열)를 반환합니다.
+     */
+    public List<String> feed(CharSequence chunk) {
+        List<String> completed = new ArrayList<>();
+        if (chunk == null || complete) return completed;
+
+        for (int i = 0; i < chunk.length() && !complete; i++) {
+            char c = chunk.charAt(i);
+            if (capturing) element.append(c);
+
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (c == '\\') escaped = true;
+                else if (c == '"') inString = false;
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    if (depth > 0) inString = true;
+                }
+                case '[', '{' -> {
+                    if (c == '{' && depth == arrayDepth && !capturing) {
+                        capturing = true;
+                        element.setLength(0);
+                        element.append(c);
+                    }
+                    depth++;
+                    if (c == '[' && arrayDepth < 0) arrayDepth = depth;
+                }
+                case ']', '}' -> {
+                    if (depth == 0) continue;
+                    depth--;
+                    if (capturing && depth == arrayDepth) {
+                        completed.add(element.toString());
+                        element.setLength(0);
+                        capturing = false;
+                    }
+                    if (arrayDepth > 0 && depth < arrayDepth) complete = true;
+                }
+                default -> { }
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * 대상 배열이 정상적으로 닫혔는지 여부
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,122 @@
+package com.tutoroo.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * [기능: AI 응답 JSON 복구기]
+ * 설명: 재호출 없이 흔한 AI 출력 오류를 로컬에서 고칩니다.
+ * 처리 범위:
+ * 1. 앞뒤 설명 문구 / ```json 코드 블록 제거 (첫 '{' 또는 '['부터 짝이 맞는 닫는 괄호까지)
+ * 2. 닫는 괄호 앞의 쉼표 제거 ([1, 2,] / {"a": 1,})
+ * 3. 중간에 잘린 응답: 값 문자열이 잘렸으면 닫아서 살리고, 키/숫자/true 등 미완성 항목은 버린 뒤 열린 괄호를 모두 닫음
+ * JSON으로 보이는 부분이 없으면 원문(trim)을 그대로 반환합니다. (파싱 오류는 호출부에서 처리)
+ */
+public final class JsonRepair {
+
+    private JsonRepair() {}
+
+    public static String repair(String text) {
+        if (text == null) return "{}";
+        int start = firstBracket(text);
+        if (start < 0) return text.trim();
+
+        StringBuilder out = new StringBuilder(text.length() + 8);
+        Deque<Frame> stack = new ArrayDeque<>();
+        boolean inString = false;
+        boolean escaped = false;
+        boolean stringIsKey = false;
+        int safeLength = 0; // 여기까지 자르면 괄호만 닫아 유효한 JSON이 되는 위치
+
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (inString) {
+                out.append(c);
+                if (escaped) escaped = false;
+                else if (c == '\\') escaped = true;
+                else if (c == '"') {
+                    inString = false;
+                    if (!stringIsKey) safeLength = out.length();
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    stringIsKey = !stack.isEmpty() && stack.peek().object && stack.peek().expectKey;
+                    out.append(c);
+                }
+                case '{', '[' -> {
+                    stack.push(new Frame(c == '{'));
+                    out.append(c);
+                    safeLength = out.length();
+                }
+                case '}', ']' -> {
+                    if (stack.isEmpty()) continue;
+                    dropTrailingComma(out);
+                    out.append(stack.pop().object ? '}' : ']');
+                    safeLength = out.length();
+                    if (stack.isEmpty()) return out.toString();
+                }
+                case ':' -> {
+                    if (!stack.isEmpty()) stack.peek().expectKey = false;
+                    out.append(c);
+                }
+                case ',' -> {
+                    // 쉼표 앞까지는 완성된 값
+                    safeLength = trimmedLength(out);
+                    if (!stack.isEmpty() && stack.peek().object) stack.peek().expectKey = true;
+                    out.append(c);
+                }
+                default -> out.append(c);
+            }
+        }
+
+        // 여기까지 왔으면 응답이 중간에 잘린 것
+        if (inString && !stringIsKey) {
+            if (escaped) out.setLength(out.length() - 1);
+            out.append('"');
+            safeLength = out.length();
+        }
+        out.setLength(safeLength);
+        dropTrailingComma(out);
+        while (!stack.isEmpty()) {
+            out.append(stack.pop().object ? '}' : ']');
+        }
+        return out.toString();
+    }
+
+    private static int firstBracket(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' || c == '[') return i;
+        }
+        return -1;
+    }
+
+    private static void dropTrailingComma(StringBuilder out) {
+        out.setLength(trimmedLength(out));
+        if (out.length() > 0 && out.charAt(out.length() - 1) == ',') {
+            out.setLength(out.length() - 1);
+            out.setLength(trimmedLength(out));
+        }
+    }
+
+    private static int trimmedLength(StringBuilder out) {
+        int length = out.length();
+        while (length > 0 && Character.isWhitespace(out.charAt(length - 1))) length--;
+        return length;
+    }
+
+    private static final class Frame {
+        private final boolean object;
+        private boolean expectKey;
+
+        private Frame(boolean object) {
+            this.object = object;
+            this.expectKey = object;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.tutoroo.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * [기능: MinHash 유사도 서명]
+ * 설명: 질문 문장을 글자 k-gram(shingle) 집합으로 보고, 두 집합의 자카드 유사도를 짧은 서명으로 추정합니다.
+ *       임베딩 서비스 없이 "거의 같은 질문"(조사/띄어쓰기/문장부호 차이)을 찾는 용도입니다.
+ * 작동원리:
+ * 1. normalize: 유니코드 정규화(NFKC) + 소문자 + 글자/숫자만 남김 ("자바 변수가 뭐야?" -> "자바변수가뭐야")
+ * 2. signature: 해시 함수 numHashes개 각각에 대해 모든 shingle 해시의 최솟값을 서명으로 씁니다.
+ * 3. similarity: 서명 자리가 같은 비율 = 자카드 유사도 추정치
+ * 4. bandKeys: 서명을 band 단위로 잘라 해시한 값 (LSH, 비슷한 질문은 적어도 한 band가 같을 확률이 높음)
+ * 해시 시드는 고정값이라 서버가 달라도 같은 문장은 같은 서명이 나옵니다.
+ */
+public final class MinHash {
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final int numHashes;
+    private final int shingleSize;
+    private final long[] seeds;
+
+    public MinHash(int numHashes, int shingleSize) {
+        if (numHashes <= 0 || shingleSize <= 0) {
+            throw new IllegalArgumentException("numHashes/shingleSize must be positive");
+        }
+        this.numHashes = numHashes;
+        this.shingleSize = shingleSize;
+        this.seeds = new long[numHashes];
+        long state = SEED;
+        for (int i = 0; i < numHashes; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            seeds[i] = mix(state);
+        }
+    }
+
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder sb = new StringBuilder(normalized.length());
+        normalized.codePoints()
+                .filter(Character::isLetterOrDigit)
+                .forEach(sb::appendCodePoint);
+        return sb.toString();
+    }
+
+    /**
+     * @param normalized normalize()를 거친 문장 (shingleSize보다 짧으면 문장 전체를 shingle 1개로 사용)
+     */
+    public int[] signature(String normalized) {
+        int[] signature = new int[numHashes];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, normalized.length() - shingleSize + 1);
+        for (int s = 0; s < shingles; s++) {
+            long shingleHash = fnv1a(normalized, s, Math.min(normalized.length(), s + shingleSize));
+            for (int i = 0; i < numHashes; i++) {
+                int h = (int) (mix(shingleHash ^ seeds[i]) >>> 33);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    public static double similarity(int[] a, int[] b) {
+        if (a.length != b.length || a.length == 0) return 0;
+        int same = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / a.length;
+    }
+
+    /**
+     * @return band별 키 ("band번호:해시"), numHashes가 bands로 나누어떨어지지 않으면 남는 자리는 버림
+     */
+    public static String[] bandKeys(int[] signature, int bands) {
+        int rows = signature.length / bands;
+        String[] keys = new String[bands];
+        for (int b = 0; b < bands; b++) {
+            long h = 0xcbf29ce484222325L;
+            for (int r = b * rows; r < (b + 1) * rows; r++) {
+                h = mix(h ^ signature[r]);
+            }
+            keys[b] = b + ":" + HexFormat.of().toHexDigits(h);
+        }
+        return keys;
+    }
+
+    private static long fnv1a(String text, int from, int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
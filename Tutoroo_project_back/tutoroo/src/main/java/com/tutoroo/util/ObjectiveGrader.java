@@ -0,0 +1,170 @@
+package com.tutoroo.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * [기능: 객관식/단답형 로컬 채점 엔진]
+ * 설명: 출제 시 저장된 정답(answer/answerIndex)으로 객관식, O/X, 숫자, 단답형을 AI 호출 없이 즉시 채점합니다.
+ * 작동원리:
+ * 1. 객관식: 보기 번호(0/1부터, A~E, ①~⑤) 또는 보기 문장으로 정답 보기를 찾아 비교합니다.
+ * 2. O/X: 참/거짓 표현(O, X, 맞다, 틀리다, true, false 등)을 통일해 비교합니다.
+ * 3. 숫자: 쉼표/공백을 무시하고 값(분수 포함)으로 비교하며, 단위가 있으면 단위도 맞아야 합니다.
+ * 4. 단답형: 대소문자/공백/문장부호를 무시하고 같으면 정답입니다. (다르면 동의어 가능성이 있으므로 판정 보류)
+ * 판정할 수 없으면 Optional.empty()를 반환하고, 호출 측은 AI 채점으로 넘깁니다. (서술형, 코드, 시각 자료 등)
+ * 지표: grading.requests{engine=local|llm}
+ */
+@Component
+public class ObjectiveGrader {
+
+    private static final Set<String> LOCAL_TYPES = Set.of("MULTIPLE_CHOICE", "SHORT_ANSWER");
+    private static final Set<String> TRUE_WORDS = Set.of("o", "ㅇ", "참", "맞다", "맞음", "true", "t", "yes", "예", "네");
+    private static final Set<String> FALSE_WORDS = Set.of("x", "거짓", "틀리다", "틀림", "false", "f", "no", "아니오", "아니요");
+    private static final Pattern NUMBER = Pattern.compile("^(-?\\d+(?:\\.\\d+)?)(?:/(\\d+))?(\\D*)$");
+    private static final Pattern OPTION_PREFIX = Pattern.compile("^(?:[A-Ea-e]|[1-9])[.)]\\s*|^[①②③④⑤]\\s*");
+    private static final String CIRCLED = "①②③④⑤";
+
+    private final MeterRegistry meterRegistry;
+
+    public ObjectiveGrader(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * [문제은행 문항] 저장된 정답 문자열(answer) 기준 채점
+     */
+    public Optional<Result> grade(String questionType, List<String> options, String answerKey,
+                                  String answerText, Integer selectedIndex) {
+        Optional<Result> result = Optional.empty();
+        if (questionType != null && LOCAL_TYPES.contains(questionType) && StringUtils.hasText(answerKey)) {
+            Integer keyIndex = resolveOption(options, answerKey, false);
+            // 보기를 골랐는데 정답이 어느 보기인지 모르면 판정 보류 (답안 텍스트만으로 채점하면 오답 처리될 수 있음)
+            if (keyIndex != null) {
+                result = gradeByIndex(options, keyIndex, answerText, selectedIndex);
+            } else if (selectedIndex == null) {
+                result = gradeText(answerKey, answerText);
+            }
+        }
+        record(result);
+        return result;
+    }
+
+    /**
+     * [데일리 퀴즈] 정답 인덱스(answerIndex) 기준 채점
+     */
+    public Optional<Result> gradeChoice(List<String> options, int answerIndex, String answerText, Integer selectedIndex) {
+        Optional<Result> result = (options != null && answerIndex >= 0 && answerIndex < options.size())
+                ? gradeByIndex(options, answerIndex, answerText, selectedIndex)
+                : Optional.empty();
+        record(result);
+        return result;
+    }
+
+    // --- Private Helpers ---
+
+    private Optional<Result> gradeByIndex(List<String> options, int keyIndex, String answerText, Integer selectedIndex) {
+        Integer chosen = (selectedIndex != null) ? selectedIndex : resolveOption(options, answerText, true);
+        if (chosen == null) return Optional.empty();
+        return Optional.of(new Result(chosen == keyIndex, options.get(keyIndex)));
+    }
+
+    // 보기 문장 일치 -> 보기 기호(A, ①) -> 번호(1부터) 순으로 보기 위치를 찾음
+    private Integer resolveOption(List<String> options, String text, boolean allowNumber) {
+        if (options == null || options.isEmpty() || !StringUtils.hasText(text)) return null;
+
+        String normalized = normalize(text);
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            if (option == null) continue;
+            if (normalize(option).equals(normalized) || normalize(stripOptionPrefix(option)).equals(normalized)) return i;
+        }
+
+        String trimmed = text.trim();
+        if (trimmed.length() == 1) {
+            char c = Character.toUpperCase(trimmed.charAt(0));
+            int index = -1;
+            if (c >= 'A' && c <= 'E') index = c - 'A';
+            else if (CIRCLED.indexOf(c) >= 0) index = CIRCLED.indexOf(c);
+            else if (allowNumber && c >= '1' && c <= '9') index = c - '1';
+            if (index >= 0 && index < options.size()) return index;
+        }
+        return null;
+    }
+
+    private Optional<Result> gradeText(String answerKey, String answerText) {
+        if (!StringUtils.hasText(answerText)) return Optional.of(new Result(false, answerKey));
+
+        // 1. O/X
+        Boolean keyTruth = toTruth(answerKey);
+        if (keyTruth != null) {
+            Boolean studentTruth = toTruth(answerText);
+            return (studentTruth == null) ? Optional.empty() : Optional.of(new Result(keyTruth.equals(studentTruth), answerKey));
+        }
+
+        // 2. 숫자
+        Matcher keyNumber = NUMBER.matcher(compact(answerKey));
+        if (keyNumber.matches()) {
+            Matcher studentNumber = NUMBER.matcher(compact(answerText));
+            if (!studentNumber.matches()) return Optional.empty();
+
+            String keyUnit = keyNumber.group(3).toLowerCase();
+            String studentUnit = studentNumber.group(3).toLowerCase();
+            boolean unitOk = studentUnit.isEmpty() || studentUnit.equals(keyUnit);
+            return Optional.of(new Result(unitOk && toNumber(keyNumber).compareTo(toNumber(studentNumber)) == 0, answerKey));
+        }
+
+        // 3. 단답형 (정규화 후 일치할 때만 확정)
+        return normalize(answerKey).equals(normalize(answerText))
+                ? Optional.of(new Result(true, answerKey))
+                : Optional.empty();
+    }
+
+    private Boolean toTruth(String text) {
+        String word = normalize(text);
+        if (TRUE_WORDS.contains(word)) return true;
+        if (FALSE_WORDS.contains(word)) return false;
+        return null;
+    }
+
+    private BigDecimal toNumber(Matcher m) {
+        BigDecimal value = new BigDecimal(m.group(1));
+        if (m.group(2) != null) value = value.divide(new BigDecimal(m.group(2)), MathContext.DECIMAL64);
+        return value.round(MathContext.DECIMAL64).stripTrailingZeros();
+    }
+
+    private String stripOptionPrefix(String option) {
+        return OPTION_PREFIX.matcher(option.trim()).replaceFirst("");
+    }
+
+    private String compact(String text) {
+        return text.trim().replace(",", "").replaceAll("\\s+", "");
+    }
+
+    // 전각/반각 통일(NFKC) + 소문자 + 공백/문장부호 제거
+    private String normalize(String text) {
+        if (text == null) return "";
+        return Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .toLowerCase()
+                .replaceAll("[\\s\\p{Punct}]", "");
+    }
+
+    private void record(Optional<Result> result) {
+        meterRegistry.counter("grading.requests", "engine", result.isPresent() ? "local" : "llm").increment();
+    }
+
+    /**
+     * @param correct       정답 여부
+     * @param correctAnswer 정답 (해설 표시용)
+     */
+    public record Result(boolean correct, String correctAnswer) {}
+}
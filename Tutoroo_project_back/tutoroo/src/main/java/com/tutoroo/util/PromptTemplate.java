@@ -0,0 +1,76 @@
+package com.tutoroo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [기능: 미리 분석해 둔 프롬프트 템플릿]
+ * 설명: String.format은 호출할 때마다 서식 문자열을 다시 분석합니다. 이 클래스는 한 번만 분석해
+ *       고정 문구와 인자 자리(%s, %d)를 나눠 두고, 호출 시에는 이어 붙이기만 합니다.
+ * 지원 서식: %s, %d, %% , %n (그 외 서식(%.2f 등)이 있으면 String.format으로 처리)
+ * 불변 객체라 여러 스레드가 함께 사용해도 안전합니다.
+ */
+public final class PromptTemplate {
+
+    private final String source;
+    private final String[] literals;   // 인자 자리 사이의 고정 문구 (인자 수 + 1개)
+    private final boolean simple;      // false: 지원하지 않는 서식이 있어 String.format 사용
+
+    private PromptTemplate(String source, String[] literals, boolean simple) {
+        this.source = source;
+        this.literals = literals;
+        this.simple = simple;
+    }
+
+    public static PromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c != '%') {
+                current.append(c);
+                continue;
+            }
+            char next = (i + 1 < source.length()) ? source.charAt(i + 1) : '\0';
+            switch (next) {
+                case 's', 'd' -> {
+                    literals.add(current.toString());
+                    current.setLength(0);
+                }
+                case '%' -> current.append('%');
+                case 'n' -> current.append(System.lineSeparator());
+                default -> {
+                    return new PromptTemplate(source, null, false);
+                }
+            }
+            i++;
+        }
+        literals.add(current.toString());
+        return new PromptTemplate(source, literals.toArray(String[]::new), true);
+    }
+
+    /**
+     * 원문 (서식 문자 그대로)
+     */
+    public String source() {
+        return source;
+    }
+
+    public int argumentCount() {
+        return simple ? literals.length - 1 : -1;
+    }
+
+    public String format(Object... args) {
+        if (!simple) return String.format(source, args);
+        if (args.length < literals.length - 1) {
+            throw new IllegalArgumentException("프롬프트 인자 부족: " + args.length + " < " + (literals.length - 1));
+        }
+
+        StringBuilder sb = new StringBuilder(source.length() + 256);
+        sb.append(literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            sb.append(args[i - 1]).append(literals[i]);
+        }
+        return sb.toString();
+    }
+}
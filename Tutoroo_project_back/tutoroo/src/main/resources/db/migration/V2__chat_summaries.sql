@@ -0,0 +1,10 @@
+-- =====================================================
+-- [V2] 튜터 채팅 대화 요약 (Rolling Summary)
+-- 오래된 대화는 요약본으로 접고, 프롬프트에는 요약 + 최근 대화만 싣는다.
+-- =====================================================
+CREATE TABLE IF NOT EXISTS `chat_summaries` (
+                                                `plan_id`         BIGINT PRIMARY KEY,
+                                                `summary`         TEXT NOT NULL,
+                                                `last_message_id` BIGINT NOT NULL COMMENT '요약에 반영된 마지막 chat_messages.id',
+                                                `updated_at`      DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
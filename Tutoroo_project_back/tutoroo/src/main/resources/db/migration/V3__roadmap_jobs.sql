@@ -0,0 +1,22 @@
+-- =====================================================
+-- [V3] 로드맵 생성 비동기 작업 (Roadmap Jobs)
+-- 수십 초 걸리는 분석 + 로드맵 생성을 HTTP 요청에서 분리한다.
+-- 상태: PENDING -> RUNNING -> COMPLETED / FAILED
+-- =====================================================
+CREATE TABLE IF NOT EXISTS `roadmap_jobs` (
+                                              `id`            VARCHAR(36) PRIMARY KEY COMMENT '작업 ID (UUID)',
+                                              `user_id`       BIGINT NOT NULL,
+                                              `status`        VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+                                              `request_hash`  CHAR(64) NOT NULL COMMENT '같은 상담 결과 재제출 감지용 (SHA-256)',
+                                              `request_json`  MEDIUMTEXT NOT NULL,
+                                              `result_json`   MEDIUMTEXT NULL,
+                                              `plan_id`       BIGINT NULL,
+                                              `error_code`    VARCHAR(10) NULL,
+                                              `error_message` VARCHAR(500) NULL,
+                                              `attempts`      INT NOT NULL DEFAULT 0,
+                                              `created_at`    DATETIME DEFAULT CURRENT_TIMESTAMP,
+                                              `updated_at`    DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                                              INDEX `idx_roadmap_jobs_user_request` (`user_id`, `request_hash`),
+                                              INDEX `idx_roadmap_jobs_status` (`status`, `updated_at`),
+                                              FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,30 @@
+-- =====================================================
+-- [V4] 실전 문제은행 (Question Bank)
+-- 같은 목표(goal_key) + 난이도의 문제를 플랜 간에 공유하는 풀로 사용한다.
+-- goal_key: 학습 목표를 소문자/공백 정리 후 SHA-256 (QuestionBankService.goalKey와 동일 규칙)
+-- =====================================================
+ALTER TABLE `practice_questions`
+    ADD COLUMN `goal_key` CHAR(64) NULL COMMENT '문제은행 풀 키 (학습 목표 해시)' AFTER `plan_id`,
+    ADD INDEX `idx_practice_pool` (`goal_key`, `difficulty`);
+
+UPDATE `practice_questions` q
+    JOIN `study_plans` p ON q.plan_id = p.id
+SET q.goal_key = SHA2(LOWER(TRIM(p.goal)), 256)
+WHERE q.goal_key IS NULL;
+
+-- =====================================================
+-- 문제 노출 기록: 한 번 출제된 문제는 같은 학생에게 다시 내지 않는다.
+-- =====================================================
+CREATE TABLE IF NOT EXISTS `practice_question_views` (
+                                                         `user_id`       BIGINT NOT NULL,
+                                                         `question_id`   BIGINT NOT NULL,
+                                                         `served_at`     DATETIME DEFAULT CURRENT_TIMESTAMP,
+                                                         PRIMARY KEY (`user_id`, `question_id`),
+                                                         FOREIGN KEY (`question_id`) REFERENCES `practice_questions`(`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 기존 풀이 기록은 이미 본 문제로 간주
+INSERT IGNORE INTO `practice_question_views` (`user_id`, `question_id`, `served_at`)
+SELECT `user_id`, `question_id`, MIN(`solved_at`)
+FROM `practice_logs`
+GROUP BY `user_id`, `question_id`;
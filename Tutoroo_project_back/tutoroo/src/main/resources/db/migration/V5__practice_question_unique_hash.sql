@@ -0,0 +1,31 @@
+-- =====================================================
+-- [V5] 실전 문제 content_hash 유니크 제약
+-- 중복 확인(count) 후 INSERT 하던 방식은 노드 간 경합 시 같은 문제가 두 번 저장될 수 있었다.
+-- 기존 중복은 가장 먼저 저장된 문제(MIN(id))로 풀이/노출 기록을 옮긴 뒤 삭제한다.
+-- =====================================================
+CREATE TEMPORARY TABLE `tmp_duplicate_questions` AS
+SELECT q.id AS duplicate_id, k.keep_id
+FROM `practice_questions` q
+    JOIN (SELECT content_hash, MIN(id) AS keep_id
+          FROM `practice_questions`
+          GROUP BY content_hash
+          HAVING COUNT(*) > 1) k
+        ON q.content_hash = k.content_hash AND q.id <> k.keep_id;
+
+UPDATE `practice_logs` l
+    JOIN `tmp_duplicate_questions` d ON l.question_id = d.duplicate_id
+SET l.question_id = d.keep_id;
+
+INSERT IGNORE INTO `practice_question_views` (`user_id`, `question_id`, `served_at`)
+SELECT v.user_id, d.keep_id, v.served_at
+FROM `practice_question_views` v
+    JOIN `tmp_duplicate_questions` d ON v.question_id = d.duplicate_id;
+
+DELETE q FROM `practice_questions` q
+    JOIN `tmp_duplicate_questions` d ON q.id = d.duplicate_id;
+
+DROP TEMPORARY TABLE `tmp_duplicate_questions`;
+
+ALTER TABLE `practice_questions`
+    DROP INDEX `idx_content_hash`,
+    ADD UNIQUE INDEX `uk_content_hash` (`content_hash`);
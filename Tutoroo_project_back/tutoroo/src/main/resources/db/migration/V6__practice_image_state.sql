@@ -0,0 +1,6 @@
+-- =====================================================
+-- [V6] 실전 문제 이미지 상태
+-- 이미지는 출제 후 비동기로 생성한다. image_url: NULL = 생성 대기, '' = 이미지 없음, 그 외 = 완성된 이미지
+-- 기존 문제는 출제 시점에 이미지 생성이 끝났으므로 NULL을 '이미지 없음'으로 바꾼다.
+-- =====================================================
+UPDATE `practice_questions` SET `image_url` = '' WHERE `image_url` IS NULL;
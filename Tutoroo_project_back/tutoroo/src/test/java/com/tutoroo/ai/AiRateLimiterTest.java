@@ -0,0 +1,160 @@
+package com.tutoroo.ai;
+
+import com.tutoroo.entity.MembershipTier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 토큰 버킷 스크립트에 넘기는 키/용량/충전 속도와, 스크립트 결과를 허용/거절 결정으로 바꾸는 부분을 확인합니다.
+ * (Lua 스크립트 자체는 Redis가 있어야 실행되므로 여기서는 RedisTemplate을 목으로 대신합니다)
+ */
+class AiRateLimiterTest {
+
+    private static final AiRateLimitProperties.Quota QUOTA = new AiRateLimitProperties.Quota(6, 3, 36_000);
+
+    private RedisTemplate<String, String> redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private AiRateLimiter limiter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = limiter(true, QUOTA);
+    }
+
+    @Test
+    void passesBucketKeysAndRefillRatesPerMillisecond() {
+        Object[][] captured = new Object[1][];
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            captured[0] = invocation.getArguments();
+            return List.of(1L, 0L, 2L, 0L);
+        });
+
+        limiter.tryAcquire(7L, MembershipTier.BASIC, AiFeature.GRADING);
+
+        Object[] arguments = captured[0];
+        assertEquals(List.of("ratelimit:ai:{7}:BASIC:GRADING:requests", "ratelimit:ai:{7}:BASIC:GRADING:tokens"), arguments[1]);
+        List<Object> argv = Arrays.asList(arguments).subList(2, arguments.length);
+        assertEquals("3", argv.get(0));                                              // burst가 용량
+        assertEquals(6.0, Double.parseDouble((String) argv.get(1)) * 60_000, 1e-9);   // 분당 6개
+        assertEquals("36000", argv.get(2));
+        assertEquals(36_000.0, Double.parseDouble((String) argv.get(3)) * 3_600_000, 1e-6);
+    }
+
+    @Test
+    void allowedResultCarriesRemainingAndLease() {
+        scriptReturns(List.of(1L, 0L, 2L, 0L));
+
+        AiRateLimiter.Decision decision = limiter.tryAcquire(7L, MembershipTier.BASIC, AiFeature.GRADING);
+
+        assertTrue(decision.allowed());
+        assertEquals(2, decision.remaining());
+        assertNotNull(decision.lease());
+        assertEquals("ratelimit:ai:{7}:BASIC:GRADING:tokens", decision.lease().tokenKey());
+    }
+
+    @Test
+    void rejectedResultReportsWaitAndReason() {
+        scriptReturns(List.of(0L, 1_500L, 0L, 2L));
+
+        AiRateLimiter.Decision decision = limiter.tryAcquire(7L, MembershipTier.PREMIUM, AiFeature.TUTORING);
+
+        assertFalse(decision.allowed());
+        assertEquals(2, decision.retryAfterSeconds());
+        assertNull(decision.lease());
+        assertEquals(1.0, meterRegistry.counter("ai.ratelimit.rejected",
+                "feature", "tutoring", "tier", "PREMIUM", "reason", "tokens").count());
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() {
+        assertEquals(1, new AiRateLimiter.Decision(false, 0, 0, null).retryAfterSeconds());
+        assertEquals(1, new AiRateLimiter.Decision(false, 1_000, 0, null).retryAfterSeconds());
+        assertEquals(2, new AiRateLimiter.Decision(false, 1_001, 0, null).retryAfterSeconds());
+    }
+
+    @Test
+    void redisFailureOrMissingResultFailsOpen() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        assertUnlimited(limiter.tryAcquire(7L, MembershipTier.BASIC, AiFeature.GRADING));
+
+        scriptReturns(null);
+        assertUnlimited(limiter.tryAcquire(7L, MembershipTier.BASIC, AiFeature.GRADING));
+    }
+
+    @Test
+    void noQuotaOrDisabledSkipsRedis() {
+        assertUnlimited(limiter(true, null).tryAcquire(7L, MembershipTier.BASIC, AiFeature.GRADING));
+        assertUnlimited(limiter(false, QUOTA).tryAcquire(7L, MembershipTier.BASIC, AiFeature.GRADING));
+        assertUnlimited(limiter(true, new AiRateLimitProperties.Quota(0, 0, 0))
+                .tryAcquire(7L, MembershipTier.BASIC, AiFeature.GRADING));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void debitSkipsWhenNothingToSettle() {
+        AiRateLimiter.Lease untracked = new AiRateLimiter.Lease("k", new AiRateLimitProperties.Quota(6, 0, 0));
+
+        limiter.debitTokens(null, 100);
+        limiter.debitTokens(untracked, 100);
+        limiter.debitTokens(new AiRateLimiter.Lease("k", QUOTA), 0);
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void debitPassesUsedTokens() {
+        Object[][] captured = new Object[1][];
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            captured[0] = invocation.getArguments();
+            return 0L;
+        });
+
+        limiter.debitTokens(new AiRateLimiter.Lease("ratelimit:ai:{7}:BASIC:GRADING:tokens", QUOTA), 1_234);
+
+        assertEquals(List.of("ratelimit:ai:{7}:BASIC:GRADING:tokens"), captured[0][1]);
+        assertEquals("36000", captured[0][2]);
+        assertEquals("1234", captured[0][4]);
+    }
+
+    private AiRateLimiter limiter(boolean enabled, AiRateLimitProperties.Quota quota) {
+        Map<MembershipTier, Map<AiFeature, AiRateLimitProperties.Quota>> tiers = (quota == null) ? Map.of()
+                : Map.of(MembershipTier.BASIC, Map.of(AiFeature.GRADING, quota),
+                         MembershipTier.PREMIUM, Map.of(AiFeature.TUTORING, quota));
+        return new AiRateLimiter(redisTemplate, new AiRateLimitProperties(enabled, tiers), meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scriptReturns(List<Long> result) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(result);
+    }
+
+    private static void assertUnlimited(AiRateLimiter.Decision decision) {
+        assertTrue(decision.allowed());
+        assertEquals(-1, decision.remaining());
+        assertNull(decision.lease());
+    }
+}
@@ -0,0 +1,385 @@
+package com.tutoroo.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * [기능: 로컬 OpenAI 대역 서버 (테스트/부하 테스트용)]
+ * 설명: Spring AI OpenAI 클라이언트(Chat/TTS/STT/Image)의 base-url을 이 서버로 돌리면 실제 API 없이 전체 흐름을 돌릴 수 있습니다.
+ * 지원 엔드포인트: /v1/chat/completions (일반 + 스트리밍), /v1/audio/speech, /v1/audio/transcriptions, /v1/images/generations
+ * 작동원리:
+ * 1. 응답: Chat은 요청(JSON)을 받아 내용을 만드는 템플릿 함수, 나머지는 고정 응답을 돌려줍니다.
+ * 2. 지연: 첫 바이트까지의 지연 분포(고정/균등/로그정규)와 스트리밍 토큰 간격을 설정합니다.
+ * 3. 오류: 설정한 비율로 429(Retry-After 포함)/5xx를 돌려줍니다.
+ * 4. 녹화/재생: record()는 실제 API로 대신 요청해 응답을 파일로 남기고, replay()는 같은 요청에 저장된 응답을 돌려줍니다.
+ * 난수는 seed로 고정되어 같은 설정이면 같은 순서의 지연/오류가 재현됩니다.
+ *
+ * 사용 예 (애플리케이션을 대역 서버로 연결):
+ *   java -cp target/test-classes:target/classes:... com.tutoroo.ai.FakeOpenAiServer 18080
+ *   spring.ai.openai.base-url=http://localhost:18080
+ */
+public final class FakeOpenAiServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+
+    // 1x1 투명 PNG (이미지 응답용)
+    private static final byte[] PNG = Base64.getDecoder().decode(
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==");
+
+    private final Builder config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient upstreamClient = HttpClient.newHttpClient();
+    private final Random random;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+
+    private FakeOpenAiServer(Builder config) throws IOException {
+        this.config = config;
+        this.random = new Random(config.seed);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", config.port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public FakeOpenAiServer start() {
+        server.start();
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long requestCount(String path) {
+        AtomicLong count = requestCounts.get(path);
+        return (count == null) ? 0 : count.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // =========================================================================
+    // [요청 처리]
+    // =========================================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            requestCounts.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet();
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            // 1. 재생 / 녹화
+            String key = recordKey(exchange, path, body);
+            if (config.replayDir != null && replay(exchange, key)) return;
+            if (config.upstream != null) {
+                proxyAndRecord(exchange, path, body, key);
+                return;
+            }
+
+            // 2. 지연 + 오류 주입
+            sleep(config.latency.sample(random));
+            if (config.errorRate > 0 && random.nextDouble() < config.errorRate) {
+                sendError(exchange, config.errorStatus);
+                return;
+            }
+
+            // 3. 엔드포인트별 응답
+            if (path.endsWith("/chat/completions")) chat(exchange, MAPPER.readTree(body));
+            else if (path.endsWith("/audio/speech")) send(exchange, 200, "audio/mpeg", config.speechAudio);
+            else if (path.endsWith("/audio/transcriptions")) sendJson(exchange, MAPPER.createObjectNode().put("text", config.transcript));
+            else if (path.endsWith("/images/generations")) image(exchange, MAPPER.readTree(body));
+            else if (path.startsWith("/files/")) send(exchange, 200, "image/png", PNG);
+            else sendError(exchange, 404);
+        } catch (Exception e) {
+            // 클라이언트가 먼저 끊은 경우 등 (부하 테스트 중 정상 상황)
+        }
+    }
+
+    private void chat(HttpExchange exchange, JsonNode request) throws IOException {
+        String model = request.path("model").asText("gpt-4o");
+        String content = config.chatContent.apply(request);
+        String id = "chatcmpl-fake-" + sequence.incrementAndGet();
+        long created = System.currentTimeMillis() / 1000;
+
+        if (!request.path("stream").asBoolean(false)) {
+            ObjectNode response = MAPPER.createObjectNode()
+                    .put("id", id).put("object", "chat.completion").put("created", created).put("model", model);
+            ObjectNode choice = response.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop");
+            choice.putObject("message").put("role", "assistant").put("content", content);
+            response.set("usage", usage(request, content));
+            sendJson(exchange, response);
+            return;
+        }
+
+        // 스트리밍: 단어 단위 토큰을 tokenDelay 간격으로 전송
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        List<String> tokens = tokenize(content);
+        for (int i = 0; i < tokens.size(); i++) {
+            ObjectNode delta = MAPPER.createObjectNode().put("content", tokens.get(i));
+            if (i == 0) delta.put("role", "assistant");
+            writeChunk(out, id, created, model, delta, null);
+            sleep(config.tokenDelay);
+        }
+        writeChunk(out, id, created, model, MAPPER.createObjectNode(), "stop");
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void writeChunk(OutputStream out, String id, long created, String model, ObjectNode delta, String finishReason) throws IOException {
+        ObjectNode chunk = MAPPER.createObjectNode()
+                .put("id", id).put("object", "chat.completion.chunk").put("created", created).put("model", model);
+        ObjectNode choice = chunk.putArray("choices").addObject().put("index", 0);
+        choice.set("delta", delta);
+        if (finishReason == null) choice.putNull("finish_reason");
+        else choice.put("finish_reason", finishReason);
+        out.write(("data: " + MAPPER.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void image(HttpExchange exchange, JsonNode request) throws IOException {
+        int count = Math.max(1, request.path("n").asInt(1));
+        ObjectNode response = MAPPER.createObjectNode().put("created", System.currentTimeMillis() / 1000);
+        ArrayNode data = response.putArray("data");
+        boolean base64 = "b64_json".equals(request.path("response_format").asText());
+        for (int i = 0; i < count; i++) {
+            ObjectNode image = data.addObject().put("revised_prompt", request.path("prompt").asText());
+            if (base64) image.put("b64_json", Base64.getEncoder().encodeToString(PNG));
+            else image.put("url", baseUrl() + "/files/fake-" + sequence.incrementAndGet() + ".png");
+        }
+        sendJson(exchange, response);
+    }
+
+    private ObjectNode usage(JsonNode request, String content) {
+        int promptTokens = 0;
+        for (JsonNode message : request.path("messages")) {
+            promptTokens += tokenize(message.path("content").asText()).size() + 4;
+        }
+        int completionTokens = tokenize(content).size();
+        return MAPPER.createObjectNode()
+                .put("prompt_tokens", promptTokens)
+                .put("completion_tokens", completionTokens)
+                .put("total_tokens", promptTokens + completionTokens);
+    }
+
+    // =========================================================================
+    // [녹화 / 재생]
+    // =========================================================================
+
+    // 요청 식별 키: 메서드 + 경로 + 본문 (multipart 경계 문자열은 매번 달라지므로 제거)
+    private String recordKey(HttpExchange exchange, String path, byte[] body) {
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null) {
+            Matcher m = BOUNDARY.matcher(contentType);
+            if (m.find()) text = text.replace(m.group(1), "BOUNDARY");
+        }
+        return sha256(exchange.getRequestMethod() + " " + path + "\n" + text);
+    }
+
+    private boolean replay(HttpExchange exchange, String key) throws IOException {
+        Path meta = config.replayDir.resolve(key + ".meta");
+        if (!Files.exists(meta)) return false;
+
+        List<String> lines = Files.readAllLines(meta, StandardCharsets.UTF_8);
+        send(exchange, Integer.parseInt(lines.get(0)), lines.get(1), Files.readAllBytes(config.replayDir.resolve(key + ".body")));
+        return true;
+    }
+
+    private void proxyAndRecord(HttpExchange exchange, String path, byte[] body, String key) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(config.upstream + path))
+                .method(exchange.getRequestMethod(), HttpRequest.BodyPublishers.ofByteArray(body));
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null) request.header("Content-Type", contentType);
+        if (config.upstreamApiKey != null) request.header("Authorization", "Bearer " + config.upstreamApiKey);
+
+        HttpResponse<byte[]> response = upstreamClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        String responseType = response.headers().firstValue("Content-Type").orElse("application/json");
+
+        Files.createDirectories(config.recordDir);
+        Files.write(config.recordDir.resolve(key + ".body"), response.body());
+        Files.write(config.recordDir.resolve(key + ".meta"), List.of(String.valueOf(response.statusCode()), responseType, path));
+        send(exchange, response.statusCode(), responseType, response.body());
+    }
+
+    // =========================================================================
+    // [Helpers]
+    // =========================================================================
+
+    private void sendJson(HttpExchange exchange, JsonNode json) throws IOException {
+        send(exchange, 200, "application/json", MAPPER.writeValueAsBytes(json));
+    }
+
+    private void sendError(HttpExchange exchange, int status) throws IOException {
+        ObjectNode error = MAPPER.createObjectNode();
+        error.putObject("error")
+                .put("message", status == 429 ? "Rate limit reached (fake)" : "Upstream error (fake)")
+                .put("type", status == 429 ? "rate_limit_exceeded" : "server_error")
+                .put("code", String.valueOf(status));
+        if (status == 429) exchange.getResponseHeaders().set("Retry-After", "1");
+        send(exchange, status, "application/json", MAPPER.writeValueAsBytes(error));
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) exchange.getResponseBody().write(body);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        Matcher m = Pattern.compile("\\s*\\S+").matcher(text == null ? "" : text);
+        while (m.find()) tokens.add(m.group());
+        return tokens;
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration == null || duration.isZero() || duration.isNegative()) return;
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String sha256(String input) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 마지막 사용자 메시지 (템플릿용)
+    public static String lastUserMessage(JsonNode request) {
+        String last = "";
+        for (JsonNode message : request.path("messages")) {
+            if ("user".equals(message.path("role").asText())) last = message.path("content").asText();
+        }
+        return last;
+    }
+
+    /**
+     * [지연 분포] 첫 바이트까지의 지연 시간
+     */
+    @FunctionalInterface
+    public interface Latency {
+        Duration sample(Random random);
+
+        static Latency none() {
+            return random -> Duration.ZERO;
+        }
+
+        static Latency fixed(Duration delay) {
+            return random -> delay;
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            return random -> min.plusMillis((long) (random.nextDouble() * (max.toMillis() - min.toMillis())));
+        }
+
+        // 실제 LLM 응답 시간처럼 꼬리가 긴 분포 (median 기준, sigma가 클수록 꼬리가 김)
+        static Latency logNormal(Duration median, double sigma) {
+            return random -> Duration.ofMillis((long) (median.toMillis() * Math.exp(sigma * random.nextGaussian())));
+        }
+    }
+
+    /**
+     * [설정] 기본값: 포트 자동, 지연 없음, 오류 없음, 고정 응답
+     */
+    public static final class Builder {
+        private int port = 0;
+        private long seed = 42;
+        private Latency latency = Latency.none();
+        private Duration tokenDelay = Duration.ZERO;
+        private double errorRate = 0;
+        private int errorStatus = 429;
+        private Function<JsonNode, String> chatContent = request -> "[fake] " + lastUserMessage(request);
+        private byte[] speechAudio = "ID3fake-audio".getBytes(StandardCharsets.US_ASCII);
+        private String transcript = "fake transcript";
+        private String upstream;
+        private String upstreamApiKey;
+        private Path recordDir;
+        private Path replayDir;
+
+        public Builder port(int port) { this.port = port; return this; }
+        public Builder seed(long seed) { this.seed = seed; return this; }
+        public Builder latency(Latency latency) { this.latency = latency; return this; }
+        public Builder tokenDelay(Duration tokenDelay) { this.tokenDelay = tokenDelay; return this; }
+        public Builder errors(double rate, int status) { this.errorRate = rate; this.errorStatus = status; return this; }
+        public Builder chatContent(Function<JsonNode, String> chatContent) { this.chatContent = chatContent; return this; }
+        public Builder speechAudio(byte[] speechAudio) { this.speechAudio = speechAudio; return this; }
+        public Builder transcript(String transcript) { this.transcript = transcript; return this; }
+        public Builder replay(Path dir) { this.replayDir = dir; return this; }
+
+        // 실제 API(upstream)로 대신 요청하고 응답을 dir에 저장 (replay(dir)와 함께 쓰면 없는 것만 녹화)
+        public Builder record(String upstream, String apiKey, Path dir) {
+            this.upstream = upstream;
+            this.upstreamApiKey = apiKey;
+            this.recordDir = dir;
+            return this;
+        }
+
+        public FakeOpenAiServer build() throws IOException {
+            return new FakeOpenAiServer(this);
+        }
+    }
+
+    /**
+     * [단독 실행] 부하 테스트용
+     * 인자: [포트] / 시스템 속성: fake.latency-median-ms, fake.latency-sigma, fake.token-delay-ms, fake.error-rate, fake.replay-dir
+     */
+    public static void main(String[] args) throws IOException {
+        Builder builder = builder()
+                .port(args.length > 0 ? Integer.parseInt(args[0]) : 18080)
+                .latency(Latency.logNormal(Duration.ofMillis(Long.getLong("fake.latency-median-ms", 800)),
+                        Double.parseDouble(System.getProperty("fake.latency-sigma", "0.5"))))
+                .tokenDelay(Duration.ofMillis(Long.getLong("fake.token-delay-ms", 30)))
+                .errors(Double.parseDouble(System.getProperty("fake.error-rate", "0")), 429);
+        String replayDir = System.getProperty("fake.replay-dir");
+        if (replayDir != null) builder.replay(Path.of(replayDir));
+
+        FakeOpenAiServer server = builder.build().start();
+        System.out.println("Fake OpenAI server: " + server.baseUrl());
+    }
+}
@@ -0,0 +1,99 @@
+package com.tutoroo.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.retry.RetryUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 OpenAI 대역 서버에 실제 Spring AI 클라이언트를 붙여 동작을 확인합니다. (외부 API/DB 불필요)
+ */
+class FakeOpenAiServerTest {
+
+    @TempDir
+    Path recordings;
+
+    @Test
+    void chatModelReceivesTemplatedContent() throws Exception {
+        try (FakeOpenAiServer server = FakeOpenAiServer.builder()
+                .chatContent(request -> "echo: " + FakeOpenAiServer.lastUserMessage(request))
+                .build().start()) {
+
+            assertEquals("echo: 안녕하세요", chatModel(server).call("안녕하세요"));
+        }
+    }
+
+    @Test
+    void streamingDeliversTokensInOrder() throws Exception {
+        try (FakeOpenAiServer server = FakeOpenAiServer.builder()
+                .chatContent(request -> "오늘은 자바 기초를 배워 볼게요")
+                .build().start()) {
+
+            List<ChatResponse> chunks = chatModel(server).stream(new Prompt("시작")).collectList().block();
+            String text = chunks.stream()
+                    .filter(r -> r.getResult() != null && r.getResult().getOutput().getText() != null)
+                    .map(r -> r.getResult().getOutput().getText())
+                    .collect(Collectors.joining());
+
+            assertEquals("오늘은 자바 기초를 배워 볼게요", text);
+            assertTrue(chunks.size() > 1);
+        }
+    }
+
+    @Test
+    void injectedRateLimitCarriesRetryAfter() throws Exception {
+        try (FakeOpenAiServer server = FakeOpenAiServer.builder().errors(1.0, 429).build().start()) {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(server.baseUrl() + "/v1/chat/completions"))
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"model\":\"gpt-4o\",\"messages\":[]}"))
+                            .header("Content-Type", "application/json")
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(429, response.statusCode());
+            assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+        }
+    }
+
+    @Test
+    void replaysRecordedResponseWithoutUpstream() throws Exception {
+        try (FakeOpenAiServer upstream = FakeOpenAiServer.builder().chatContent(request -> "녹화된 응답").build().start()) {
+            try (FakeOpenAiServer recorder = FakeOpenAiServer.builder()
+                    .record(upstream.baseUrl(), "test-key", recordings).build().start()) {
+                assertEquals("녹화된 응답", chatModel(recorder).call("질문"));
+            }
+        }
+
+        try (FakeOpenAiServer replayer = FakeOpenAiServer.builder()
+                .chatContent(request -> "녹화되지 않은 요청")
+                .replay(recordings).build().start()) {
+            assertEquals("녹화된 응답", chatModel(replayer).call("질문"));
+            assertEquals("녹화되지 않은 요청", chatModel(replayer).call("다른 질문"));
+        }
+    }
+
+    private OpenAiChatModel chatModel(FakeOpenAiServer server) {
+        OpenAiChatOptions options = new OpenAiChatOptions();
+        options.setModel("gpt-4o");
+        return OpenAiChatModel.builder()
+                .openAiApi(OpenAiApi.builder().baseUrl(server.baseUrl()).apiKey("test").build())
+                .defaultOptions(options)
+                .retryTemplate(RetryUtils.SHORT_RETRY_TEMPLATE)
+                .build();
+    }
+}
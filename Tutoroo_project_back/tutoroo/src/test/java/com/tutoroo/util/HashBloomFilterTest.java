@@ -0,0 +1,67 @@
+package com.tutoroo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 추가한 값은 항상 찾고(거짓 음성 없음), 추가하지 않은 값의 오탐률이 설정값 근처인지 확인합니다.
+ */
+class HashBloomFilterTest {
+
+    @Test
+    void neverMissesAddedValues() {
+        HashBloomFilter filter = new HashBloomFilter(10_000, 0.01);
+        List<String> added = digests("added-", 10_000);
+        added.forEach(filter::put);
+
+        added.forEach(digest -> assertTrue(filter.mightContain(digest), digest));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredFpp() {
+        HashBloomFilter filter = new HashBloomFilter(10_000, 0.01);
+        digests("added-", 10_000).forEach(filter::put);
+
+        long falsePositives = digests("absent-", 20_000).stream().filter(filter::mightContain).count();
+        double rate = falsePositives / 20_000.0;
+        assertTrue(rate < 0.02, "오탐률 " + rate);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        HashBloomFilter filter = new HashBloomFilter(100, 0.01);
+        assertFalse(filter.mightContain(Hashes.sha256Hex("없는 문제")));
+    }
+
+    @Test
+    void concurrentPutsAreAllVisible() throws Exception {
+        HashBloomFilter filter = new HashBloomFilter(20_000, 0.01);
+        List<String> added = digests("concurrent-", 20_000);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = offset; i < added.size(); i += 8) filter.put(added.get(i));
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        }
+
+        added.forEach(digest -> assertTrue(filter.mightContain(digest), digest));
+    }
+
+    private static List<String> digests(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> Hashes.sha256Hex(prefix + i)).toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.tutoroo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 조각 경계와 상관없이 닫힌 원소만 순서대로 꺼내는지, 응답이 끊기면 미완성으로 남는지 확인합니다.
+ */
+class JsonArrayStreamParserTest {
+
+    private static final String RESPONSE = """
+            ```json
+            [
+              {"number": 1, "question": "배열 [0]의 값은?", "options": ["{", "}"]},
+              {"number": 2, "question": "따옴표 \\"escape\\" 처리"}
+            ]
+            ```""";
+
+    @Test
+    void emitsElementsRegardlessOfChunkBoundaries() {
+        for (int size = 1; size <= RESPONSE.length(); size++) {
+            JsonArrayStreamParser parser = new JsonArrayStreamParser();
+            List<String> elements = feedInChunks(parser, RESPONSE, size);
+
+            assertEquals(2, elements.size(), "chunk size " + size);
+            assertEquals("{\"number\": 1, \"question\": \"배열 [0]의 값은?\", \"options\": [\"{\", \"}\"]}", elements.get(0));
+            assertEquals("{\"number\": 2, \"question\": \"따옴표 \\\"escape\\\" 처리\"}", elements.get(1));
+            assertTrue(parser.isComplete());
+        }
+    }
+
+    @Test
+    void truncatedResponseKeepsClosedElementsOnly() {
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+        List<String> elements = parser.feed("[{\"a\": 1}, {\"b\": \"끊긴");
+
+        assertEquals(List.of("{\"a\": 1}"), elements);
+        assertFalse(parser.isComplete());
+    }
+
+    @Test
+    void usesFirstArrayInsideWrappingObject() {
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+        List<String> elements = parser.feed("{\"questions\": [{\"a\": [1, 2]}], \"other\": [{\"b\": 2}]}");
+
+        assertEquals(List.of("{\"a\": [1, 2]}"), elements);
+        assertTrue(parser.isComplete());
+    }
+
+    @Test
+    void ignoresInputAfterCompletion() {
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+        parser.feed("[]");
+
+        assertTrue(parser.isComplete());
+        assertTrue(parser.feed("[{\"late\": true}]").isEmpty());
+    }
+
+    @Test
+    void emptyOrNullChunksAreHarmless() {
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+
+        assertTrue(parser.feed(null).isEmpty());
+        assertTrue(parser.feed("").isEmpty());
+        assertFalse(parser.isComplete());
+    }
+
+    private static List<String> feedInChunks(JsonArrayStreamParser parser, String text, int size) {
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += size) {
+            elements.addAll(parser.feed(text.substring(i, Math.min(text.length(), i + size))));
+        }
+        return elements;
+    }
+}
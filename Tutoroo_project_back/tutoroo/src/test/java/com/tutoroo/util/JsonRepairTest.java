@@ -0,0 +1,67 @@
+package com.tutoroo.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 흔한 AI 출력 오류(설명 문구, 코드 블록, 끝 쉼표, 잘린 응답)를 고친 결과가 유효한 JSON인지 확인합니다.
+ */
+class JsonRepairTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void stripsProseAndCodeFence() throws Exception {
+        assertJson("{\"a\": 1}", "물론이죠! 결과입니다.\n```json\n{\"a\": 1}\n```\n도움이 되었길 바랍니다.");
+    }
+
+    @Test
+    void removesTrailingCommas() throws Exception {
+        assertJson("[1, 2]", "[1, 2,]");
+        assertJson("{\"a\": {\"b\": [1]}}", "{\"a\": {\"b\": [1,],},}");
+    }
+
+    @Test
+    void keepsBracketsAndEscapesInsideStrings() throws Exception {
+        String json = "{\"code\": \"if (a) { b[0] = \\\"}\\\"; }\"}";
+        assertJson(json, json);
+    }
+
+    @Test
+    void closesTruncatedStringValue() throws Exception {
+        assertJson("{\"summary\": \"자바 기초\", \"days\": [\"1일차 변수\"]}",
+                "{\"summary\": \"자바 기초\", \"days\": [\"1일차 변수");
+    }
+
+    @Test
+    void dropsIncompleteKeyOrNumber() throws Exception {
+        assertJson("{\"a\": 1}", "{\"a\": 1, \"b");
+        assertJson("{\"a\": 1}", "{\"a\": 1, \"b\": 12");
+        assertJson("{\"a\": 1}", "{\"a\": 1, \"b\": tr");
+    }
+
+    @Test
+    void closesTruncatedNesting() throws Exception {
+        assertJson("{\"items\": [{\"x\": 1}, {}]}", "{\"items\": [{\"x\": 1}, {\"y\":");
+    }
+
+    @Test
+    void dropsDanglingEscapeAtCut() throws Exception {
+        assertJson("{\"a\": \"x\"}", "{\"a\": \"x\\");
+    }
+
+    @Test
+    void returnsTextWhenNoJsonFound() {
+        assertEquals("죄송합니다", JsonRepair.repair("  죄송합니다 "));
+        assertEquals("{}", JsonRepair.repair(null));
+    }
+
+    private void assertJson(String expected, String input) throws Exception {
+        String repaired = JsonRepair.repair(input);
+        JsonNode actual = objectMapper.readTree(repaired);
+        assertEquals(objectMapper.readTree(expected), actual, repaired);
+    }
+}
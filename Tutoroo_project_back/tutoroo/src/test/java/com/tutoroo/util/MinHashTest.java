@@ -0,0 +1,96 @@
+package com.tutoroo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 정규화 규칙, 서명 유사도가 실제 자카드 유사도에 가까운지, LSH band 키가 서명 자리별로 나뉘는지 확인합니다.
+ */
+class MinHashTest {
+
+    private final MinHash minHash = new MinHash(128, 3);
+
+    @Test
+    void normalizeKeepsOnlyLettersAndDigits() {
+        assertEquals("자바변수가뭐야", MinHash.normalize("자바 변수가 뭐야?"));
+        assertEquals("java변수1", MinHash.normalize("ＪＡＶＡ 변수 #１!"));
+        assertEquals("", MinHash.normalize(null));
+    }
+
+    @Test
+    void signatureIsStableAcrossInstances() {
+        String text = MinHash.normalize("자바에서 변수는 어떻게 선언하나요?");
+
+        assertArrayEquals(minHash.signature(text), new MinHash(128, 3).signature(text));
+        assertEquals(1.0, MinHash.similarity(minHash.signature(text), minHash.signature(text)));
+    }
+
+    @Test
+    void similarityEstimatesJaccardOfShingles() {
+        String a = MinHash.normalize("자바에서 변수는 어떻게 선언하나요?");
+        String b = MinHash.normalize("자바에서 변수는 어떻게 선언해요");
+        String c = MinHash.normalize("파이썬 리스트 정렬 방법 알려줘");
+
+        double estimate = MinHash.similarity(minHash.signature(a), minHash.signature(b));
+        assertEquals(jaccard(a, b), estimate, 0.15);
+        assertTrue(MinHash.similarity(minHash.signature(a), minHash.signature(c)) < 0.1);
+    }
+
+    @Test
+    void textShorterThanShingleIsOneShingle() {
+        int[] signature = minHash.signature("자바");
+
+        assertEquals(1.0, MinHash.similarity(signature, minHash.signature("자바")));
+        assertTrue(MinHash.similarity(signature, minHash.signature("파이")) < 0.1);
+    }
+
+    @Test
+    void similarityOfMismatchedSignaturesIsZero() {
+        assertEquals(0, MinHash.similarity(new int[]{1, 2}, new int[]{1}));
+        assertEquals(0, MinHash.similarity(new int[0], new int[0]));
+    }
+
+    @Test
+    void bandKeysChangeOnlyForTheTouchedBand() {
+        int[] signature = minHash.signature(MinHash.normalize("자바 변수 선언"));
+        int[] changed = signature.clone();
+        changed[0]++;
+
+        String[] keys = MinHash.bandKeys(signature, 16);
+        String[] changedKeys = MinHash.bandKeys(changed, 16);
+
+        assertEquals(16, keys.length);
+        assertTrue(keys[3].startsWith("3:"));
+        assertNotEquals(keys[0], changedKeys[0]);
+        for (int b = 1; b < keys.length; b++) assertEquals(keys[b], changedKeys[b]);
+    }
+
+    @Test
+    void rejectsNonPositiveSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new MinHash(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> new MinHash(128, 0));
+    }
+
+    private static double jaccard(String a, String b) {
+        Set<String> sa = shingles(a);
+        Set<String> sb = shingles(b);
+        Set<String> union = new HashSet<>(sa);
+        union.addAll(sb);
+        sa.retainAll(sb);
+        return (double) sa.size() / union.size();
+    }
+
+    private static Set<String> shingles(String text) {
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) shingles.add(text.substring(i, i + 3));
+        return shingles;
+    }
+}
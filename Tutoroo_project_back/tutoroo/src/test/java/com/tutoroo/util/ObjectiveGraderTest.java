@@ -0,0 +1,92 @@
+package com.tutoroo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 객관식/O·X/숫자/단답형 로컬 채점과, 판정을 AI로 넘겨야 하는 경우를 확인합니다.
+ */
+class ObjectiveGraderTest {
+
+    private static final List<String> OPTIONS = List.of("A. 클래스", "B. 객체", "C. 변수", "D. 메서드");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectiveGrader grader = new ObjectiveGrader(meterRegistry);
+
+    @Test
+    void multipleChoiceAcceptsLetterNumberAndOptionText() {
+        assertTrue(grade("MULTIPLE_CHOICE", OPTIONS, "B", "B", null).correct());
+        assertTrue(grade("MULTIPLE_CHOICE", OPTIONS, "B", "2", null).correct());
+        assertTrue(grade("MULTIPLE_CHOICE", OPTIONS, "B", "객체", null).correct());
+        assertTrue(grade("MULTIPLE_CHOICE", OPTIONS, "B", null, 1).correct());
+        assertFalse(grade("MULTIPLE_CHOICE", OPTIONS, "B", "C", null).correct());
+        assertEquals("B. 객체", grade("MULTIPLE_CHOICE", OPTIONS, "B", "C", null).correctAnswer());
+    }
+
+    @Test
+    void selectedIndexWithUnresolvableKeyIsDeferred() {
+        // 정답 문자열이 어느 보기에도 해당하지 않으면 고른 보기만으로는 판정할 수 없음
+        assertTrue(grader.grade("MULTIPLE_CHOICE", OPTIONS, "인스턴스", null, 1).isEmpty());
+    }
+
+    @Test
+    void trueFalseNormalizesWords() {
+        assertTrue(grade("SHORT_ANSWER", null, "O", "맞다", null).correct());
+        assertFalse(grade("SHORT_ANSWER", null, "O", "false", null).correct());
+        assertTrue(grader.grade("SHORT_ANSWER", null, "O", "잘 모르겠어요", null).isEmpty());
+    }
+
+    @Test
+    void numbersCompareByValueAndUnit() {
+        assertTrue(grade("SHORT_ANSWER", null, "1,000", "1000", null).correct());
+        assertTrue(grade("SHORT_ANSWER", null, "0.5", "1/2", null).correct());
+        assertTrue(grade("SHORT_ANSWER", null, "3cm", "3", null).correct());
+        assertFalse(grade("SHORT_ANSWER", null, "3cm", "3kg", null).correct());
+    }
+
+    @Test
+    void shortAnswerOnlyConfirmsExactMatches() {
+        assertTrue(grade("SHORT_ANSWER", null, "Hello World", "hello, world!", null).correct());
+        // 동의어일 수 있으므로 다르면 AI 채점
+        assertTrue(grader.grade("SHORT_ANSWER", null, "상속", "확장", null).isEmpty());
+    }
+
+    @Test
+    void unsupportedTypesGoToLlm() {
+        assertTrue(grader.grade("ESSAY", null, "답", "답", null).isEmpty());
+        assertTrue(grader.grade("QUIZ", OPTIONS, "B", "B", null).isEmpty());
+        assertTrue(grader.grade("MULTIPLE_CHOICE", OPTIONS, null, "B", null).isEmpty());
+    }
+
+    @Test
+    void dailyQuizGradesByAnswerIndex() {
+        List<String> options = List.of("네", "아니오", "글쎄요", "모르겠어요");
+        assertTrue(grader.gradeChoice(options, 1, "아니오", null).orElseThrow().correct());
+        assertFalse(grader.gradeChoice(options, 1, "1", null).orElseThrow().correct());
+        assertTrue(grader.gradeChoice(options, 1, null, 1).orElseThrow().correct());
+        assertTrue(grader.gradeChoice(options, 7, "네", null).isEmpty());
+        assertTrue(grader.gradeChoice(options, 1, "잘 모르겠는데요", null).isEmpty());
+    }
+
+    @Test
+    void recordsEngineMetric() {
+        grader.grade("SHORT_ANSWER", null, "O", "O", null);
+        grader.grade("ESSAY", null, "답", "답", null);
+
+        assertEquals(1.0, meterRegistry.counter("grading.requests", "engine", "local").count());
+        assertEquals(1.0, meterRegistry.counter("grading.requests", "engine", "llm").count());
+    }
+
+    private ObjectiveGrader.Result grade(String type, List<String> options, String key, String answer, Integer selected) {
+        Optional<ObjectiveGrader.Result> result = grader.grade(type, options, key, answer, selected);
+        assertTrue(result.isPresent(), () -> "판정 보류: " + key + " / " + answer);
+        return result.get();
+    }
+}
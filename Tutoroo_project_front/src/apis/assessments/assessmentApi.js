@@ -1,22 +1,42 @@
 import { api } from "../configs/axiosConfig";
 
+// 첫 요청은 studyInfo로 세션 시작, 이후에는 sessionId + 이번 메시지만 전송 (대화는 서버가 보관)
 export const consultAssessment = async ({
+  sessionId,
   studyInfo,
-  history,
   lastUserMessage,
 }) => {
-  const res = await api.post("/api/assessment/consult", {
-    studyInfo,
-    history,
-    lastUserMessage,
-  });
-  return res.data; // { aiMessage, audioUrl, isFinished }
+  const res = await api.post(
+    "/api/assessment/consult",
+    sessionId ? { sessionId, lastUserMessage } : { studyInfo, lastUserMessage },
+  );
+  return res.data; // { sessionId, aiMessage, audioUrl, isFinished }
 };
 
-export const generateRoadmap = async ({ studyInfo, history }) => {
+const ROADMAP_JOB_POLL_MS = 2000;
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+// 로드맵 생성은 백그라운드 작업: 접수 후 완료될 때까지 상태를 조회
+export const generateRoadmap = async ({ studyInfo, sessionId }) => {
   const res = await api.post("/api/assessment/submit", {
     studyInfo,
-    history,
+    sessionId,
   });
-  return res.data; // { analyzedLevel, analysisReport, overview, message, planId ... }
+
+  let job = res.data; // { jobId, status, result, errorCode, message }
+  while (job.status === "PENDING" || job.status === "RUNNING") {
+    await sleep(ROADMAP_JOB_POLL_MS);
+    const poll = await api.get(`/api/assessment/jobs/${job.jobId}`);
+    job = poll.data;
+  }
+
+  if (job.status === "FAILED") {
+    // 기존 에러 처리(e.response.data.code)를 그대로 쓰도록 axios 에러 형태로 전달
+    const error = new Error(job.message);
+    error.response = { status: 400, data: { code: job.errorCode, message: job.message } };
+    throw error;
+  }
+
+  return job.result; // { analyzedLevel, analysisReport, overview, message, planId ... }
 };
@@ -112,9 +112,9 @@ export const studyApi = {
   },
 
   // 11. 테스트 답안 제출
-  submitDailyTest: async ({ planId, textAnswer, imageFile }) => {
+  submitDailyTest: async ({ planId, quizId, textAnswer, imageFile }) => {
     const formData = new FormData();
-    const requestData = { planId, textAnswer };
+    const requestData = { planId, quizId, textAnswer };
     
     formData.append(
       "data",
@@ -41,8 +41,10 @@ function LevelTestPage() {
   ]);
   const [input, setInput] = useState("");
 
-  //  백엔드로 보내는 history (User/AI 누적)
+  //  대화 기록 (User/AI 누적, 전송은 서버 세션이 담당하고 여기서는 답변 여부 확인용)
   const [history, setHistory] = useState([]);
+  //  서버 상담 세션 ID (첫 응답에서 발급)
+  const [sessionId, setSessionId] = useState(null);
 
   const [isCompleted, setIsCompleted] = useState(false);
   const [isConsulting, setIsConsulting] = useState(false);
@@ -65,9 +67,9 @@ function LevelTestPage() {
       try {
         const res = await consultAssessment({
           studyInfo,
-          history: [],
           lastUserMessage: null, // 첫 질문 유도
         });
+        setSessionId(res.sessionId);
 
         setMessages((prev) => [
           ...prev,
@@ -88,7 +90,7 @@ function LevelTestPage() {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, []);
 
-  const handleGenerate = async (finalHistory) => {
+  const handleGenerate = async () => {
     const resolveRoadmapUrl = (url) => {
       if (!url) return null;
       // 이미 http(s)면 그대로
@@ -108,7 +110,7 @@ function LevelTestPage() {
     try {
       const result = await generateRoadmap({
         studyInfo,
-        history: finalHistory,
+        sessionId,
       });
 
       //  결과 페이지가 읽는 store에 매핑
@@ -172,10 +174,10 @@ function LevelTestPage() {
 
     setIsConsulting(true);
     try {
-      //  현재 history(이전 턴들) + lastUserMessage(이번 입력)로 consult
+      //  이전 턴은 서버 세션에 있으므로 이번 입력만 전송
       const res = await consultAssessment({
+        sessionId,
         studyInfo,
-        history,
         lastUserMessage: userMsg,
       });
 
@@ -192,7 +194,7 @@ function LevelTestPage() {
 
       const hasUserAnswer = nextHistory.some((m) => m.role === ROLE.USER);
       if (res.isFinished && hasUserAnswer) {
-        await handleGenerate(nextHistory);
+        await handleGenerate();
       }
     } catch (e) {
       Swal.fire({
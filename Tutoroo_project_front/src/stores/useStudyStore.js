@@ -288,9 +288,10 @@ const useStudyStore = create((set, get) => ({
   submitTest: async (answer, imageFile = null) => {
     set({ isChatLoading: true });
     try {
-        const { planId } = get();
+        const { planId, currentTestQuestion } = get();
         const result = await studyApi.submitDailyTest({
             planId,
+            quizId: currentTestQuestion?.quizId,
             textAnswer: answer,
             imageFile
         });